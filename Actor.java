@@ -16,8 +16,8 @@ public abstract class Actor
     protected boolean alive;
     // The actor's field.
     protected Field field;
-    // The actor's position in the field.
-    protected Location location;
+    // The actor's cell in the field, Field.NO_CELL once it has none.
+    protected int cell;
     // Whether the actor can overlap with other actors in a particular field
     protected boolean overlap;
     // The current time of day, true day, false night
@@ -26,18 +26,42 @@ public abstract class Actor
     protected Weather weather;
     // A shared random number generator to control breeding and disease infection effects.
     protected static final Random rand = Randomizer.getRandom();
+    // The id of the actor, used to key its random stream.
+    private long id;
 
     /**
      * Constructor for objects of class Actor
      * 
      * @param field The field the actor is currently in
-     * @param location The actors location on the field
+     * @param cell The actors cell on the field
      */
-    protected Actor(Field field, Location location)
+    protected Actor(Field field, int cell)
     {
+        id = rand.nextLong();
         alive = true;
         this.field = field;
-        setLocation(location);
+        this.cell = Field.NO_CELL;
+        setCell(cell);
+    }
+
+    /**
+     * Returns the id of the actor, used to key its random stream.
+     * 
+     * @return The id of the actor.
+     */
+    public long getId()
+    {
+        return id;
+    }
+
+    /**
+     * Gives the actor the id it had when a checkpoint was taken.
+     * 
+     * @param id The id of the actor.
+     */
+    protected void setId(long id)
+    {
+        this.id = id;
     }
 
     /**
@@ -74,8 +98,8 @@ public abstract class Actor
     private void replaceActor()
     {
 
-        if ((alive) && (field.getObjectAt(location) == null)) {
-            field.place(this, location);
+        if ((alive) && (field.getObjectAt(cell) == null)) {
+            field.place(this, cell);
         }
     }
 
@@ -84,9 +108,10 @@ public abstract class Actor
      */
     private void overcrowding()
     {
-        if(!overlap && location!=null && field.getObjectAt(location)!=null && !this.equals(field.getObjectAt(location))) {
+        if(!overlap && cell!=Field.NO_CELL && field.getObjectAt(cell)!=null && !this.equals(field.getObjectAt(cell))) {
+            field.getEvents().died(getSpecies(), DeathCause.OVERCROWDING);
             alive = false;
-            location = null;
+            cell = Field.NO_CELL;
             field = null;
         }
     }
@@ -131,6 +156,11 @@ public abstract class Actor
      */
     protected abstract double getFoodValue();
 
+    /**
+     * @return The species of the actor.
+     */
+    public abstract Species getSpecies();
+
     /**
      * Sets current weather effects values
      * 
@@ -158,35 +188,62 @@ public abstract class Actor
     protected void setDead()
     {
         alive = false;
-        if(location != null) {
-            field.clear(location);
-            location = null;
+        if(cell != Field.NO_CELL) {
+            field.clear(cell);
+            cell = Field.NO_CELL;
             field = null;
         }
     }
 
+    /**
+     * Indicate that the actor has died of the given cause, counting the death
+     * unless the actor was already dead.
+     * 
+     * @param cause What the actor died of.
+     */
+    protected void setDead(DeathCause cause)
+    {
+        if(alive && field != null) {
+            field.getEvents().died(getSpecies(), cause);
+        }
+        setDead();
+    }
+
     /**
      * Return the actor's location.
      * 
-     * @return The actor's location.
+     * @return The actor's location, or null if it has none.
      */
     protected Location getLocation()
     {
-        return location;
+        if(cell == Field.NO_CELL) {
+            return null;
+        }
+        return field.getLocation(cell);
+    }
+
+    /**
+     * Return the actor's cell.
+     * 
+     * @return The actor's cell, or Field.NO_CELL if it has none.
+     */
+    protected int getCell()
+    {
+        return cell;
     }
 
     /**
-     * Places the actor at the new location in the given field.
+     * Places the actor at the new cell in the given field.
      * 
-     * @param newLocation The actor's new location.
+     * @param newCell The actor's new cell.
      */
-    protected void setLocation(Location newLocation)
+    protected void setCell(int newCell)
     {
-        if(location != null) {
-            field.clear(location);
+        if(cell != Field.NO_CELL) {
+            field.clear(cell);
         }
-        location = newLocation;
-        field.place(this, newLocation);
+        cell = newCell;
+        field.place(this, newCell);
     }
 
     /**
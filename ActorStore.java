@@ -0,0 +1,480 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Stores actors as parallel primitive arrays rather than as objects.
+ * Each actor is addressed by an int handle, which is its index into the arrays.
+ *
+ * The store keeps its own grid of handles that follows the same rules as Field:
+ * each cell shows a single actor, animals can be placed over other actors
+ * and plants can only be placed into empty cells.
+ * An actor keeps its cell even when another actor is shown on top of it.
+ *
+ * Handles stay valid for the length of a step. Actors marked as removed are
+ * dropped by compact, which keeps the remaining actors in the order they were added.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class ActorStore
+{
+    // Marks a cell with no actor shown on it, or an actor with no cell.
+    public static final int EMPTY = -1;
+    // The number of actors the store can hold before it first grows.
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // The depth and width of the grid.
+    private final int depth, width;
+    // The handle of the actor shown at each cell, indexed by row * width + col.
+    private int[] grid;
+
+    // The id of each actor, used to key its random stream.
+    private long[] id;
+    // The species id of each actor.
+    private byte[] species;
+    // The age of each actor.
+    private int[] age;
+    // The food level of each actor.
+    private double[] foodLevel;
+    // The gender of each actor, as a Gender ordinal.
+    private byte[] gender;
+    // Whether each actor is infected by disease.
+    private boolean[] infected;
+    // Whether each actor is alive.
+    private boolean[] alive;
+    // Whether each actor is to be dropped by the next compact.
+    private boolean[] removed;
+    // The cell of each actor, EMPTY once it has no location.
+    private int[] cell;
+    // The number of handles in use.
+    private int size;
+
+    /**
+     * Create an empty store for a grid of the given dimensions.
+     *
+     * @param depth The depth of the grid.
+     * @param width The width of the grid.
+     */
+    public ActorStore(int depth, int width)
+    {
+        this.depth = depth;
+        this.width = width;
+        grid = new int[depth * width];
+        Arrays.fill(grid, EMPTY);
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Remove every actor and empty the grid.
+     */
+    public void clear()
+    {
+        Arrays.fill(grid, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Add a new live actor and place it at the given cell.
+     *
+     * @param actorId The id of the actor, used to key its random stream.
+     * @param type The species of the actor.
+     * @param cellIndex The cell the actor is born into.
+     * @param actorAge The age of the actor.
+     * @param food The food level of the actor.
+     * @param actorGender The gender of the actor, ignored for plants.
+     * @param actorInfected Whether the actor is infected.
+     * @return The handle of the new actor.
+     */
+    public int add(long actorId, Species type, int cellIndex, int actorAge, double food, Gender actorGender,
+                   boolean actorInfected)
+    {
+        if(size == species.length) {
+            allocate(size * 2);
+        }
+        int handle = size++;
+        id[handle] = actorId;
+        species[handle] = (byte) type.getId();
+        age[handle] = actorAge;
+        foodLevel[handle] = food;
+        gender[handle] = (byte) (actorGender == null ? 0 : actorGender.ordinal());
+        infected[handle] = actorInfected;
+        alive[handle] = true;
+        removed[handle] = false;
+        cell[handle] = cellIndex;
+        place(handle, cellIndex);
+        return handle;
+    }
+
+    /**
+     * Show an actor at the given cell.
+     * Animals are shown over whatever is there; other actors only take empty cells.
+     *
+     * @param handle The actor to be placed.
+     * @param cellIndex Where to place the actor.
+     */
+    public void place(int handle, int cellIndex)
+    {
+        if(getSpecies(handle).isAnimal() || grid[cellIndex] == EMPTY) {
+            grid[cellIndex] = handle;
+        }
+    }
+
+    /**
+     * Clear the given cell, whichever actor is shown on it.
+     *
+     * @param cellIndex The cell to clear.
+     */
+    public void clearCell(int cellIndex)
+    {
+        grid[cellIndex] = EMPTY;
+    }
+
+    /**
+     * Move an actor to a new cell, clearing the cell it was in.
+     *
+     * @param handle The actor to move.
+     * @param cellIndex The actor's new cell.
+     */
+    public void move(int handle, int cellIndex)
+    {
+        if(cell[handle] != EMPTY) {
+            clearCell(cell[handle]);
+        }
+        cell[handle] = cellIndex;
+        place(handle, cellIndex);
+    }
+
+    /**
+     * Indicate that an actor is no longer alive.
+     * Its cell is cleared and it loses its location.
+     *
+     * @param handle The actor that died.
+     */
+    public void setDead(int handle)
+    {
+        alive[handle] = false;
+        if(cell[handle] != EMPTY) {
+            clearCell(cell[handle]);
+            cell[handle] = EMPTY;
+        }
+    }
+
+    /**
+     * Indicate that an actor died because another actor took its cell.
+     * Its cell is left as it is.
+     *
+     * @param handle The actor that died.
+     */
+    public void setOvercrowded(int handle)
+    {
+        alive[handle] = false;
+        cell[handle] = EMPTY;
+    }
+
+    /**
+     * Change the cell of an actor without changing the grid.
+     * Used by steps that build the next grid in a separate buffer.
+     *
+     * @param handle The actor to move.
+     * @param cellIndex The actor's new cell.
+     */
+    public void setCell(int handle, int cellIndex)
+    {
+        cell[handle] = cellIndex;
+    }
+
+    /**
+     * Mark a dead actor to be dropped by the next compact.
+     *
+     * @param handle The actor to remove.
+     */
+    public void remove(int handle)
+    {
+        removed[handle] = true;
+    }
+
+    /**
+     * Drop all removed actors in a single pass.
+     * The remaining actors keep their order and the grid is updated to their new handles.
+     */
+    public void compact()
+    {
+        int live = 0;
+        for(int handle = 0; handle < size; handle++) {
+            if(!removed[handle]) {
+                if(handle != live) {
+                    id[live] = id[handle];
+                    species[live] = species[handle];
+                    age[live] = age[handle];
+                    foodLevel[live] = foodLevel[handle];
+                    gender[live] = gender[handle];
+                    infected[live] = infected[handle];
+                    alive[live] = alive[handle];
+                    removed[live] = false;
+                    cell[live] = cell[handle];
+                    if(cell[handle] != EMPTY && grid[cell[handle]] == handle) {
+                        grid[cell[handle]] = live;
+                    }
+                }
+                live++;
+            }
+        }
+        size = live;
+    }
+
+    /**
+     * Replace the grid of shown handles with a new one of the same size.
+     * Used by steps that build the next grid in a separate buffer.
+     *
+     * @param next The new grid.
+     * @return The previous grid, which can be reused as the next buffer.
+     */
+    public int[] swapGrid(int[] next)
+    {
+        int[] previous = grid;
+        grid = next;
+        return previous;
+    }
+
+    /**
+     * Calculates the number of steps gained for eating an actor,
+     * as Plant.getFoodValue and Animal.getFoodValue do.
+     *
+     * @param handle The actor being eaten.
+     * @return The number of steps gained for eating the actor.
+     */
+    public double getFoodValue(int handle)
+    {
+        Species type = getSpecies(handle);
+        int actorAge = age[handle];
+        if(!type.isAnimal()) {
+            return actorAge * type.getFoodValue();
+        }
+
+        int maxAge = type.getMaxAge();
+        int value = type.getFoodValue();
+        double food = -((4 / maxAge) * (actorAge - (maxAge / 2))) * 2 + value;
+        if(actorAge < maxAge / 5 || actorAge > maxAge * 4 / 5) {
+            food -= (value / 5);
+        }
+        return food;
+    }
+
+    /**
+     * Fill the given array with the cells adjacent to a cell, in a random order.
+     * The cell itself is not included and all cells lie within the grid.
+     * The order is chosen the same way Field chooses the order of adjacent locations.
+     *
+     * @param cellIndex The cell from which to find adjacent cells.
+     * @param rand The random generator used to choose the order.
+     * @param cells An array of at least 8 elements to be filled.
+     * @return The number of adjacent cells written to the array.
+     */
+    public int adjacentCells(int cellIndex, Random rand, int[] cells)
+    {
+        int row = cellIndex / width;
+        int col = cellIndex % width;
+        int order = Neighbourhood.randomOrder(rand);
+        int count = 0;
+        for(int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+            int direction = Neighbourhood.direction(order, k);
+            int nextRow = row + Neighbourhood.rowOffset(direction);
+            int nextCol = col + Neighbourhood.colOffset(direction);
+            // Exclude cells outside the grid.
+            if(nextRow >= 0 && nextRow < depth && nextCol >= 0 && nextCol < width) {
+                cells[count++] = nextRow * width + nextCol;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count the actors shown on the grid for each species.
+     * Actors hidden under another actor are not counted, as in FieldStats.
+     *
+     * @param counts An array indexed by species id to be filled with the counts.
+     */
+    public void countShown(int[] counts)
+    {
+        Arrays.fill(counts, 0);
+        for(int cellIndex = 0; cellIndex < grid.length; cellIndex++) {
+            if(grid[cellIndex] != EMPTY) {
+                counts[species[grid[cellIndex]]]++;
+            }
+        }
+    }
+
+    /**
+     * Grow every array to the given capacity.
+     *
+     * @param capacity The new number of actors the store can hold.
+     */
+    private void allocate(int capacity)
+    {
+        if(species == null) {
+            id = new long[capacity];
+            species = new byte[capacity];
+            age = new int[capacity];
+            foodLevel = new double[capacity];
+            gender = new byte[capacity];
+            infected = new boolean[capacity];
+            alive = new boolean[capacity];
+            removed = new boolean[capacity];
+            cell = new int[capacity];
+        }
+        else {
+            id = Arrays.copyOf(id, capacity);
+            species = Arrays.copyOf(species, capacity);
+            age = Arrays.copyOf(age, capacity);
+            foodLevel = Arrays.copyOf(foodLevel, capacity);
+            gender = Arrays.copyOf(gender, capacity);
+            infected = Arrays.copyOf(infected, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+            cell = Arrays.copyOf(cell, capacity);
+        }
+    }
+
+    /**
+     * @return The number of handles in use, including removed actors not yet compacted.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return The depth of the grid.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return The width of the grid.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Return the handle of the actor shown at a cell.
+     *
+     * @param cellIndex The cell to look at.
+     * @return The handle shown at the cell, or EMPTY if there is none.
+     */
+    public int getHandleAt(int cellIndex)
+    {
+        return grid[cellIndex];
+    }
+
+    /**
+     * @param handle An actor.
+     * @return The id of the actor, used to key its random stream.
+     */
+    public long getId(int handle)
+    {
+        return id[handle];
+    }
+
+    /**
+     * @param handle An actor.
+     * @return The species of the actor.
+     */
+    public Species getSpecies(int handle)
+    {
+        return Species.fromId(species[handle]);
+    }
+
+    /**
+     * @param handle An actor.
+     * @return The species id of the actor.
+     */
+    public int getSpeciesId(int handle)
+    {
+        return species[handle];
+    }
+
+    /**
+     * @param handle An actor.
+     * @return The age of the actor.
+     */
+    public int getAge(int handle)
+    {
+        return age[handle];
+    }
+
+    /**
+     * @param handle An actor.
+     * @param actorAge The new age of the actor.
+     */
+    public void setAge(int handle, int actorAge)
+    {
+        age[handle] = actorAge;
+    }
+
+    /**
+     * @param handle An actor.
+     * @return The food level of the actor.
+     */
+    public double getFoodLevel(int handle)
+    {
+        return foodLevel[handle];
+    }
+
+    /**
+     * @param handle An actor.
+     * @param food The new food level of the actor.
+     */
+    public void setFoodLevel(int handle, double food)
+    {
+        foodLevel[handle] = food;
+    }
+
+    /**
+     * @param handle An actor.
+     * @return The gender ordinal of the actor.
+     */
+    public int getGender(int handle)
+    {
+        return gender[handle];
+    }
+
+    /**
+     * @param handle An actor.
+     * @return Whether the actor is infected.
+     */
+    public boolean isInfected(int handle)
+    {
+        return infected[handle];
+    }
+
+    /**
+     * @param handle An actor.
+     * @param actorInfected Whether the actor is infected.
+     */
+    public void setInfected(int handle, boolean actorInfected)
+    {
+        infected[handle] = actorInfected;
+    }
+
+    /**
+     * @param handle An actor.
+     * @return Whether the actor is alive.
+     */
+    public boolean isAlive(int handle)
+    {
+        return alive[handle];
+    }
+
+    /**
+     * @param handle An actor.
+     * @return The cell of the actor, or EMPTY if it has none.
+     */
+    public int getCell(int handle)
+    {
+        return cell[handle];
+    }
+}
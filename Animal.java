@@ -1,8 +1,4 @@
-import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.List;
-import java.util.HashMap;
-import java.util.HashSet;
 
 /**
  * A class representing shared characteristics of animals.
@@ -22,9 +18,9 @@ public abstract class Animal extends Actor
     // the number of steps a predator gains when it eats this animal.
     private int FOOD_VALUE;
     // The probability that a predator eats its prey.
-    private static final double EATING_PROBABILITY = 0.8;
-    // A map containing values that can affect how the animal reacts based off the weather.
-    private EnumMap<WeatherEffectTypes, Double> weatherEffect = new EnumMap<>(WeatherEffectTypes.class);
+    static final double EATING_PROBABILITY = 0.8;
+    // The modifiers that affect how the animal reacts based off the weather, indexed by effect type ordinal.
+    private double[] weatherEffect;
     // Probability that an animal dies from disease.
     private double DEATH_FROM_DISEASE_PROBABILITY;
     // Minimum breeding age.
@@ -36,11 +32,9 @@ public abstract class Animal extends Actor
     // Maximum age the animal can reach.
     private int MAX_AGE;
     // Probability that an infected animal spreads the virus.
-    private double VIRUS_SPREAD_PROBABILITY = 0.1;
+    static final double VIRUS_SPREAD_PROBABILITY = 0.1;
     // The probability that an infected animal gets cured.
-    private double CURE_INFECTION_PROBABILITY = 0.1;
-    // Map containing a set of all the predators of a given animal.
-    protected static HashMap<Class, HashSet<Class>> MAP_OF_PREDATORS =  new HashMap<>();
+    static final double CURE_INFECTION_PROBABILITY = 0.1;
 
     // Whether an animal is infected by disease or not.
     protected boolean infected;
@@ -49,29 +43,17 @@ public abstract class Animal extends Actor
      * Create a new animal at location in field.
      * 
      * @param field    The field currently occupied.
-     * @param location The location within the field.
+     * @param cell The cell within the field.
      * @param infected Boolean value determining if the animal is infected or not.
      * 
      */
-    protected Animal(Field field, Location location, boolean infected)
+    protected Animal(Field field, int cell, boolean infected)
     {
-        super(field, location);
+        super(field, cell);
         // infects animal if infected.
-        this.infected = infected;
+        setInfected(infected);
         // assigns random gender.
         randomGender();
-        initiatePredators();
-    }
-
-    /**
-     * Creates a key for the current animal type in the MAP_OF_PREDATORS.
-     * Generates empty set and assigns it to the key.
-     */
-    private void initiatePredators()
-    {
-        if(!MAP_OF_PREDATORS.containsKey(this.getClass())){
-            MAP_OF_PREDATORS.put(this.getClass(), new HashSet<Class>());
-        }
     }
 
     /**
@@ -148,17 +130,33 @@ public abstract class Animal extends Actor
      * 
      * @return Gender of the animal.
      */
-    private Gender getGender()
+    protected Gender getGender()
     {
         return gender;
     }
 
+    /**
+     * Gives the animal the state it had when a checkpoint was taken.
+     * 
+     * @param age The age of the animal.
+     * @param foodLevel The food level of the animal.
+     * @param gender The gender of the animal.
+     * @param infected Whether the animal is infected.
+     */
+    protected void restore(int age, double foodLevel, Gender gender, boolean infected)
+    {
+        this.age = age;
+        this.foodLevel = foodLevel;
+        setGender(gender);
+        setInfected(infected);
+    }
+
     /**
      * Retrieves and sets the current weather effect values.
      */
     protected void setWeatherEffects() 
     {
-        weatherEffect = WeatherAction.weatherOnAnimals(weather);
+        weatherEffect = WeatherAction.animalEffects(weather);
     }
 
     /**
@@ -169,23 +167,23 @@ public abstract class Animal extends Actor
      */
     private boolean canBreed(Field field) 
     {
-        // Find all adjacent locations.
-        List<Location> adjacentLocations = field.adjacentLocations(getLocation()); 
-        // List of potential partners.
-        List<Animal> partnerList = new ArrayList<>();
-
-        adjacentLocations.forEach(adjacentLocation -> {
-                Object actor = field.getObjectAt(adjacentLocation);
+        // Look for a partner in the adjacent locations.
+        int order = field.randomOrder();
+        boolean partner = false;
+
+        for (int k = 0; k < Neighbourhood.DIRECTIONS && !partner; k++) {
+            int adjacentCell = field.adjacentCell(getCell(), order, k);
+            if (adjacentCell != Field.NO_CELL) {
+                Object actor = field.getObjectAt(adjacentCell);
                 if (actor instanceof Animal) {
                     Animal animal = (Animal) actor;
                     // Check for same species and opposite gender.
-                    if (this.getClass().equals(animal.getClass()) && !(this.getGender().equals(animal.getGender()))) {
-                        partnerList.add(animal);
-                    }
+                    partner = getSpecies() == animal.getSpecies() && !(this.getGender().equals(animal.getGender()));
                 }
-            });
+            }
+        }
 
-        return age >= BREEDING_AGE && !partnerList.isEmpty();
+        return age >= BREEDING_AGE && partner;
     }
 
     /**
@@ -195,7 +193,7 @@ public abstract class Animal extends Actor
     {
         age++;
         if (age > MAX_AGE) {
-            setDead();
+            setDead(DeathCause.AGE);
         }
     }
 
@@ -206,7 +204,7 @@ public abstract class Animal extends Actor
     {
         foodLevel--;
         if (foodLevel <= 0) {
-            setDead();
+            setDead(DeathCause.STARVATION);
         }
     }
 
@@ -234,41 +232,52 @@ public abstract class Animal extends Actor
      * Only the first live prey or plant is eaten.
      * Food level is increased by the prey's mass if animal eats prey.
      * 
-     * @param listOfPrey A list of prey that this animal feeds on.
-     * @return Where food was found, or null if it wasn't.
+     * @return The cell where food was found, or Field.NO_CELL if it wasn't.
      */
-    protected Location findFood(List<Class> listOfPrey)
+    protected int findFood()
     {
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        List<Location> availablePrey = new ArrayList<>();
-
-        adjacent.forEach(where -> {
-                Object object = field.getObjectAt(where);
-                if (object != null){
-                    Actor actor = (Actor) object;
-                    // if actor type is in list of prey for predator, prey is alive and probability for eating met.
-                    if ((listOfPrey.contains(actor.getClass())) && (rand.nextDouble() <= EATING_PROBABILITY * effectHuntingProbability()) && (actor.isAlive())) { 
-                        actor.setDead();
-                        foodLevel += actor.getFoodValue();
-                        if(actor instanceof Animal){
-                            Animal animal = (Animal) actor;
-                            this.infected = this.infected || animal.getInfected();
-
-                            // Adds this animal to a set of predators for the prey.
-                            HashSet<Class> listOfPredators = MAP_OF_PREDATORS.get(animal.getClass());
-                            listOfPredators.add(this.getClass());
-                            MAP_OF_PREDATORS.replace(animal.getClass(), listOfPredators);
-                        }
-                        availablePrey.add(where);
+        int cell = getCell();
+        int order = field.randomOrder();
+        int found = Field.NO_CELL;
+        Species species = getSpecies();
+        PlantLayer plants = field.getPlants();
+
+        for (int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+            int where = field.adjacentCell(cell, order, k);
+            Object object = where == Field.NO_CELL ? null : field.getObjectAt(where);
+            if (object == null && plants != null && where != Field.NO_CELL && plants.hasPlant(where)) {
+                // Plants in a plant layer are eaten by clearing their cell.
+                if (species.eats(Species.PLANT) && (rand.nextDouble() <= EATING_PROBABILITY * effectHuntingProbability())) {
+                    foodLevel += plants.eat(where);
+                    field.getEvents().killed(species, Species.PLANT);
+                    if (found == Field.NO_CELL) {
+                        found = where;
                     }
                 }
-            });
-
-        if(!availablePrey.isEmpty()){
-            return availablePrey.get(0);
+            }
+            else if (object != null){
+                Actor actor = (Actor) object;
+                // if actor species is prey for predator, prey is alive and probability for eating met.
+                if (species.eats(actor.getSpecies()) && (rand.nextDouble() <= EATING_PROBABILITY * effectHuntingProbability()) && (actor.isAlive())) { 
+                    actor.setDead();
+                    field.getEvents().killed(species, actor.getSpecies());
+                    foodLevel += actor.getFoodValue();
+                    if(actor instanceof Animal){
+                        Animal animal = (Animal) actor;
+                        setInfected(this.infected || animal.getInfected());
+
+                        // Adds this animal to a set of predators for the prey.
+                        field.getPredators().learn(animal.getSpecies(), species);
+                    }
+                    if (found == Field.NO_CELL) {
+                        found = where;
+                    }
+                }
+            }
         }
-        return null;
+
+        return found;
     }
 
     /**
@@ -295,33 +304,37 @@ public abstract class Animal extends Actor
     protected void giveBirth(List<Actor> newAnimal) 
     {
         // New animals are born into adjacent locations.
-        // Get a list of adjacent free locations.
+        // Choose the order the adjacent free locations are tried in.
         Field field = getField();
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
+        int cell = getCell();
+        int order = field.randomOrder();
+        boolean overlap = field.canOverlap(cell);
         int births = breed(field);
-        for (int b = 0; b < births && !free.isEmpty(); b++) {
-            Location loc = free.remove(0);
-            Class type = this.getClass();
-
-            if(Human.class.equals(type)){
-                Human young = new Human(false, field, loc, false);
-                newAnimal.add(young);
-            }
-            else if(Dodo.class.equals(type)){
-                Dodo young = new Dodo(false, field, loc, false);
-                newAnimal.add(young);
+        for (int k = 0; k < Neighbourhood.DIRECTIONS && births > 0; k++) {
+            int next = field.adjacentCell(cell, order, k);
+            if (next == Field.NO_CELL || !(overlap || field.canOverlap(next))) {
+                continue;
             }
-            else if(Monkey.class.equals(type)){
-                Monkey young = new Monkey(false, field, loc, false);
-                newAnimal.add(young);
-            }
-            else if(Pig.class.equals(type)){
-                Pig young = new Pig(false, field, loc, false);
-                newAnimal.add(young);
-            }
-            else if(Tortoise.class.equals(type)){
-                Tortoise young = new Tortoise(false, field, loc, false);
-                newAnimal.add(young);
+            births--;
+            field.getEvents().born(getSpecies());
+            switch(getSpecies()) {
+                case HUMAN:
+                    newAnimal.add(new Human(false, field, next, false));
+                    break;
+                case DODO:
+                    newAnimal.add(new Dodo(false, field, next, false));
+                    break;
+                case MONKEY:
+                    newAnimal.add(new Monkey(false, field, next, false));
+                    break;
+                case PIG:
+                    newAnimal.add(new Pig(false, field, next, false));
+                    break;
+                case TORTOISE:
+                    newAnimal.add(new Tortoise(false, field, next, false));
+                    break;
+                default:
+                    break;
             }
         }
     }
@@ -331,28 +344,63 @@ public abstract class Animal extends Actor
      */
     protected void spreadVirus()
     {
-        if (infected) {
-            List<Location> adjacentLocations = field.adjacentLocations(getLocation());
-
-            adjacentLocations.forEach(adjacent -> {
-                    Object object = field.getObjectAt(adjacent);
-                    if(object instanceof Animal){
-                        Animal animal = (Animal) object;
-                        if(rand.nextDouble() > VIRUS_SPREAD_PROBABILITY){
-                            animal.infect();
-                        }
+        if (infected && !diseaseInBulk()) {
+            int order = field.randomOrder();
+
+            for (int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+                int adjacent = field.adjacentCell(getCell(), order, k);
+                Object object = adjacent == Field.NO_CELL ? null : field.getObjectAt(adjacent);
+                if(object instanceof Animal){
+                    Animal animal = (Animal) object;
+                    if(rand.nextDouble() > VIRUS_SPREAD_PROBABILITY && !animal.infected){
+                        animal.infect();
+                        field.getEvents().infected(animal.getSpecies());
                     }
-
-                });
+                }
+            }
         }
     }
 
     /**
      * Infects the animal with a virus, sets infected to true.
      */
-    private void infect()
+    protected void infect()
     {
-        this.infected = true;
+        setInfected(true);
+    }
+
+    /**
+     * Cures the animal of the virus, sets infected to false.
+     */
+    protected void cure()
+    {
+        setInfected(false);
+    }
+
+    /**
+     * Returns whether the disease of this animal is stepped for the whole field
+     * at once by a DiseaseLayer, rather than by the animal as it acts.
+     * 
+     * @return true if the field of the animal has a disease layer.
+     */
+    private boolean diseaseInBulk()
+    {
+        return field != null && field.getDisease() != null;
+    }
+
+    /**
+     * Sets whether the animal is infected, keeping the field's count of infected actors up to date.
+     * 
+     * @param infected Whether the animal is infected.
+     */
+    private void setInfected(boolean infected)
+    {
+        if(this.infected != infected) {
+            this.infected = infected;
+            if(cell != Field.NO_CELL && field.getObjectAt(cell) == this) {
+                field.getStats().infectionChanged(getSpecies(), infected);
+            }
+        }
     }
 
     /**
@@ -371,8 +419,11 @@ public abstract class Animal extends Actor
      */
     protected void cureInfected() 
     {
-        if (infected) {
-            this.infected =  rand.nextDouble() > CURE_INFECTION_PROBABILITY;
+        if (infected && !diseaseInBulk()) {
+            setInfected(rand.nextDouble() > CURE_INFECTION_PROBABILITY);
+            if (!infected) {
+                field.getEvents().cured(getSpecies());
+            }
         }
     }
 
@@ -382,10 +433,10 @@ public abstract class Animal extends Actor
      */
     protected void dieInfection() 
     {
-        if (infected) {
+        if (infected && !diseaseInBulk()) {
             double deathFromDiseaseProbability = DEATH_FROM_DISEASE_PROBABILITY;
             if (rand.nextDouble() <= deathFromDiseaseProbability) {
-                setDead();
+                setDead(DeathCause.DISEASE);
             }
         }
     }
@@ -409,7 +460,7 @@ public abstract class Animal extends Actor
      */
     private double effectBreedingProbability() 
     {
-        return weatherEffect.get(WeatherEffectTypes.BREED);
+        return weatherEffect[WeatherEffectTypes.BREED.ordinal()];
     }
 
     /**
@@ -420,6 +471,6 @@ public abstract class Animal extends Actor
      */
     private double effectHuntingProbability() 
     {
-        return weatherEffect.get(WeatherEffectTypes.HUNT);
+        return weatherEffect[WeatherEffectTypes.HUNT.ordinal()];
     }
 }
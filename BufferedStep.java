@@ -0,0 +1,784 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Steps the actors of an ActorStore in two phases, so that they can act in parallel.
+ *
+ * In the propose phase every actor reads the grid and the state of the other actors
+ * as they were at the start of the step, and only writes its intents: its own new
+ * age, food level and infection, the prey it wants to eat, the cell it wants to move
+ * to, the cells it wants to give birth into and the neighbours it infects.
+ * Nothing shared is changed, so the actors are split between threads without locks.
+ *
+ * The commit phase then resolves the intents in a fixed order. A prey wanted by
+ * several animals goes to the one with the highest priority for the step, and so
+ * does a cell wanted by several movers, with eaters moving before the others.
+ * Losers stay where they are. Births take the cells left over, and the next grid
+ * is built in a second buffer which then replaces the current one.
+ * The births, kills, deaths, infections and cures are counted as they are committed.
+ *
+ * The rules of each species are those of StoreActions, read from the start of the
+ * step: an actor that moves during the day still charges and spreads disease from
+ * the cell it started in, and a dodo only charges on steps where it did not move.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class BufferedStep
+{
+    // The number of directions around a cell.
+    private static final int DIRECTIONS = Neighbourhood.DIRECTIONS;
+    // The number of bits needed to hold a direction in a packed list of directions.
+    private static final int DIRECTION_BITS = 3;
+    // The smallest number of actors proposed by a single task.
+    private static final int MIN_TASK_SIZE = 1024;
+
+    // The store holding the actors.
+    private final ActorStore store;
+    // The actions used to create newborns.
+    private final StoreActions actions;
+    // A random number generator controlling the actors' behaviour.
+    private final Random rand;
+    // The pool running the propose phase.
+    private final ForkJoinPool pool;
+    // The depth and width of the grid.
+    private final int depth, width;
+    // The predators seen eating each species.
+    private final PredatorRegistry predators;
+    // The counts of what the actors have done.
+    private final EventCounters events;
+
+    // The buffer the next grid is built in.
+    private int[] nextGrid;
+    // For each cell, the handle of the animal that has claimed it this step.
+    private final int[] claimant;
+    // For each cell, the step at which it was last claimed by an animal.
+    private final int[] claimed;
+    // For each cell, the step at which a plant was last born under it.
+    private final int[] planted;
+    // The number of steps made, used to tell this step's claims from older ones.
+    private int stepCount;
+
+    // The intents of each actor for the current step.
+    // The cell the actor started the step in.
+    private int[] origin;
+    // The age the actor ends the step with.
+    private int[] nextAge;
+    // The food level the actor ends the step with, before eating.
+    private double[] nextFood;
+    // Whether the actor ends the step infected, before catching disease from others.
+    private boolean[] nextInfected;
+    // Whether the actor dies of its own accord this step.
+    private boolean[] dies;
+    // What the actor dies of, if it dies of its own accord.
+    private DeathCause[] deathCause;
+    // The actor it wants to eat or charge, or EMPTY.
+    private int[] prey;
+    // The cell it wants to move to, or EMPTY to stay.
+    private int[] target;
+    // The number of births it wants to give.
+    private int[] births;
+    // The directions it can give birth in, in order, with their number in the top bits.
+    private int[] birthDirections;
+    // The directions of the neighbours it infects, as a bit set.
+    private int[] spread;
+    // For each actor, the animal that won the right to kill it, or EMPTY.
+    private int[] killer;
+
+    // The seed used to key the random streams.
+    private long seed;
+    // The current step of the simulation.
+    private int step;
+    // The time of day of the current step.
+    private int timeOfDay;
+    // The weather modifier on plant breeding for the current step.
+    private double plantBreedEffect;
+    // The weather modifier on animal breeding for the current step.
+    private double animalBreedEffect;
+    // The weather modifier on animal hunting for the current step.
+    private double animalHuntEffect;
+
+    /**
+     * Create a buffered stepper for the actors in the given store.
+     *
+     * @param store The store holding the actors.
+     * @param actions The actions used to create newborns.
+     * @param predators The registry of the predators seen eating each species.
+     * @param events The counters of what the actors do.
+     * @param threads The number of threads used in the propose phase.
+     */
+    public BufferedStep(ActorStore store, StoreActions actions, PredatorRegistry predators,
+                        EventCounters events, int threads)
+    {
+        this.store = store;
+        this.actions = actions;
+        this.predators = predators;
+        this.events = events;
+        rand = Randomizer.getRandom();
+        pool = new ForkJoinPool(threads);
+        depth = store.getDepth();
+        width = store.getWidth();
+
+        int cells = depth * width;
+        nextGrid = new int[cells];
+        claimant = new int[cells];
+        claimed = new int[cells];
+        planted = new int[cells];
+        allocate(store.size());
+    }
+
+    /**
+     * Let every actor in the store act once, then commit the result.
+     * Actors born during the step first act in the next one.
+     * Each actor draws from its own random stream, so the result does not
+     * depend on the number of threads.
+     *
+     * @param seed The seed used to key the random streams.
+     * @param step The current step of the simulation.
+     * @param weather The weather for this step.
+     * @return The number of infected actors after the step.
+     */
+    public int step(long seed, int step, Weather weather)
+    {
+        double[] plantEffect = WeatherAction.plantEffects(weather);
+        double[] animalEffect = WeatherAction.animalEffects(weather);
+        plantBreedEffect = plantEffect[WeatherEffectTypes.BREED.ordinal()];
+        animalBreedEffect = animalEffect[WeatherEffectTypes.BREED.ordinal()];
+        animalHuntEffect = animalEffect[WeatherEffectTypes.HUNT.ordinal()];
+        this.seed = seed;
+        this.step = step;
+        timeOfDay = step % 2;
+        stepCount++;
+
+        int actors = store.size();
+        if(actors > origin.length) {
+            allocate(actors * 2);
+        }
+        pool.invoke(new ProposeTask(0, actors));
+        return commit(actors);
+    }
+
+    /**
+     * Shut down the threads used in the propose phase.
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Work out the intents of one actor for this step, as StoreActions.act would
+     * act on them. Only the intent arrays of the actor are written.
+     *
+     * @param handle The acting actor.
+     * @param order Scratch space for the directions around the actor.
+     * @param free Scratch space for the free directions around the actor.
+     */
+    private void propose(int handle, int[] order, int[] free)
+    {
+        Species species = store.getSpecies(handle);
+        int cell = store.getCell(handle);
+        int age = store.getAge(handle);
+        double food = store.getFoodLevel(handle);
+        boolean infected = store.isInfected(handle);
+        boolean dead = false;
+        DeathCause cause = null;
+        int birthCount = 0;
+        int eaten = ActorStore.EMPTY;
+        int moveTo = ActorStore.EMPTY;
+        int infects = 0;
+
+        if(timeOfDay == 0) {
+            age++;
+            dead = age > species.getMaxAge();
+            if(dead) {
+                cause = DeathCause.AGE;
+            }
+            if(species == Species.PLANT) {
+                if(!dead) {
+                    birthCount += plantBirths(age, 1);
+                }
+            }
+            else {
+                food--;
+                if(!dead && food <= 0) {
+                    dead = true;
+                    cause = DeathCause.STARVATION;
+                }
+                else if(!dead && diesOfInfection(infected, species)) {
+                    dead = true;
+                    cause = DeathCause.DISEASE;
+                }
+                if(!dead) {
+                    // Humans give birth at night.
+                    if(species != Species.HUMAN) {
+                        birthCount += births(handle, species, cell, age, order);
+                    }
+                    infected = cure(infected);
+                    infects |= spreadFrom(cell, infected, order);
+
+                    // Move towards a source of food if found.
+                    eaten = findPrey(species, cell, order);
+                    if(eaten != ActorStore.EMPTY) {
+                        moveTo = store.getCell(eaten);
+                    }
+                    else {
+                        // No food found - try to move to a free cell.
+                        int freeCount = freeDirections(cell, order, free);
+                        if(freeCount > 0) {
+                            moveTo = neighbour(cell, free[0]);
+                        }
+                        else {
+                            // Overcrowding.
+                            dead = true;
+                            cause = DeathCause.OVERCROWDING;
+                        }
+                    }
+                }
+            }
+        }
+
+        switch(species) {
+            case PLANT:
+                if(!dead) {
+                    birthCount += plantBirths(age, Plant.NIGHT_BREEDING_EFFECT);
+                }
+                break;
+            case DODO:
+                if(!dead && diesOfInfection(infected, species)) {
+                    dead = true;
+                    cause = DeathCause.DISEASE;
+                }
+                if(!dead) {
+                    infected = cure(infected);
+                    infects |= spreadFrom(cell, infected, order);
+
+                    // Charges into a predator, unless it already moved this step.
+                    if(moveTo == ActorStore.EMPTY) {
+                        eaten = chargePredator(species, cell, order);
+                        if(eaten != ActorStore.EMPTY && Dodo.ATTACK_CHANCE >= rand.nextDouble()) {
+                            moveTo = store.getCell(eaten);
+                        }
+                    }
+                }
+                break;
+            case HUMAN:
+                if(!dead && diesOfInfection(infected, species)) {
+                    dead = true;
+                    cause = DeathCause.DISEASE;
+                }
+                if(!dead) {
+                    birthCount += births(handle, species, cell, age, order);
+                    infected = cure(infected);
+                    infects |= spreadFrom(cell, infected, order);
+                }
+                break;
+            case TORTOISE:
+                if(!dead) {
+                    infected = cure(infected);
+                    infects |= spreadFrom(cell, infected, order);
+                }
+                break;
+            default:
+                if(!dead && diesOfInfection(infected, species)) {
+                    dead = true;
+                    cause = DeathCause.DISEASE;
+                }
+        }
+
+        origin[handle] = cell;
+        nextAge[handle] = age;
+        nextFood[handle] = food;
+        nextInfected[handle] = infected;
+        dies[handle] = dead;
+        deathCause[handle] = cause;
+        prey[handle] = dead ? ActorStore.EMPTY : eaten;
+        target[handle] = dead ? ActorStore.EMPTY : moveTo;
+        births[handle] = dead ? 0 : birthCount;
+        birthDirections[handle] = !dead && birthCount > 0 ? birthDirections(species, cell, order, free) : 0;
+        spread[handle] = dead ? 0 : infects;
+    }
+
+    /**
+     * Resolve the intents of every actor and build the grid for the next step.
+     *
+     * @param actors The number of actors that proposed intents.
+     * @return The number of infected actors after the step.
+     */
+    private int commit(int actors)
+    {
+        for(int handle = 0; handle < actors; handle++) {
+            if(store.isInfected(handle) && !nextInfected[handle]) {
+                events.cured(store.getSpecies(handle));
+            }
+        }
+        // Disease is spread to the animals shown at the start of the step.
+        for(int handle = 0; handle < actors; handle++) {
+            for(int bits = spread[handle]; bits != 0; bits &= bits - 1) {
+                int other = store.getHandleAt(neighbour(origin[handle], Integer.numberOfTrailingZeros(bits)));
+                if(!nextInfected[other]) {
+                    nextInfected[other] = true;
+                    events.infected(store.getSpecies(other));
+                }
+            }
+        }
+        for(int handle = 0; handle < actors; handle++) {
+            store.setAge(handle, nextAge[handle]);
+            store.setFoodLevel(handle, nextFood[handle]);
+            store.setInfected(handle, nextInfected[handle]);
+        }
+
+        // Each prey goes to the animal with the highest priority that wants it.
+        Arrays.fill(killer, 0, actors, ActorStore.EMPTY);
+        for(int handle = 0; handle < actors; handle++) {
+            int eaten = prey[handle];
+            if(eaten != ActorStore.EMPTY && (killer[eaten] == ActorStore.EMPTY || before(handle, killer[eaten]))) {
+                killer[eaten] = handle;
+            }
+        }
+        for(int handle = 0; handle < actors; handle++) {
+            int eaten = prey[handle];
+            if(eaten == ActorStore.EMPTY) {
+                continue;
+            }
+            if(killer[eaten] != handle) {
+                // Lost the prey to another animal, so stays where it is.
+                prey[handle] = ActorStore.EMPTY;
+                target[handle] = ActorStore.EMPTY;
+                continue;
+            }
+            Species species = store.getSpecies(handle);
+            Species eatenSpecies = store.getSpecies(eaten);
+            events.killed(species, eatenSpecies);
+            store.setFoodLevel(handle, store.getFoodLevel(handle) + store.getFoodValue(eaten));
+            if(species.eats(eatenSpecies) && eatenSpecies.isAnimal()) {
+                store.setInfected(handle, store.isInfected(handle) || store.isInfected(eaten));
+                predators.learn(eatenSpecies, species);
+            }
+        }
+
+        // An actor that is killed is counted as killed, even if it would also have died.
+        for(int handle = 0; handle < actors; handle++) {
+            if(dies[handle] && killer[handle] == ActorStore.EMPTY) {
+                events.died(store.getSpecies(handle), deathCause[handle]);
+            }
+            if(dies[handle] || killer[handle] != ActorStore.EMPTY) {
+                store.setDead(handle);
+                store.remove(handle);
+            }
+        }
+
+        // Eaters take the cell of their prey, then the other movers claim free cells.
+        for(int handle = 0; handle < actors; handle++) {
+            if(store.isAlive(handle) && prey[handle] != ActorStore.EMPTY && target[handle] != ActorStore.EMPTY) {
+                claim(target[handle], handle);
+            }
+        }
+        for(int handle = 0; handle < actors; handle++) {
+            int cell = target[handle];
+            if(store.isAlive(handle) && prey[handle] == ActorStore.EMPTY && cell != ActorStore.EMPTY
+            && (claimed[cell] != stepCount || (prey[claimant[cell]] == ActorStore.EMPTY && before(handle, claimant[cell])))) {
+                claim(cell, handle);
+            }
+        }
+        for(int handle = 0; handle < actors; handle++) {
+            int cell = target[handle];
+            if(store.isAlive(handle) && cell != ActorStore.EMPTY && claimant[cell] == handle) {
+                store.setCell(handle, cell);
+            }
+        }
+
+        // Build the next grid, showing animals over plants.
+        Arrays.fill(nextGrid, ActorStore.EMPTY);
+        nextGrid = store.swapGrid(nextGrid);
+        for(int handle = 0; handle < actors; handle++) {
+            if(store.isAlive(handle) && store.getSpecies(handle).isAnimal()) {
+                store.place(handle, store.getCell(handle));
+            }
+        }
+        for(int handle = 0; handle < actors; handle++) {
+            if(store.isAlive(handle) && !store.getSpecies(handle).isAnimal()) {
+                store.place(handle, store.getCell(handle));
+            }
+        }
+
+        // Newborns take the cells that were not claimed by a mover or an earlier birth.
+        Randomizer.beginStream(seed, step, Randomizer.COMMIT_STREAM);
+        for(int handle = 0; handle < actors; handle++) {
+            giveBirths(handle);
+        }
+
+        int infected = 0;
+        for(int handle = 0; handle < actors; handle++) {
+            if(store.isAlive(handle) && store.isInfected(handle)) {
+                infected++;
+            }
+        }
+        store.compact();
+        // Predators seen this step become known to their prey.
+        predators.publish();
+        return infected;
+    }
+
+    /**
+     * Create the newborns of one actor in the cells it proposed that are still free.
+     * New plants take root under animals and do not claim the cell.
+     *
+     * @param handle The parent actor.
+     */
+    private void giveBirths(int handle)
+    {
+        int wanted = births[handle];
+        int packed = birthDirections[handle];
+        int count = packed >>> (DIRECTION_BITS * DIRECTIONS);
+        Species species = store.getSpecies(handle);
+        for(int i = 0; i < count && wanted > 0; i++) {
+            int direction = (packed >>> (DIRECTION_BITS * i)) & (DIRECTIONS - 1);
+            int cell = neighbour(origin[handle], direction);
+            if(species == Species.PLANT) {
+                if(planted[cell] != stepCount) {
+                    planted[cell] = stepCount;
+                    actions.create(species, cell, false, false);
+                    events.born(species);
+                    wanted--;
+                }
+            }
+            else if(claimed[cell] != stepCount) {
+                claim(cell, ActorStore.EMPTY);
+                actions.create(species, cell, false, false);
+                events.born(species);
+                wanted--;
+            }
+        }
+    }
+
+    /**
+     * Claim a cell for the rest of this step.
+     *
+     * @param cell The cell to claim.
+     * @param handle The animal claiming it, or EMPTY for a newborn.
+     */
+    private void claim(int cell, int handle)
+    {
+        claimed[cell] = stepCount;
+        claimant[cell] = handle;
+    }
+
+    /**
+     * Returns whether one actor has a higher priority than another for this step.
+     * Priorities are shuffled every step, so no actor is always favoured.
+     *
+     * @param handle An actor.
+     * @param other Another actor.
+     * @return true if the first actor goes before the other.
+     */
+    private boolean before(int handle, int other)
+    {
+        return priority(handle) < priority(other);
+    }
+
+    /**
+     * Mixes the step and a handle into a priority, distinct for every handle.
+     *
+     * @param handle An actor.
+     * @return The priority of the actor for this step.
+     */
+    private long priority(int handle)
+    {
+        long mixed = ((long) step << 32) | (handle & 0xffffffffL);
+        mixed = (mixed ^ (mixed >>> 33)) * 0xff51afd7ed558ccdL;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return mixed ^ (mixed >>> 33);
+    }
+
+    /**
+     * If infected, the animal may die of the disease.
+     *
+     * @param infected Whether the animal is infected.
+     * @param species The species of the animal.
+     * @return true if the animal dies.
+     */
+    private boolean diesOfInfection(boolean infected, Species species)
+    {
+        return infected && rand.nextDouble() <= species.getDeathFromDiseaseProbability();
+    }
+
+    /**
+     * If infected, the animal may be cured.
+     *
+     * @param infected Whether the animal is infected.
+     * @return Whether the animal is still infected.
+     */
+    private boolean cure(boolean infected)
+    {
+        return infected && rand.nextDouble() > Animal.CURE_INFECTION_PROBABILITY;
+    }
+
+    /**
+     * If infected, gives adjacent animals the chance to be infected.
+     *
+     * @param cell The cell of the animal.
+     * @param infected Whether the animal is infected.
+     * @param order Scratch space for the directions around the animal.
+     * @return The directions of the animals infected, as a bit set.
+     */
+    private int spreadFrom(int cell, boolean infected, int[] order)
+    {
+        int infects = 0;
+        if(infected) {
+            int count = shuffledDirections(cell, order);
+            for(int i = 0; i < count; i++) {
+                int other = store.getHandleAt(neighbour(cell, order[i]));
+                if(other != ActorStore.EMPTY && store.getSpecies(other).isAnimal()
+                && rand.nextDouble() > Animal.VIRUS_SPREAD_PROBABILITY) {
+                    infects |= 1 << order[i];
+                }
+            }
+        }
+        return infects;
+    }
+
+    /**
+     * Decide how many young an animal has this step.
+     * It must have reached the breeding age and be next to a mate of the same
+     * species and the opposite gender.
+     *
+     * @param handle The acting animal.
+     * @param species The species of the animal.
+     * @param cell The cell of the animal.
+     * @param age The age of the animal.
+     * @param order Scratch space for the directions around the animal.
+     * @return The number of births.
+     */
+    private int births(int handle, Species species, int cell, int age, int[] order)
+    {
+        int count = shuffledDirections(cell, order);
+        boolean partner = false;
+        for(int i = 0; i < count && !partner; i++) {
+            int other = store.getHandleAt(neighbour(cell, order[i]));
+            partner = other != ActorStore.EMPTY && store.getSpecies(other) == species
+                && store.getGender(other) != store.getGender(handle);
+        }
+        if(age >= species.getBreedingAge() && partner
+        && rand.nextDouble() <= species.getBreedingProbability() * animalBreedEffect) {
+            return rand.nextInt(species.getMaxLitterSize()) + 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Decide how many young a plant has this step.
+     *
+     * @param age The age of the plant.
+     * @param dayEffect The modifier on breeding for the time of day.
+     * @return The number of births.
+     */
+    private int plantBirths(int age, double dayEffect)
+    {
+        if(age >= Species.PLANT.getBreedingAge()
+        && rand.nextDouble() <= Species.PLANT.getBreedingProbability() * dayEffect * plantBreedEffect) {
+            return rand.nextInt(Species.PLANT.getMaxLitterSize()) + 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Lists the directions an actor can give birth in, packed into an int.
+     * Animals give birth into free cells. As in Plant, new plants take root under
+     * the animals at the start of the list of free cells.
+     *
+     * @param species The species of the actor.
+     * @param cell The cell of the actor.
+     * @param order Scratch space for the directions around the actor.
+     * @param free Scratch space for the free directions around the actor.
+     * @return The directions in order, 3 bits each, with their number in the top bits.
+     */
+    private int birthDirections(Species species, int cell, int[] order, int[] free)
+    {
+        int freeCount = freeDirections(cell, order, free);
+        int packed = 0;
+        int count = 0;
+        for(int i = 0; i < freeCount; i++) {
+            if(species == Species.PLANT) {
+                int other = store.getHandleAt(neighbour(cell, free[i]));
+                if(other == ActorStore.EMPTY || !store.getSpecies(other).isAnimal()) {
+                    break;
+                }
+            }
+            packed |= free[i] << (DIRECTION_BITS * count);
+            count++;
+        }
+        return packed | (count << (DIRECTION_BITS * DIRECTIONS));
+    }
+
+    /**
+     * Look for prey adjacent to the animal. The first live prey found may be eaten.
+     *
+     * @param species The species of the animal.
+     * @param cell The cell of the animal.
+     * @param order Scratch space for the directions around the animal.
+     * @return The prey to be eaten, or EMPTY if there is none.
+     */
+    private int findPrey(Species species, int cell, int[] order)
+    {
+        int count = shuffledDirections(cell, order);
+        for(int i = 0; i < count; i++) {
+            int other = store.getHandleAt(neighbour(cell, order[i]));
+            if(other != ActorStore.EMPTY && species.eats(store.getSpecies(other))
+            && rand.nextDouble() <= Animal.EATING_PROBABILITY * animalHuntEffect && store.isAlive(other)) {
+                return other;
+            }
+        }
+        return ActorStore.EMPTY;
+    }
+
+    /**
+     * Dodos attack their known predators. The first known predator found may be killed.
+     *
+     * @param species The species of the dodo.
+     * @param cell The cell of the dodo.
+     * @param order Scratch space for the directions around the dodo.
+     * @return The predator to be killed, or EMPTY if there is none.
+     */
+    private int chargePredator(Species species, int cell, int[] order)
+    {
+        int count = shuffledDirections(cell, order);
+        for(int i = 0; i < count; i++) {
+            int other = store.getHandleAt(neighbour(cell, order[i]));
+            if(other != ActorStore.EMPTY && predators.isKnownPredator(species, store.getSpecies(other))
+            && rand.nextDouble() <= Dodo.ATTACK_CHANCE && store.isAlive(other)) {
+                return other;
+            }
+        }
+        return ActorStore.EMPTY;
+    }
+
+    /**
+     * Fill the free array with the free directions around a cell, in a random order.
+     * If the actor shown at the cell can overlap, every direction counts as free.
+     *
+     * @param cell The cell from which to find free directions.
+     * @param order Scratch space for the directions around the cell.
+     * @param free The array to be filled with the free directions.
+     * @return The number of free directions found.
+     */
+    private int freeDirections(int cell, int[] order, int[] free)
+    {
+        int count = shuffledDirections(cell, order);
+        int shown = store.getHandleAt(cell);
+        boolean overlap = shown == ActorStore.EMPTY || store.getSpecies(shown).getOverlap();
+        int freeCount = 0;
+        for(int i = 0; i < count; i++) {
+            int other = store.getHandleAt(neighbour(cell, order[i]));
+            if(overlap || other == ActorStore.EMPTY || store.getSpecies(other).getOverlap()) {
+                free[freeCount++] = order[i];
+            }
+        }
+        return freeCount;
+    }
+
+    /**
+     * Fill the given array with the directions that lead to a cell within the grid,
+     * in a random order.
+     *
+     * @param cell The cell from which to find directions.
+     * @param order An array of at least 8 elements to be filled.
+     * @return The number of directions written to the array.
+     */
+    private int shuffledDirections(int cell, int[] order)
+    {
+        int row = cell / width;
+        int col = cell % width;
+        int random = Neighbourhood.randomOrder(rand);
+        int count = 0;
+        for(int k = 0; k < DIRECTIONS; k++) {
+            int direction = Neighbourhood.direction(random, k);
+            int nextRow = row + Neighbourhood.rowOffset(direction);
+            int nextCol = col + Neighbourhood.colOffset(direction);
+            if(nextRow >= 0 && nextRow < depth && nextCol >= 0 && nextCol < width) {
+                order[count++] = direction;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the cell next to a cell in the given direction.
+     *
+     * @param cell A cell.
+     * @param direction A direction leading to a cell within the grid.
+     * @return The neighbouring cell.
+     */
+    private int neighbour(int cell, int direction)
+    {
+        return cell + Neighbourhood.rowOffset(direction) * width + Neighbourhood.colOffset(direction);
+    }
+
+    /**
+     * Grow the intent arrays to the given capacity.
+     *
+     * @param capacity The number of actors the intent arrays can hold.
+     */
+    private void allocate(int capacity)
+    {
+        origin = new int[capacity];
+        nextAge = new int[capacity];
+        nextFood = new double[capacity];
+        nextInfected = new boolean[capacity];
+        dies = new boolean[capacity];
+        deathCause = new DeathCause[capacity];
+        prey = new int[capacity];
+        target = new int[capacity];
+        births = new int[capacity];
+        birthDirections = new int[capacity];
+        spread = new int[capacity];
+        killer = new int[capacity];
+    }
+
+    /**
+     * Proposes the intents of a range of actors, splitting the range
+     * between threads until it is small enough to run on its own.
+     */
+    private class ProposeTask extends RecursiveAction
+    {
+        // RecursiveAction is serializable, but tasks are never written out.
+        private static final long serialVersionUID = 1L;
+
+        // The range of actors this task proposes for.
+        private final int from, to;
+
+        /**
+         * Create a task proposing the intents of a range of actors.
+         *
+         * @param from The first actor in the range.
+         * @param to One past the last actor in the range.
+         */
+        ProposeTask(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Propose the intents of the range, or split it in two.
+         */
+        @Override
+        protected void compute()
+        {
+            if(to - from <= MIN_TASK_SIZE) {
+                int[] order = new int[DIRECTIONS];
+                int[] free = new int[DIRECTIONS];
+                for(int handle = from; handle < to; handle++) {
+                    Randomizer.beginStream(seed, step, store.getId(handle));
+                    propose(handle, order, free);
+                }
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ProposeTask(from, middle), new ProposeTask(middle, to));
+            }
+        }
+    }
+}
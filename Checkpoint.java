@@ -0,0 +1,527 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The full state of a simulation between two steps, as written to and read from a checkpoint file.
+ *
+ * A checkpoint holds the step counters, the seeds, the weather, the step mode,
+ * the parameters, the known predators, every live actor in the order it acts in,
+ * and the actor shown in each cell. When plants are kept in a PlantLayer, they
+ * follow the other actors as plant records with no id, and are shown in no cell.
+ * Whether the disease is stepped in a DiseaseLayer is also kept, as the infection
+ * itself stays with each animal.
+ * The random streams are keyed by the seed, the
+ * step and the id of each actor, so this is all that is needed for a restored
+ * simulation to carry on exactly as the original would have.
+ *
+ * The file is a compact binary format, starting with MAGIC and VERSION. It is
+ * written in one pass from a single buffer through a FileChannel, and read
+ * through a memory-mapped buffer.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class Checkpoint
+{
+    // The first four bytes of every checkpoint file, "PPCK".
+    public static final int MAGIC = 0x5050434b;
+    // The version of the format written.
+    public static final short VERSION = 2;
+    // The oldest version that can still be read, which has no layer flags.
+    private static final short OLDEST_VERSION = 1;
+    // The layer flags, set when plants are kept in a PlantLayer and when the disease is stepped in a DiseaseLayer.
+    private static final int PLANT_LAYER = 1;
+    private static final int DISEASE_LAYER = 2;
+    // Marks an animal with no gender, or a cell with no actor shown on it.
+    public static final int NONE = -1;
+    // The number of bytes each actor takes up in the file.
+    private static final int ACTOR_BYTES = Long.BYTES + 1 + Integer.BYTES + Integer.BYTES + Double.BYTES + 1 + 1;
+    // The number of actors the arrays can hold before they first grow.
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // The depth and width of the field.
+    private final int depth, width;
+    // The seed used to key the random streams of the simulation.
+    private final long seed;
+    // The seed the shared random generator was given.
+    private final long randomizerSeed;
+    // The current step, and the number of steps the simulation is running for.
+    private final int step, numSteps;
+    // The weather chosen by the user, or null if it is random.
+    private final Weather weather;
+    // How actors are stored and stepped.
+    private final StepMode stepMode;
+    // The width and depth of a tile when stepping tiles in parallel.
+    private final int tileSize;
+    // Whether plants are kept in a PlantLayer rather than as actors.
+    private boolean plantLayer;
+    // Whether the disease is stepped in a DiseaseLayer rather than by each animal.
+    private boolean diseaseLayer;
+    // The parameters the field is populated with.
+    private final SimulationConfig config;
+    // For each prey species id, the bit set of the species ids known to eat it.
+    private final int[] knownPredators;
+    // The actor shown in each cell as an index into the actors, or NONE.
+    private final int[] shown;
+
+    // The actors, in the order they act in.
+    // The number of actors.
+    private int actors;
+    // The id of each actor.
+    private long[] ids;
+    // The species id of each actor.
+    private byte[] species;
+    // The cell of each actor.
+    private int[] cells;
+    // The age of each actor.
+    private int[] ages;
+    // The food level of each actor.
+    private double[] foodLevels;
+    // The Gender ordinal of each actor, or NONE.
+    private byte[] genders;
+    // Whether each actor is infected.
+    private boolean[] infected;
+
+    /**
+     * Create a checkpoint with no actors and no actor shown in any cell.
+     *
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param seed The seed used to key the random streams of the simulation.
+     * @param randomizerSeed The seed the shared random generator was given.
+     * @param step The current step.
+     * @param numSteps The number of steps the simulation is running for.
+     * @param weather The weather chosen by the user, or null if it is random.
+     * @param stepMode How actors are stored and stepped.
+     * @param tileSize The width and depth of a tile when stepping tiles in parallel.
+     * @param config The parameters the field is populated with.
+     */
+    public Checkpoint(int depth, int width, long seed, long randomizerSeed, int step, int numSteps,
+                      Weather weather, StepMode stepMode, int tileSize, SimulationConfig config)
+    {
+        this.depth = depth;
+        this.width = width;
+        this.seed = seed;
+        this.randomizerSeed = randomizerSeed;
+        this.step = step;
+        this.numSteps = numSteps;
+        this.weather = weather;
+        this.stepMode = stepMode;
+        this.tileSize = tileSize;
+        this.config = new SimulationConfig(config);
+        knownPredators = new int[Species.count()];
+        shown = new int[depth * width];
+        Arrays.fill(shown, NONE);
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Add an actor after the ones already added.
+     *
+     * @param id The id of the actor.
+     * @param type The species of the actor.
+     * @param cell The cell of the actor.
+     * @param age The age of the actor.
+     * @param foodLevel The food level of the actor.
+     * @param gender The Gender ordinal of the actor, or NONE.
+     * @param actorInfected Whether the actor is infected.
+     * @return The index of the actor.
+     */
+    public int addActor(long id, Species type, int cell, int age, double foodLevel, int gender, boolean actorInfected)
+    {
+        if(actors == ids.length) {
+            allocate(actors * 2);
+        }
+        ids[actors] = id;
+        species[actors] = (byte) type.getId();
+        cells[actors] = cell;
+        ages[actors] = age;
+        foodLevels[actors] = foodLevel;
+        genders[actors] = (byte) gender;
+        infected[actors] = actorInfected;
+        return actors++;
+    }
+
+    /**
+     * Sets the actor shown in a cell.
+     *
+     * @param cell The cell.
+     * @param actor The index of the actor shown, or NONE.
+     */
+    public void setShown(int cell, int actor)
+    {
+        shown[cell] = actor;
+    }
+
+    /**
+     * Sets the species known to eat a species.
+     *
+     * @param prey The species eaten.
+     * @param predators The bit set of the species ids known to eat it.
+     */
+    public void setKnownPredators(Species prey, int predators)
+    {
+        knownPredators[prey.getId()] = predators;
+    }
+
+    /**
+     * Write the checkpoint to a file, replacing it if it exists.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path file) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(size());
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(depth);
+        buffer.putInt(width);
+        buffer.putLong(seed);
+        buffer.putLong(randomizerSeed);
+        buffer.putInt(step);
+        buffer.putInt(numSteps);
+        buffer.put((byte) (weather == null ? NONE : weather.ordinal()));
+        buffer.put((byte) stepMode.ordinal());
+        buffer.putInt(tileSize);
+        buffer.put((byte) ((plantLayer ? PLANT_LAYER : 0) | (diseaseLayer ? DISEASE_LAYER : 0)));
+
+        buffer.putInt(SimulationConfig.PARAMETERS.length);
+        for(String name : SimulationConfig.PARAMETERS) {
+            buffer.putDouble(config.get(name));
+        }
+        buffer.putInt(knownPredators.length);
+        for(int predators : knownPredators) {
+            buffer.putInt(predators);
+        }
+
+        buffer.putInt(actors);
+        for(int i = 0; i < actors; i++) {
+            buffer.putLong(ids[i]);
+            buffer.put(species[i]);
+            buffer.putInt(cells[i]);
+            buffer.putInt(ages[i]);
+            buffer.putDouble(foodLevels[i]);
+            buffer.put(genders[i]);
+            buffer.put((byte) (infected[i] ? 1 : 0));
+        }
+        for(int actor : shown) {
+            buffer.putInt(actor);
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Read a checkpoint from a file.
+     *
+     * @param file The file to read.
+     * @return The checkpoint held in the file.
+     * @throws IOException If the file cannot be read, or is not a checkpoint of a version that can be read.
+     */
+    public static Checkpoint read(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.remaining() < Integer.BYTES + Short.BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a checkpoint");
+            }
+            short version = buffer.getShort();
+            if(version < OLDEST_VERSION || version > VERSION) {
+                throw new IOException(file + " is a version " + version + " checkpoint, only versions "
+                    + OLDEST_VERSION + " to " + VERSION + " can be read");
+            }
+
+            int depth = buffer.getInt();
+            int width = buffer.getInt();
+            long seed = buffer.getLong();
+            long randomizerSeed = buffer.getLong();
+            int step = buffer.getInt();
+            int numSteps = buffer.getInt();
+            byte weather = buffer.get();
+            StepMode stepMode = StepMode.values()[buffer.get()];
+            int tileSize = buffer.getInt();
+            int layers = version > OLDEST_VERSION ? buffer.get() : 0;
+
+            SimulationConfig config = new SimulationConfig();
+            int parameters = buffer.getInt();
+            for(int i = 0; i < parameters; i++) {
+                config.set(SimulationConfig.PARAMETERS[i], buffer.getDouble());
+            }
+            Checkpoint checkpoint = new Checkpoint(depth, width, seed, randomizerSeed, step, numSteps,
+                weather == NONE ? null : Weather.values()[weather], stepMode, tileSize, config);
+            checkpoint.setPlantLayer((layers & PLANT_LAYER) != 0);
+            checkpoint.setDiseaseLayer((layers & DISEASE_LAYER) != 0);
+            int count = buffer.getInt();
+            for(int id = 0; id < count; id++) {
+                checkpoint.knownPredators[id] = buffer.getInt();
+            }
+
+            int actors = buffer.getInt();
+            checkpoint.allocate(Math.max(actors, INITIAL_CAPACITY));
+            for(int i = 0; i < actors; i++) {
+                long id = buffer.getLong();
+                Species type = Species.fromId(buffer.get());
+                int cell = buffer.getInt();
+                int age = buffer.getInt();
+                double foodLevel = buffer.getDouble();
+                int gender = buffer.get();
+                boolean actorInfected = buffer.get() != 0;
+                checkpoint.addActor(id, type, cell, age, foodLevel, gender, actorInfected);
+            }
+            for(int cell = 0; cell < checkpoint.shown.length; cell++) {
+                checkpoint.shown[cell] = buffer.getInt();
+            }
+            return checkpoint;
+        }
+        catch(RuntimeException e) {
+            throw new IOException(file + " is not a complete checkpoint", e);
+        }
+    }
+
+    /**
+     * @return The number of bytes the checkpoint takes up in a file.
+     */
+    private int size()
+    {
+        return Integer.BYTES + Short.BYTES + 2 * Integer.BYTES + 2 * Long.BYTES + 2 * Integer.BYTES + 2 + Integer.BYTES + 1
+            + Integer.BYTES + SimulationConfig.PARAMETERS.length * Double.BYTES
+            + Integer.BYTES + knownPredators.length * Integer.BYTES
+            + Integer.BYTES + actors * ACTOR_BYTES + shown.length * Integer.BYTES;
+    }
+
+    /**
+     * Grow the arrays of actors to the given capacity, keeping the actors added so far.
+     *
+     * @param capacity The number of actors the arrays can hold.
+     */
+    private void allocate(int capacity)
+    {
+        if(ids != null && capacity <= ids.length) {
+            return;
+        }
+        ids = ids == null ? new long[capacity] : Arrays.copyOf(ids, capacity);
+        species = species == null ? new byte[capacity] : Arrays.copyOf(species, capacity);
+        cells = cells == null ? new int[capacity] : Arrays.copyOf(cells, capacity);
+        ages = ages == null ? new int[capacity] : Arrays.copyOf(ages, capacity);
+        foodLevels = foodLevels == null ? new double[capacity] : Arrays.copyOf(foodLevels, capacity);
+        genders = genders == null ? new byte[capacity] : Arrays.copyOf(genders, capacity);
+        infected = infected == null ? new boolean[capacity] : Arrays.copyOf(infected, capacity);
+    }
+
+    /**
+     * @return The depth of the field.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return The width of the field.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * @return The seed used to key the random streams of the simulation.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * @return The seed the shared random generator was given.
+     */
+    public long getRandomizerSeed()
+    {
+        return randomizerSeed;
+    }
+
+    /**
+     * @return The current step.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @return The number of steps the simulation is running for.
+     */
+    public int getNumSteps()
+    {
+        return numSteps;
+    }
+
+    /**
+     * @return The weather chosen by the user, or null if it is random.
+     */
+    public Weather getWeather()
+    {
+        return weather;
+    }
+
+    /**
+     * @return How actors are stored and stepped.
+     */
+    public StepMode getStepMode()
+    {
+        return stepMode;
+    }
+
+    /**
+     * Sets whether plants are kept in a PlantLayer rather than as actors.
+     *
+     * @param plantLayer true if plants are kept in a plant layer.
+     */
+    public void setPlantLayer(boolean plantLayer)
+    {
+        this.plantLayer = plantLayer;
+    }
+
+    /**
+     * @return true if plants are kept in a PlantLayer rather than as actors.
+     */
+    public boolean hasPlantLayer()
+    {
+        return plantLayer;
+    }
+
+    /**
+     * Sets whether the disease is stepped in a DiseaseLayer rather than by each animal.
+     *
+     * @param diseaseLayer true if the disease is stepped in a disease layer.
+     */
+    public void setDiseaseLayer(boolean diseaseLayer)
+    {
+        this.diseaseLayer = diseaseLayer;
+    }
+
+    /**
+     * @return true if the disease is stepped in a DiseaseLayer rather than by each animal.
+     */
+    public boolean hasDiseaseLayer()
+    {
+        return diseaseLayer;
+    }
+
+    /**
+     * @return The width and depth of a tile when stepping tiles in parallel.
+     */
+    public int getTileSize()
+    {
+        return tileSize;
+    }
+
+    /**
+     * @return A copy of the parameters the field is populated with.
+     */
+    public SimulationConfig getConfig()
+    {
+        return new SimulationConfig(config);
+    }
+
+    /**
+     * @param prey A species.
+     * @return The bit set of the species ids known to eat it.
+     */
+    public int getKnownPredators(Species prey)
+    {
+        return knownPredators[prey.getId()];
+    }
+
+    /**
+     * @param cell A cell of the field.
+     * @return The index of the actor shown in the cell, or NONE.
+     */
+    public int getShown(int cell)
+    {
+        return shown[cell];
+    }
+
+    /**
+     * @return The number of actors.
+     */
+    public int getActorCount()
+    {
+        return actors;
+    }
+
+    /**
+     * @param actor The index of an actor.
+     * @return The id of the actor.
+     */
+    public long getId(int actor)
+    {
+        return ids[actor];
+    }
+
+    /**
+     * @param actor The index of an actor.
+     * @return The species of the actor.
+     */
+    public Species getSpecies(int actor)
+    {
+        return Species.fromId(species[actor]);
+    }
+
+    /**
+     * @param actor The index of an actor.
+     * @return The cell of the actor.
+     */
+    public int getCell(int actor)
+    {
+        return cells[actor];
+    }
+
+    /**
+     * @param actor The index of an actor.
+     * @return The age of the actor.
+     */
+    public int getAge(int actor)
+    {
+        return ages[actor];
+    }
+
+    /**
+     * @param actor The index of an actor.
+     * @return The food level of the actor.
+     */
+    public double getFoodLevel(int actor)
+    {
+        return foodLevels[actor];
+    }
+
+    /**
+     * @param actor The index of an actor.
+     * @return The Gender ordinal of the actor, or NONE.
+     */
+    public int getGender(int actor)
+    {
+        return genders[actor];
+    }
+
+    /**
+     * @param actor The index of an actor.
+     * @return Whether the actor is infected.
+     */
+    public boolean isInfected(int actor)
+    {
+        return infected[actor];
+    }
+}
@@ -48,6 +48,16 @@ public class Counter
         count++;
     }
 
+    /**
+     * Increment the current count by the given amount.
+     * 
+     * @param amount The amount to increment by.
+     */
+    public void increment(int amount)
+    {
+        count += amount;
+    }
+
     /**
      * Reset the current count to zero.
      */
@@ -0,0 +1,17 @@
+/**
+ * Defines the causes an actor can die of, other than being eaten
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public enum DeathCause
+{
+    // Growing older than the maximum age of its species.
+    AGE,
+    // Running out of food.
+    STARVATION,
+    // Dying of an infection.
+    DISEASE,
+    // Having no free cell to move to, or losing its cell to another actor.
+    OVERCROWDING
+}
@@ -0,0 +1,371 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The infection of the animals of a field, held as bit sets with one bit per
+ * cell, so the disease can be stepped for the whole field at once rather than
+ * by each animal as it acts.
+ *
+ * Each row of the field starts on a new long, so moving a row of bits one
+ * column left or right is a shift of its longs. After the actors have acted,
+ * the bits of the animals shown in the field and of those infected are set
+ * from the list of actors. Infected animals then die of the disease and are
+ * cured, picked by skipping ahead over the infected bits a random distance,
+ * so only the animals picked need a random number of their own. Finally the
+ * bits of the infected animals that spread the virus are spread to the eight
+ * cells around them a long at a time,
+ * kept to the cells holding animals that are not infected, and each of those
+ * animals draws once to see whether any of its infected neighbours infects it.
+ *
+ * Animals step their disease once in the day and once more at night on a day
+ * step, and only some species do at night, so the chances of a step are those
+ * of the number of times each species would have stepped it on its own.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class DiseaseLayer
+{
+    // The chance of an animal catching the virus from one infected neighbour, as in Animal.spreadVirus.
+    private static final double CATCH_PROBABILITY = 1 - Animal.VIRUS_SPREAD_PROBABILITY;
+
+    // The depth and width of the field.
+    private final int depth, width;
+    // The number of longs holding each row.
+    private final int rowWords;
+    // The cells showing a live animal, one bit per cell.
+    private final long[] animals;
+    // The cells showing an infected live animal, one bit per cell.
+    private final long[] infected;
+    // The infected cells whose animal spreads the virus at least once, and twice, during the step.
+    private final long[] spreadOnce, spreadTwice;
+    // The cells infected during the spread of the current step, one bit per cell.
+    private final long[] caught;
+    // The chance of an animal being infected by infected neighbours spreading the virus the given number of times.
+    private final double[] catchProbability;
+    // The chance of dying from the disease during a step, indexed by time of day and species id.
+    private final double[][] deathProbability;
+    // The chance of being cured during a step, indexed by time of day and species id.
+    private final double[][] cureProbability;
+    // The number of times an infected animal spreads the virus during a step, indexed by time of day and species id.
+    private final int[][] spreadCount;
+
+    /**
+     * Create an empty layer for a field of the given dimensions.
+     *
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public DiseaseLayer(int depth, int width)
+    {
+        this.depth = depth;
+        this.width = width;
+        rowWords = (width + Long.SIZE - 1) / Long.SIZE;
+        animals = new long[depth * rowWords];
+        infected = new long[depth * rowWords];
+        spreadOnce = new long[depth * rowWords];
+        spreadTwice = new long[depth * rowWords];
+        caught = new long[depth * rowWords];
+
+        // Day steps run the day and night actions, night steps only the night actions.
+        deathProbability = new double[2][Species.count()];
+        cureProbability = new double[2][Species.count()];
+        spreadCount = new int[2][Species.count()];
+        for(Species species : Species.values()) {
+            if(!species.isAnimal()) {
+                continue;
+            }
+            int id = species.getId();
+            int nightDeaths = diesAtNight(species) ? 1 : 0;
+            int nightCures = curesAtNight(species) ? 1 : 0;
+            for(int timeOfDay = 0; timeOfDay < 2; timeOfDay++) {
+                int day = timeOfDay == 0 ? 1 : 0;
+                deathProbability[timeOfDay][id] = 1 - Math.pow(1 - species.getDeathFromDiseaseProbability(), day + nightDeaths);
+                cureProbability[timeOfDay][id] = 1 - Math.pow(1 - Animal.CURE_INFECTION_PROBABILITY, day + nightCures);
+                spreadCount[timeOfDay][id] = day + nightCures;
+            }
+        }
+        catchProbability = new double[2 * Neighbourhood.DIRECTIONS + 1];
+        for(int spreads = 0; spreads < catchProbability.length; spreads++) {
+            catchProbability[spreads] = 1 - Math.pow(1 - CATCH_PROBABILITY, spreads);
+        }
+    }
+
+    /**
+     * Returns whether members of a species may die of the disease at night, as in their nightAct.
+     *
+     * @param species An animal species.
+     * @return true if the species may die of the disease at night.
+     */
+    private static boolean diesAtNight(Species species)
+    {
+        return species != Species.TORTOISE;
+    }
+
+    /**
+     * Returns whether members of a species may be cured and spread the virus at night, as in their nightAct.
+     *
+     * @param species An animal species.
+     * @return true if the species may be cured and spread the virus at night.
+     */
+    private static boolean curesAtNight(Species species)
+    {
+        switch(species) {
+            case DODO:
+            case HUMAN:
+            case TORTOISE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Step the disease of every animal in the field once: infected animals may
+     * die of it or be cured, then the ones still infected may infect the animals
+     * around them.
+     *
+     * @param field The field holding the animals.
+     * @param actors The actors in the field.
+     * @param rand The random generator to draw from.
+     * @param timeOfDay 0 on a day step, 1 on a night step.
+     * @return The number of infected animals shown in the field after the step.
+     */
+    public int step(Field field, List<Actor> actors, Random rand, int timeOfDay)
+    {
+        mark(field, actors, spreadCount[timeOfDay]);
+        pick(field, rand, deathProbability[timeOfDay], true);
+        pick(field, rand, cureProbability[timeOfDay], false);
+        spreadVirus(field, rand);
+        return countInfected();
+    }
+
+    /**
+     * Set the bits of the animals shown in the field, of those infected and of
+     * those that spread the virus once or twice.
+     *
+     * @param field The field holding the animals.
+     * @param actors The actors in the field.
+     * @param spreads The number of times a member of each species spreads the virus, indexed by species id.
+     */
+    private void mark(Field field, List<Actor> actors, int[] spreads)
+    {
+        Arrays.fill(animals, 0);
+        Arrays.fill(infected, 0);
+        Arrays.fill(spreadOnce, 0);
+        Arrays.fill(spreadTwice, 0);
+        for(Actor actor : actors) {
+            int cell = actor.getCell();
+            if(!(actor instanceof Animal) || !actor.isAlive() || cell == Field.NO_CELL
+            || field.getObjectAt(cell) != actor) {
+                continue;
+            }
+            int row = cell / width;
+            int col = cell - row * width;
+            int word = row * rowWords + (col >>> 6);
+            long bit = 1L << col;
+            animals[word] |= bit;
+            if(actor.getInfected()) {
+                infected[word] |= bit;
+                int count = spreads[actor.getSpecies().getId()];
+                if(count > 0) {
+                    spreadOnce[word] |= bit;
+                }
+                if(count > 1) {
+                    spreadTwice[word] |= bit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Let each infected animal die of the disease, or be cured, with the chance of its species.
+     * Animals are picked with the highest chance of any species, then each one
+     * picked is affected with its own chance over that one.
+     *
+     * @param field The field holding the animals.
+     * @param rand The random generator to draw from.
+     * @param probability The chance of each species being affected, indexed by species id.
+     * @param die true if the animals picked die, false if they are cured.
+     */
+    private void pick(Field field, Random rand, double[] probability, boolean die)
+    {
+        double max = 0;
+        for(double chance : probability) {
+            max = Math.max(max, chance);
+        }
+        if(max <= 0) {
+            return;
+        }
+        double logSkip = Math.log(1 - max);
+        long skip = skip(rand, logSkip);
+        for(int word = 0; word < infected.length; word++) {
+            long bits = infected[word];
+            int count = Long.bitCount(bits);
+            if(skip >= count) {
+                skip -= count;
+                continue;
+            }
+            while(bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if(skip-- > 0) {
+                    continue;
+                }
+                skip = skip(rand, logSkip);
+                Animal animal = (Animal) field.getObjectAt(cellOf(word, bit));
+                Species species = animal.getSpecies();
+                if(rand.nextDouble() * max >= probability[species.getId()]) {
+                    continue;
+                }
+                infected[word] &= ~(1L << bit);
+                spreadOnce[word] &= ~(1L << bit);
+                spreadTwice[word] &= ~(1L << bit);
+                if(die) {
+                    animals[word] &= ~(1L << bit);
+                    animal.setDead(DeathCause.DISEASE);
+                }
+                else {
+                    animal.cure();
+                    field.getEvents().cured(species);
+                }
+            }
+        }
+    }
+
+    /**
+     * Let the infected animals infect the animals around them. Every animal next
+     * to at least one infected animal draws once, with the chance of any of its
+     * infected neighbours infecting it. Animals infected during the spread do not
+     * spread the virus further until the next step.
+     *
+     * @param field The field holding the animals.
+     * @param rand The random generator to draw from.
+     */
+    private void spreadVirus(Field field, Random rand)
+    {
+        for(int row = 0; row < depth; row++) {
+            int start = row * rowWords;
+            for(int i = 0; i < rowWords; i++) {
+                // The cells next to a spreading cell in the rows above, below and of the cell.
+                long near = widen(spreadOnce, row, i);
+                if(row > 0) {
+                    near |= widen(spreadOnce, row - 1, i);
+                }
+                if(row < depth - 1) {
+                    near |= widen(spreadOnce, row + 1, i);
+                }
+                long exposed = near & animals[start + i] & ~infected[start + i];
+                long bits = exposed;
+                while(bits != 0) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int col = (i << 6) + bit;
+                    if(rand.nextDouble() >= catchProbability[spreadsAround(row, col)]) {
+                        exposed &= ~(1L << bit);
+                    }
+                }
+                caught[start + i] = exposed;
+            }
+        }
+
+        for(int word = 0; word < caught.length; word++) {
+            long bits = caught[word];
+            infected[word] |= bits;
+            while(bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                Animal animal = (Animal) field.getObjectAt(cellOf(word, bit));
+                animal.infect();
+                field.getEvents().infected(animal.getSpecies());
+            }
+        }
+    }
+
+    /**
+     * Returns the bits of one long of a row of a bit set, along with the
+     * bits of the cells next to them on either side within the row.
+     *
+     * @param set The bit set.
+     * @param row The row.
+     * @param i The index of the long within the row.
+     * @return The cells set in the long, widened by one column each way.
+     */
+    private long widen(long[] set, int row, int i)
+    {
+        int word = row * rowWords + i;
+        long bits = set[word];
+        long left = bits << 1;
+        long right = bits >>> 1;
+        if(i > 0) {
+            left |= set[word - 1] >>> 63;
+        }
+        if(i < rowWords - 1) {
+            right |= set[word + 1] << 63;
+        }
+        return bits | left | right;
+    }
+
+    /**
+     * Count the times the infected animals around a cell spread the virus to it.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The number of times the virus is spread to the cell.
+     */
+    private int spreadsAround(int row, int col)
+    {
+        int count = 0;
+        for(int r = Math.max(row - 1, 0); r <= Math.min(row + 1, depth - 1); r++) {
+            for(int c = Math.max(col - 1, 0); c <= Math.min(col + 1, width - 1); c++) {
+                int word = r * rowWords + (c >>> 6);
+                // The cell itself is not infected, so is never counted.
+                count += (int) (spreadOnce[word] >>> c & 1) + (int) (spreadTwice[word] >>> c & 1);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count the infected animals shown in the field.
+     *
+     * @return The number of infected animals.
+     */
+    public int countInfected()
+    {
+        int count = 0;
+        for(long bits : infected) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    /**
+     * Draw the number of infected animals passed over before the next one picked,
+     * when each is picked with a fixed chance.
+     *
+     * @param rand The random generator to draw from.
+     * @param logSkip The logarithm of the chance of an animal not being picked.
+     * @return The number of animals to pass over.
+     */
+    private static long skip(Random rand, double logSkip)
+    {
+        if(logSkip == 0) {
+            return Long.MAX_VALUE;
+        }
+        double skip = Math.floor(Math.log(1 - rand.nextDouble()) / logSkip);
+        return skip >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) skip;
+    }
+
+    /**
+     * @param word The index of a long of a bit set.
+     * @param bit The bit within the long.
+     * @return The cell of the field the bit stands for.
+     */
+    private int cellOf(int word, int bit)
+    {
+        int row = word / rowWords;
+        return row * width + ((word - row * rowWords) << 6) + bit;
+    }
+}
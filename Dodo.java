@@ -1,6 +1,4 @@
 import java.util.List;
-import java.util.ArrayList;
-import java.util.HashSet;
 
 /**
  * A simple model of a dodo.
@@ -14,26 +12,20 @@ public class Dodo extends Animal
     // Characteristics shared by all Dodos (class variables).
 
     // The age at which a dodo can start to breed.
-    private static final int BREEDING_AGE = 3;
+    static final int BREEDING_AGE = 3;
     // The age to which a dodo can live.
-    private static final int MAX_AGE = 200;
+    static final int MAX_AGE = 200;
     // The likelihood of a dodo breeding.
-    private static final double BREEDING_PROBABILITY = 0.9;
+    static final double BREEDING_PROBABILITY = 0.9;
     // The maximum number of births.
-    private static final int MAX_LITTER_SIZE = 12;
+    static final int MAX_LITTER_SIZE = 12;
     // The base rate which is used to give
     // the number of steps a predator gains when it eats a dodo
-    private static final int BASIC_FOOD_LEVEL = 8;
+    static final int BASIC_FOOD_LEVEL = 8;
     // The chance of a Dodo attacking a predator in its sleep
-    private static final double ATTACK_CHANCE = 0.01;
+    static final double ATTACK_CHANCE = 0.01;
     // Probability that a dodo dies from disease.
-    private static final double DODO_DEATH_FROM_DISEASE_PROBABILITY = 0.005;
-    // List of all dodo prey.
-    private final ArrayList<Class> LIST_OF_PREY = new ArrayList<>() {
-            {
-                add(Plant.class);
-            }
-        };
+    static final double DODO_DEATH_FROM_DISEASE_PROBABILITY = 0.005;
 
     /**
      * Create a dodo. A dodo can be created as a new born (age zero
@@ -41,12 +33,12 @@ public class Dodo extends Animal
      * 
      * @param randomAge If true, the dodo will have random age and hunger level.
      * @param field     The field currently occupied.
-     * @param location  The location within the field.
+     * @param cell      The cell within the field.
      * @param infected  Boolean value determining if the animal is infected or not
      */
-    protected Dodo(boolean randomAge, Field field, Location location, boolean infected)
+    protected Dodo(boolean randomAge, Field field, int cell, boolean infected)
     {
-        super(field, location, infected);
+        super(field, cell, infected);
 
         // Sets values in animal class
         setOverlap(false);
@@ -85,19 +77,19 @@ public class Dodo extends Animal
             spreadVirus();
 
             // Move towards a source of food if found.
-            Location newLocation = super.findFood(LIST_OF_PREY);
-            if(newLocation == null) { 
-                // No food found - try to move to a free location.
-                newLocation = getField().freeAdjacentLocation(getLocation());
+            int newCell = super.findFood();
+            if(newCell == Field.NO_CELL) { 
+                // No food found - try to move to a free cell.
+                newCell = getField().freeAdjacentCell(getCell());
             }
             // See if it was possible to move.
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell != Field.NO_CELL) {
+                setCell(newCell);
             }
             else {
 
                 // Overcrowding.
-                setDead();
+                setDead(DeathCause.OVERCROWDING);
             }
         }
     }
@@ -118,9 +110,9 @@ public class Dodo extends Animal
             spreadVirus();
 
             // Charges into predator killing it
-            Location newLocation = chargePredator();
-            if (newLocation != null && (ATTACK_CHANCE >= rand.nextDouble())) {
-                setLocation(newLocation);
+            int newCell = chargePredator();
+            if (newCell != Field.NO_CELL && (ATTACK_CHANCE >= rand.nextDouble())) {
+                setCell(newCell);
             }
         }
     }
@@ -130,32 +122,40 @@ public class Dodo extends Animal
      * Looks at all adjacent locations, and attacks first predator found
      * Dodo moves into the position the predator was
      */
-    private Location chargePredator()
+    private int chargePredator()
     {
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        List<Location> charge = new ArrayList<>();
-
-        adjacent.forEach(where ->{
-                Object actor = field.getObjectAt(where);
-                HashSet<Class> setOfPredators = MAP_OF_PREDATORS.get(this.getClass());
-                if(actor!=null && setOfPredators.contains(actor.getClass())){
-                    if(rand.nextDouble() <= ATTACK_CHANCE){
-                        Animal prey = (Animal) actor;
-                        if(prey.isAlive()) { 
-                            prey.setDead();
-                            foodLevel += prey.getFoodValue();
-                            charge.add(where);
+        int cell = getCell();
+        int order = field.randomOrder();
+        PredatorRegistry predators = field.getPredators();
+        int charge = Field.NO_CELL;
+
+        for(int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+            int where = field.adjacentCell(cell, order, k);
+            Object actor = where == Field.NO_CELL ? null : field.getObjectAt(where);
+            if(actor!=null && predators.isKnownPredator(Species.DODO, ((Actor) actor).getSpecies())){
+                if(rand.nextDouble() <= ATTACK_CHANCE){
+                    Animal prey = (Animal) actor;
+                    if(prey.isAlive()) { 
+                        prey.setDead();
+                        field.getEvents().killed(Species.DODO, prey.getSpecies());
+                        foodLevel += prey.getFoodValue();
+                        if(charge == Field.NO_CELL) {
+                            charge = where;
                         }
                     }
                 }
-            });
-
-        if(!charge.isEmpty()){
-            return charge.get(0);
+            }
         }
 
-        return null;
+        return charge;
     }
 
+    /**
+     * @return The species of the dodo.
+     */
+    public Species getSpecies()
+    {
+        return Species.DODO;
+    }
 }
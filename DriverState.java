@@ -0,0 +1,19 @@
+/**
+ * Defines the states a StepDriver can be in
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public enum DriverState
+{
+    // Steps are made one after another, at the target rate.
+    RUNNING,
+    // No steps are made until the driver is run or stepped.
+    PAUSED,
+    // A single step is made, after which the driver is paused.
+    STEPPING,
+    // No steps are made until the driver is run, as the simulation has finished.
+    STOPPED,
+    // The driver thread has ended and the driver cannot be used again.
+    SHUTDOWN
+}
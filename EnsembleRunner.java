@@ -0,0 +1,261 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs many headless simulations at the same time on a shared pool of threads,
+ * sweeping over a grid of parameters, and writes a summary of each run to a results file.
+ *
+ * The grid is read from a text file of "name = value" lines. The names of
+ * SimulationConfig.PARAMETERS take a comma separated list of values, and every
+ * combination of them is run. The other names set up the runs:
+ * steps, width, depth, replicates (runs per combination) and seed.
+ * Lines starting with # are ignored. For example:
+ *
+ *     steps = 400
+ *     replicates = 20
+ *     DODO_CREATION_PROBABILITY = 0.3, 0.4, 0.5
+ *     HUMAN_CREATION_PROBABILITY = 0.001, 0.002
+ *
+ * Each run is keyed by its own seed, so its results do not depend on the number
+ * of threads or on the order runs finish in. Runs stop early once they are no longer
+ * viable, and summaries are written as soon as each run finishes.
+ *
+ * Usage: java EnsembleRunner gridFile resultsFile [threads]
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class EnsembleRunner
+{
+    // The default number of steps in a run.
+    private static final int DEFAULT_STEPS = 400;
+    // The default width for the grid.
+    private static final int DEFAULT_WIDTH = 150;
+    // The default depth of the grid.
+    private static final int DEFAULT_DEPTH = 100;
+    // The default number of runs for each combination of parameters.
+    private static final int DEFAULT_REPLICATES = 1;
+    // The default seed the seeds of the runs are made from.
+    private static final long DEFAULT_SEED = 1111;
+
+    // The number of steps in a run.
+    private int steps;
+    // The width and depth of the grid.
+    private int width, depth;
+    // The number of runs for each combination of parameters.
+    private int replicates;
+    // The seed the seeds of the runs are made from.
+    private long seed;
+    // The values of each parameter swept over, in the order they were read.
+    private final Map<String, double[]> grid;
+
+    /**
+     * Create an ensemble of one run of the default simulation.
+     */
+    public EnsembleRunner()
+    {
+        steps = DEFAULT_STEPS;
+        width = DEFAULT_WIDTH;
+        depth = DEFAULT_DEPTH;
+        replicates = DEFAULT_REPLICATES;
+        seed = DEFAULT_SEED;
+        grid = new LinkedHashMap<>();
+    }
+
+    /**
+     * Runs an ensemble using the given command line arguments.
+     *
+     * @param args The grid file, the results file and optionally the number of threads.
+     */
+    public static void main(String[] args)
+    {
+        if(args.length < 2) {
+            System.out.println("Usage: java EnsembleRunner gridFile resultsFile [threads]");
+            return;
+        }
+        try {
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            EnsembleRunner ensemble = EnsembleRunner.fromFile(Paths.get(args[0]));
+
+            long start = System.nanoTime();
+            int runs = ensemble.run(Paths.get(args[1]), threads);
+            System.out.printf("Ran %d simulations on %d threads in %.3f s%n", runs, threads, (System.nanoTime() - start) / 1e9);
+        } catch (IllegalArgumentException | IOException e) {
+            System.out.println(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Read an ensemble from a grid file.
+     *
+     * @param file The grid file.
+     * @return The ensemble described by the file.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If a line of the file is not understood.
+     */
+    public static EnsembleRunner fromFile(Path file) throws IOException
+    {
+        EnsembleRunner ensemble = new EnsembleRunner();
+        List<String> lines = Files.readAllLines(file);
+        for(int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if(line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int equals = line.indexOf('=');
+            if(equals < 0) {
+                throw new IllegalArgumentException("Line " + (i + 1) + " of " + file + " is not of the form name = value");
+            }
+            try {
+                ensemble.set(line.substring(0, equals).trim(), line.substring(equals + 1).trim());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + (i + 1) + " of " + file + ": " + e.getMessage());
+            }
+        }
+        return ensemble;
+    }
+
+    /**
+     * Sets a run setting, or the values a parameter is swept over.
+     *
+     * @param name The name of a run setting or of a parameter.
+     * @param value The value of the setting, or the comma separated values of the parameter.
+     * @throws IllegalArgumentException If the name is unknown or the value is not a number.
+     */
+    public void set(String name, String value)
+    {
+        switch(name) {
+            case "steps":
+                steps = Integer.parseInt(value);
+                break;
+            case "width":
+                width = Integer.parseInt(value);
+                break;
+            case "depth":
+                depth = Integer.parseInt(value);
+                break;
+            case "replicates":
+                replicates = Integer.parseInt(value);
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            default:
+                if(!SimulationConfig.isParameter(name)) {
+                    throw new IllegalArgumentException("Unknown setting " + name);
+                }
+                String[] parts = value.split(",");
+                double[] values = new double[parts.length];
+                for(int i = 0; i < parts.length; i++) {
+                    values[i] = Double.parseDouble(parts[i].trim());
+                }
+                grid.put(name, values);
+        }
+    }
+
+    /**
+     * Run every combination of parameters, replicates times each, and write their summaries.
+     *
+     * @param results The results file, which is replaced.
+     * @param threads The number of runs made at the same time.
+     * @return The number of runs made.
+     * @throws IOException If the results cannot be written.
+     * @throws InterruptedException If interrupted while waiting for runs to finish.
+     */
+    public int run(Path results, int threads) throws IOException, InterruptedException
+    {
+        // Seed before any actor or field exists so every run uses the keyed streams.
+        Randomizer.setSeed(seed);
+
+        List<SimulationConfig> configs = configurations();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<RunSummary> completed = new ExecutorCompletionService<>(pool);
+        int runs = 0;
+        for(SimulationConfig config : configs) {
+            for(int replicate = 0; replicate < replicates; replicate++) {
+                int run = runs++;
+                completed.submit(() -> runOne(run, seed + run, config));
+            }
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(results)) {
+            writer.write(RunSummary.header(grid.keySet()));
+            writer.newLine();
+            for(int i = 0; i < runs; i++) {
+                // Summaries are written in the order the runs finish.
+                writer.write(completed.take().get().toCsv(grid.keySet()));
+                writer.newLine();
+                writer.flush();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A run failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return runs;
+    }
+
+    /**
+     * Returns every combination of the values of the parameters swept over,
+     * with the other parameters left at their default values.
+     *
+     * @return The configuration of each combination.
+     */
+    private List<SimulationConfig> configurations()
+    {
+        List<SimulationConfig> configs = new ArrayList<>();
+        configs.add(new SimulationConfig());
+        for(Map.Entry<String, double[]> parameter : grid.entrySet()) {
+            List<SimulationConfig> next = new ArrayList<>();
+            for(SimulationConfig config : configs) {
+                for(double value : parameter.getValue()) {
+                    SimulationConfig combination = new SimulationConfig(config);
+                    combination.set(parameter.getKey(), value);
+                    next.add(combination);
+                }
+            }
+            configs = next;
+        }
+        return configs;
+    }
+
+    /**
+     * Make one run, on the calling thread, until it has made every step
+     * or is no longer viable.
+     *
+     * @param run The index of the run.
+     * @param runSeed The seed the run is keyed by.
+     * @param config The parameters the run is populated with.
+     * @return The summary of the run.
+     */
+    private RunSummary runOne(int run, long runSeed, SimulationConfig config)
+    {
+        // Each simulator is closed once its run is over, so no threads or fields outlive the run.
+        try (Simulator simulator = new Simulator(depth, width, 1, false, runSeed, config)) {
+            RunSummary summary = new RunSummary(run, runSeed, config);
+            summary.record(simulator);
+            while(simulator.getStep() < steps) {
+                if(simulator.simulateHeadless(1) == 0) {
+                    summary.setNotViable();
+                    break;
+                }
+                summary.record(simulator);
+            }
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what the actors in a field do: births, kills, infections, cures and deaths.
+ *
+ * The counters are updated by the actors as they act, so they are LongAdders,
+ * which actors in different tiles can update at the same time without contending.
+ * After each step the counts are taken into a StepEvents and the counters start again,
+ * so each snapshot holds the events of one step.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class EventCounters
+{
+    // The counters, laid out as in StepEvents.
+    private final LongAdder[] counters;
+
+    /**
+     * Create counters with every count at zero.
+     */
+    public EventCounters()
+    {
+        counters = new LongAdder[StepEvents.SIZE];
+        for(int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Count an actor born.
+     *
+     * @param species The species of the newborn.
+     */
+    public void born(Species species)
+    {
+        counters[StepEvents.birthIndex(species)].increment();
+    }
+
+    /**
+     * Count several actors born at once.
+     *
+     * @param species The species of the newborns.
+     * @param count The number of newborns.
+     */
+    public void born(Species species, int count)
+    {
+        counters[StepEvents.birthIndex(species)].add(count);
+    }
+
+    /**
+     * Count an actor killed by an animal, by being eaten or charged.
+     *
+     * @param killer The species of the animal that killed it.
+     * @param killed The species of the actor killed.
+     */
+    public void killed(Species killer, Species killed)
+    {
+        counters[StepEvents.killIndex(killer, killed)].increment();
+    }
+
+    /**
+     * Count an animal infected by another.
+     *
+     * @param species The species of the animal infected.
+     */
+    public void infected(Species species)
+    {
+        counters[StepEvents.infectionIndex(species)].increment();
+    }
+
+    /**
+     * Count an animal cured of its infection.
+     *
+     * @param species The species of the animal cured.
+     */
+    public void cured(Species species)
+    {
+        counters[StepEvents.cureIndex(species)].increment();
+    }
+
+    /**
+     * Count an actor that died, other than by being killed.
+     *
+     * @param species The species of the actor.
+     * @param cause What it died of.
+     */
+    public void died(Species species, DeathCause cause)
+    {
+        counters[StepEvents.deathIndex(species, cause)].increment();
+    }
+
+    /**
+     * Count several actors that died of the same cause at once.
+     *
+     * @param species The species of the actors.
+     * @param cause What they died of.
+     * @param count The number of actors.
+     */
+    public void died(Species species, DeathCause cause, int count)
+    {
+        counters[StepEvents.deathIndex(species, cause)].add(count);
+    }
+
+    /**
+     * Take the counts since the last snapshot and start counting again from zero.
+     * Called between steps, while no actor is acting.
+     *
+     * @param step The step the events were counted in.
+     * @return The counts of the step.
+     */
+    public StepEvents snapshot(int step)
+    {
+        int[] counts = new int[counters.length];
+        for(int i = 0; i < counters.length; i++) {
+            counts[i] = (int) counters[i].sumThenReset();
+        }
+        return new StepEvents(step, counts);
+    }
+
+    /**
+     * Reset all counts to zero.
+     */
+    public void reset()
+    {
+        for(LongAdder counter : counters) {
+            counter.reset();
+        }
+    }
+}
@@ -1,28 +1,82 @@
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represent a rectangular grid of field positions.
  * Each position is able to store a single actor.
- * 
+ *
+ * Positions are addressed by an int cell index, row * width + col, as well as
+ * by a Location. The cell methods create no objects and are the ones used while stepping.
+ * The field keeps its statistics up to date as actors are placed and cleared.
+ *
+ * Positions are stored in square chunks of CHUNK_SIZE by CHUNK_SIZE cells.
+ * A chunk is only allocated once an actor is placed in it, and is freed again
+ * when the journal is emptied if no actor is left in it, so a large field that
+ * is mostly empty takes little memory. Readers can skip chunks that are empty
+ * using isChunkEmpty. Cell indices do not depend on the chunks, so finding the
+ * cells adjacent to a cell costs the same on either side of a chunk boundary.
+ *
+ * Every cell changed by place or clear is also written once to a journal of
+ * changed cells, which is emptied at the start of each step. The journal is
+ * held in pages allocated as it grows. Readers such as the
+ * view can then deal with only the cells that changed during the last step.
+ * Emptying the whole field is not journaled, so readers start again from the
+ * whole field after a reset.
+ *
+ * Actors in different tiles can place actors in the same chunk at the same time,
+ * so each chunk keeps its cells and journal flags together in one Chunk, and
+ * chunks and journal pages are published through atomic arrays: a thread that
+ * sees a chunk or page also sees it fully built.
+ *
  * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
  * @version (28/02/2022)
  */
 public class Field
-{   
+{
+    // The cell index used for no position at all.
+    public static final int NO_CELL = -1;
+    // The width and depth of a chunk in cells, a power of two.
+    public static final int CHUNK_SIZE = 64;
+    // The number of bits of a row or column that give its position within a chunk.
+    private static final int CHUNK_BITS = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    // The number of bits of a position in the journal that give its position within a page.
+    private static final int PAGE_BITS = 12;
     // A random number generator for providing random locations.
     private static final Random rand = Randomizer.getRandom();
 
     // The depth and width of the field.
     private int depth, width;
-    // Storage for the actors.
-    private Object[][] field;
+    // The number of rows and columns of chunks.
+    private final int chunkRows, chunkCols;
+    // Storage for the actors of each chunk, or null while the chunk is empty.
+    private final AtomicReferenceArray<Chunk> chunks;
+    // The number of actors in each chunk.
+    // Atomic, as actors in different tiles can share a chunk.
+    private final AtomicIntegerArray occupied;
+    // The predators the animals in this field have seen eating each species.
+    private final PredatorRegistry predators;
+    // The counts of the actors shown in this field.
+    private final FieldStats stats;
+    // The counts of what the actors in this field have done.
+    private final EventCounters events;
+    // The plants growing under the actors, or null if plants are actors themselves.
+    private PlantLayer plants;
+    // The infection of the animals stepped for the whole field at once, or null if each animal steps its own.
+    private DiseaseLayer disease;
+    // The cells changed since the journal was last emptied, in the order they first changed,
+    // in pages allocated as they are first needed.
+    private final AtomicReferenceArray<int[]> journal;
+    // The number of cells in the journal.
+    // Atomic, as actors in different tiles can change the field at the same time.
+    private final AtomicInteger journalSize;
 
     /**
      * Represent a field of the given dimensions.
-     * 
+     *
      * @param depth The depth of the field.
      * @param width The width of the field.
      */
@@ -30,7 +84,17 @@ public class Field
     {
         this.depth = depth;
         this.width = width;
-        field = new Object[depth][width];
+        chunkRows = (depth + CHUNK_SIZE - 1) >> CHUNK_BITS;
+        chunkCols = (width + CHUNK_SIZE - 1) >> CHUNK_BITS;
+        chunks = new AtomicReferenceArray<>(chunkRows * chunkCols);
+        occupied = new AtomicIntegerArray(chunkRows * chunkCols);
+        predators = new PredatorRegistry();
+        stats = new FieldStats();
+        events = new EventCounters();
+        // Every cell can be in the journal once.
+        long cells = (long) depth * width;
+        journal = new AtomicReferenceArray<>((int) ((cells + (1 << PAGE_BITS) - 1) >> PAGE_BITS));
+        journalSize = new AtomicInteger();
     }
 
     /**
@@ -38,73 +102,235 @@ public class Field
      */
     public void clear()
     {
-        for(int row = 0; row < depth; row++) {
-            for(int col = 0; col < width; col++) {
-                field[row][col] = null;
-            }
+        clearChanges();
+        for(int chunk = 0; chunk < chunks.length(); chunk++) {
+            chunks.set(chunk, null);
+            occupied.set(chunk, 0);
         }
+        stats.reset();
     }
 
     /**
      * Clear the given location.
-     * 
+     *
      * @param location The location to clear.
      */
     public void clear(Location location)
     {
-        field[location.getRow()][location.getCol()] = null;
+        clear(index(location));
+    }
+
+    /**
+     * Clear the given cell.
+     *
+     * @param cell The cell to clear.
+     */
+    public void clear(int cell)
+    {
+        int row = cell / width;
+        int col = cell - row * width;
+        int chunk = chunkOf(row, col);
+        Chunk storage = chunks.get(chunk);
+        if(storage == null) {
+            return;
+        }
+        int offset = offsetOf(row, col);
+        Object actor = storage.cells[offset];
+        if(actor != null) {
+            stats.removed((Actor) actor);
+            storage.cells[offset] = null;
+            // The chunk is freed once the journal is emptied, if it is still empty then.
+            occupied.decrementAndGet(chunk);
+            changed(cell, storage, offset);
+        }
     }
 
     /**
      * Place an actor at the given location.
      * If there is already an actor at the location it will be lost.
      * Animals cannot be overwritten by other actors except for by another animal
-     * 
+     *
      * @param actor The actor to be placed.
      * @param row Row coordinate of the location.
      * @param col Column coordinate of the location.
      */
     public void place(Object actor, int row, int col)
     {
-        place(actor, new Location(row, col));
+        place(actor, index(row, col));
     }
 
     /**
      * Place an actor at the given location.
      * If there is already an actor at the location it will be lost.
      * Animals cannot be overwritten by other actors except for by another animal
-     * 
+     *
      * @param actor The actor to be placed.
      * @param location Where to place the actor.
      */
     public void place(Object actor, Location location)
     {
-        if((actor instanceof Animal) || (getObjectAt(location) == null)){
-            field[location.getRow()][location.getCol()] = actor;
+        place(actor, index(location));
+    }
+
+    /**
+     * Place an actor at the given cell.
+     * If there is already an actor at the cell it will be lost.
+     * Animals cannot be overwritten by other actors except for by another animal
+     *
+     * @param actor The actor to be placed.
+     * @param cell Where to place the actor.
+     */
+    public void place(Object actor, int cell)
+    {
+        int row = cell / width;
+        int col = cell - row * width;
+        int chunk = chunkOf(row, col);
+        Chunk storage = chunks.get(chunk);
+        if(storage == null) {
+            storage = allocate(chunk);
+        }
+        int offset = offsetOf(row, col);
+        Object current = storage.cells[offset];
+        if((actor instanceof Animal) || (current == null)){
+            if(current != null) {
+                stats.removed((Actor) current);
+            }
+            else {
+                occupied.incrementAndGet(chunk);
+            }
+            storage.cells[offset] = actor;
+            stats.added((Actor) actor);
+            changed(cell, storage, offset);
+        }
+    }
+
+    /**
+     * Allocate the storage of an empty chunk, unless another thread already has.
+     *
+     * @param chunk The chunk to allocate.
+     * @return The storage of the chunk.
+     */
+    private Chunk allocate(int chunk)
+    {
+        Chunk storage = new Chunk();
+        if(chunks.compareAndSet(chunk, null, storage)) {
+            return storage;
         }
+        return chunks.get(chunk);
+    }
+
+    /**
+     * Add a cell to the journal of changed cells, unless it is already there.
+     * Only one thread changes a given cell at a time, so the flag needs no lock.
+     *
+     * @param cell The cell that changed.
+     * @param storage The chunk holding the cell.
+     * @param offset The position of the cell within the chunk.
+     */
+    private void changed(int cell, Chunk storage, int offset)
+    {
+        if(!storage.journaled[offset]) {
+            storage.journaled[offset] = true;
+            int index = journalSize.getAndIncrement();
+            int[] page = journal.get(index >> PAGE_BITS);
+            if(page == null) {
+                page = allocatePage(index >> PAGE_BITS);
+            }
+            page[index & ((1 << PAGE_BITS) - 1)] = cell;
+        }
+    }
+
+    /**
+     * Allocate a page of the journal, unless another thread already has.
+     *
+     * @param page The page to allocate.
+     * @return The page.
+     */
+    private int[] allocatePage(int page)
+    {
+        journal.compareAndSet(page, null, new int[1 << PAGE_BITS]);
+        return journal.get(page);
+    }
+
+    /**
+     * Return the number of cells changed since the journal was last emptied.
+     *
+     * @return The number of changed cells.
+     */
+    public int getChangeCount()
+    {
+        return journalSize.get();
+    }
+
+    /**
+     * Return one of the cells changed since the journal was last emptied.
+     *
+     * @param index The position in the journal, from 0 to getChangeCount() - 1.
+     * @return The changed cell.
+     */
+    public int getChangedCell(int index)
+    {
+        return journal.get(index >> PAGE_BITS)[index & ((1 << PAGE_BITS) - 1)];
+    }
+
+    /**
+     * Empty the journal of changed cells, and free the chunks left empty.
+     * Called at the start of each step, while no actor is acting.
+     */
+    public void clearChanges()
+    {
+        int size = journalSize.get();
+        for(int index = 0; index < size; index++) {
+            int cell = getChangedCell(index);
+            int row = cell / width;
+            int col = cell - row * width;
+            int chunk = chunkOf(row, col);
+            // A chunk can only have become empty through a change, so only changed chunks are checked.
+            Chunk storage = chunks.get(chunk);
+            if(storage != null) {
+                storage.journaled[offsetOf(row, col)] = false;
+                if(occupied.get(chunk) == 0) {
+                    chunks.set(chunk, null);
+                }
+            }
+        }
+        journalSize.set(0);
     }
 
     /**
      * Return the actor at the given location, if any.
-     * 
+     *
      * @param location Where in the field.
      * @return The actor at the given location, or null if there is none.
      */
     public Object getObjectAt(Location location)
     {
-        return getObjectAt(location.getRow(), location.getCol());
+        return getObjectAt(index(location));
     }
 
     /**
      * Return the actor at the given location, if any.
-     * 
+     *
      * @param row The desired row.
      * @param col The desired column.
      * @return The actor at the given location, or null if there is none.
      */
     public Object getObjectAt(int row, int col)
     {
-        return field[row][col];
+        Chunk storage = chunks.get(chunkOf(row, col));
+        return storage == null ? null : storage.cells[offsetOf(row, col)];
+    }
+
+    /**
+     * Return the actor at the given cell, if any.
+     *
+     * @param cell The desired cell.
+     * @return The actor at the given cell, or null if there is none.
+     */
+    public Object getObjectAt(int cell)
+    {
+        int row = cell / width;
+        return getObjectAt(row, cell - row * width);
     }
 
     /**
@@ -112,36 +338,38 @@ public class Field
      * given location, or is the same location.
      * The returned location will be within the valid bounds
      * of the field.
-     * 
+     *
      * @param location The location from which to generate an adjacency.
      * @return A valid location within the grid area.
      */
     public Location randomAdjacentLocation(Location location)
     {
-        List<Location> adjacent = adjacentLocations(location);
-        return adjacent.get(0);
+        int order = randomOrder();
+        for(int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+            int next = adjacentCell(index(location), order, k);
+            if(next != NO_CELL) {
+                return getLocation(next);
+            }
+        }
+        return location;
     }
 
     /**
      * Get a shuffled list of the free adjacent locations.
-     * 
+     *
      * @param location Get locations adjacent to this.
      * @return A list of free adjacent locations.
      */
     public List<Location> getFreeAdjacentLocations(Location location)
     {
         List<Location> free = new LinkedList<>();
-        List<Location> adjacent = adjacentLocations(location);
-        // if actor at current location allows for overlap (for weather, disease, etc.)
-        if (((Actor) getObjectAt(location)).getOverlap() ){
-            return adjacent;
-        }
-        else{
-            for(Location next : adjacent) {
-                // if no actor at next location or actor at next location allows for overlap
-                if ((getObjectAt(next) == null) || (((Actor)getObjectAt(next)).getOverlap() ) ) {
-                    free.add(next);
-                }
+        int cell = index(location);
+        int order = randomOrder();
+        boolean overlap = canOverlap(cell);
+        for(int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+            int next = adjacentCell(cell, order, k);
+            if(next != NO_CELL && (overlap || canOverlap(next))) {
+                free.add(getLocation(next));
             }
         }
         return free;
@@ -152,27 +380,41 @@ public class Field
      * given location. If there is none, return null.
      * The returned location will be within the valid bounds
      * of the field.
-     * 
+     *
      * @param location The location from which to generate an adjacency.
      * @return A valid location within the grid area.
      */
     public Location freeAdjacentLocation(Location location)
     {
-        // The available free ones.
-        List<Location> free = getFreeAdjacentLocations(location);
-        if(free.size() > 0) {
-            return free.get(0);
-        }
-        else {
-            return null;
+        int free = freeAdjacentCell(index(location));
+        return free == NO_CELL ? null : getLocation(free);
+    }
+
+    /**
+     * Try to find a free cell that is adjacent to the given cell.
+     *
+     * @param cell The cell from which to find an adjacent cell.
+     * @return A free adjacent cell, or NO_CELL if there is none.
+     */
+    public int freeAdjacentCell(int cell)
+    {
+        int order = randomOrder();
+        boolean overlap = canOverlap(cell);
+        for(int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+            int next = adjacentCell(cell, order, k);
+            if(next != NO_CELL && (overlap || canOverlap(next))) {
+                return next;
+            }
         }
+        return NO_CELL;
     }
 
     /**
      * Return a shuffled list of locations adjacent to the given one.
      * The list will not include the location itself.
      * All locations will lie within the grid.
-     * 
+     * Prefer randomOrder and adjacentCell, which do not create any objects.
+     *
      * @param location The location from which to generate adjacencies.
      * @return A list of locations adjacent to that given.
      */
@@ -182,31 +424,243 @@ public class Field
         // The list of locations to be returned.
         List<Location> locations = new LinkedList<>();
         if(location != null) {
-            int row = location.getRow();
-            int col = location.getCol();
-            for(int roffset = -1; roffset <= 1; roffset++) {
-                int nextRow = row + roffset;
-                if(nextRow >= 0 && nextRow < depth) {
-                    for(int coffset = -1; coffset <= 1; coffset++) {
-                        int nextCol = col + coffset;
-                        // Exclude invalid locations and the original location.
-                        if(nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)) {
-                            locations.add(new Location(nextRow, nextCol));
-                        }
-                    }
+            int cell = index(location);
+            int order = randomOrder();
+            for(int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+                int next = adjacentCell(cell, order, k);
+                if(next != NO_CELL) {
+                    locations.add(getLocation(next));
                 }
             }
-
-            // Shuffle the list. Several other methods rely on the list
-            // being in a random order.
-            Collections.shuffle(locations, rand);
         }
         return locations;
     }
 
+    /**
+     * Choose a random order to visit the cells adjacent to a cell in.
+     * Several methods rely on adjacent cells being visited in a random order.
+     *
+     * @return The index of the order, to be passed to adjacentCell.
+     */
+    public int randomOrder()
+    {
+        return Neighbourhood.randomOrder(rand);
+    }
+
+    /**
+     * Return the k-th cell adjacent to the given one, in the given order.
+     * Visiting k from 0 to 7 and skipping NO_CELL results gives every
+     * adjacent cell within the grid once.
+     *
+     * @param cell The cell from which to find an adjacent cell.
+     * @param order The order of the visit, as given by randomOrder.
+     * @param k The position in the order, from 0 to 7.
+     * @return The adjacent cell, or NO_CELL if it lies outside the grid.
+     */
+    public int adjacentCell(int cell, int order, int k)
+    {
+        int direction = Neighbourhood.direction(order, k);
+        int row = cell / width + Neighbourhood.rowOffset(direction);
+        int col = cell % width + Neighbourhood.colOffset(direction);
+        if(row >= 0 && row < depth && col >= 0 && col < width) {
+            return row * width + col;
+        }
+        return NO_CELL;
+    }
+
+    /**
+     * Returns whether a cell is empty or its actor lets others share its space.
+     * An actor can move into such a cell, and every cell adjacent to
+     * an overlapping actor counts as free for it.
+     *
+     * @param cell The cell to check.
+     * @return true if the cell is empty or its actor allows overlap.
+     */
+    public boolean canOverlap(int cell)
+    {
+        Object actor = getObjectAt(cell);
+        return actor == null || ((Actor) actor).getOverlap();
+    }
+
+    /**
+     * Return the chunk holding a position.
+     *
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @return The index of the chunk, chunk row * chunk columns + chunk column.
+     */
+    private int chunkOf(int row, int col)
+    {
+        return (row >> CHUNK_BITS) * chunkCols + (col >> CHUNK_BITS);
+    }
+
+    /**
+     * Return the position of a cell within its chunk.
+     *
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @return The index of the position within the storage of its chunk.
+     */
+    private static int offsetOf(int row, int col)
+    {
+        return ((row & (CHUNK_SIZE - 1)) << CHUNK_BITS) | (col & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * Returns whether a chunk holds no actors, in which case readers can skip it.
+     * The rows and columns of the chunk are those from chunkRow * CHUNK_SIZE and
+     * chunkCol * CHUNK_SIZE that lie within the field.
+     *
+     * @param chunkRow The row of the chunk, from 0 to getChunkRows() - 1.
+     * @param chunkCol The column of the chunk, from 0 to getChunkCols() - 1.
+     * @return true if no actor is in the chunk.
+     */
+    public boolean isChunkEmpty(int chunkRow, int chunkCol)
+    {
+        return occupied.get(chunkRow * chunkCols + chunkCol) == 0;
+    }
+
+    /**
+     * @return The number of rows of chunks.
+     */
+    public int getChunkRows()
+    {
+        return chunkRows;
+    }
+
+    /**
+     * @return The number of columns of chunks.
+     */
+    public int getChunkCols()
+    {
+        return chunkCols;
+    }
+
+    /**
+     * Return the number of chunks whose storage is allocated.
+     *
+     * @return The number of allocated chunks.
+     */
+    public int getAllocatedChunks()
+    {
+        int allocated = 0;
+        for(int chunk = 0; chunk < chunks.length(); chunk++) {
+            if(chunks.get(chunk) != null) {
+                allocated++;
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Return the cell index of a position.
+     *
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @return The cell index of the position.
+     */
+    public int index(int row, int col)
+    {
+        return row * width + col;
+    }
+
+    /**
+     * Return the cell index of a location.
+     *
+     * @param location A location within the field.
+     * @return The cell index of the location.
+     */
+    public int index(Location location)
+    {
+        return index(location.getRow(), location.getCol());
+    }
+
+    /**
+     * Return the location of a cell.
+     *
+     * @param cell A cell within the field.
+     * @return A new location for the cell.
+     */
+    public Location getLocation(int cell)
+    {
+        return new Location(cell / width, cell % width);
+    }
+
+    /**
+     * Return the predators seen in this field.
+     *
+     * @return The predator registry of the field.
+     */
+    public PredatorRegistry getPredators()
+    {
+        return predators;
+    }
+
+    /**
+     * Return the counts of the actors shown in this field.
+     *
+     * @return The statistics of the field.
+     */
+    public FieldStats getStats()
+    {
+        return stats;
+    }
+
+    /**
+     * Return the counts of what the actors in this field have done.
+     *
+     * @return The event counters of the field.
+     */
+    public EventCounters getEvents()
+    {
+        return events;
+    }
+
+    /**
+     * Return the plants growing under the actors in this field, when plants are
+     * kept in a layer of their own rather than as actors.
+     *
+     * @return The plant layer of the field, or null if plants are actors.
+     */
+    public PlantLayer getPlants()
+    {
+        return plants;
+    }
+
+    /**
+     * Sets where the plants of this field are kept.
+     *
+     * @param plants The plant layer of the field, or null if plants are actors.
+     */
+    public void setPlants(PlantLayer plants)
+    {
+        this.plants = plants;
+    }
+
+    /**
+     * Return the layer the disease of the animals in this field is stepped in,
+     * when it is stepped for the whole field at once rather than by each animal.
+     *
+     * @return The disease layer of the field, or null if each animal steps its own disease.
+     */
+    public DiseaseLayer getDisease()
+    {
+        return disease;
+    }
+
+    /**
+     * Sets where the disease of the animals in this field is stepped.
+     *
+     * @param disease The disease layer of the field, or null if each animal steps its own disease.
+     */
+    public void setDisease(DiseaseLayer disease)
+    {
+        this.disease = disease;
+    }
+
     /**
      * Return the depth of the field.
-     * 
+     *
      * @return The depth of the field.
      */
     public int getDepth()
@@ -216,11 +670,24 @@ public class Field
 
     /**
      * Return the width of the field.
-     * 
+     *
      * @return The width of the field.
      */
     public int getWidth()
     {
         return width;
     }
+
+    /**
+     * The storage of one chunk: the actor in each of its cells and whether
+     * each cell is already in the journal, indexed by the position of the
+     * cell within the chunk.
+     */
+    private static final class Chunk
+    {
+        // The actor in each cell, or null if the cell is empty.
+        private final Object[] cells = new Object[CHUNK_SIZE * CHUNK_SIZE];
+        // Whether each cell is already in the journal.
+        private final boolean[] journaled = new boolean[CHUNK_SIZE * CHUNK_SIZE];
+    }
 }
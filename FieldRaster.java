@@ -0,0 +1,60 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * The field drawn as an image with one pixel per cell.
+ *
+ * Snapshots are drawn by writing the colour of each cell straight into the
+ * int[] backing the image, so drawing makes no calls into Java2D at all.
+ * The image is then scaled to its final size when it is copied to the screen.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class FieldRaster
+{
+    // The image of the field, one pixel per cell.
+    private final BufferedImage image;
+    // The pixels of the image, indexed by cell.
+    private final int[] pixels;
+
+    /**
+     * Create a blank raster for a field of the given dimensions.
+     *
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public FieldRaster(int depth, int width)
+    {
+        image = new BufferedImage(width, depth, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Draw a snapshot of the field.
+     * Only the cells that differ from the snapshot drawn before are written.
+     *
+     * @param frame The snapshot to draw.
+     * @param previous The snapshot drawn before, or null to write every cell.
+     * @param palette The colour of each species as an RGB value, indexed by species id.
+     * @param emptyRgb The colour of empty cells as an RGB value.
+     */
+    public void draw(FieldSnapshot frame, FieldSnapshot previous, int[] palette, int emptyRgb)
+    {
+        boolean full = previous == null || previous.getCellCount() != frame.getCellCount();
+        for(int cell = 0; cell < frame.getCellCount(); cell++) {
+            int species = frame.getSpeciesId(cell);
+            if(full || species != previous.getSpeciesId(cell)) {
+                pixels[cell] = species == FieldSnapshot.EMPTY ? emptyRgb : palette[species];
+            }
+        }
+    }
+
+    /**
+     * @return The image of the field, one pixel per cell.
+     */
+    public BufferedImage getImage()
+    {
+        return image;
+    }
+}
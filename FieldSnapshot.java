@@ -0,0 +1,208 @@
+import java.util.Arrays;
+
+/**
+ * An immutable copy of what the view shows for one step of the simulation:
+ * the species shown in every cell, along with the labels of the step.
+ *
+ * Snapshots are taken on the simulation thread and drawn later on the
+ * Swing thread, so drawing never reads the field while it is being changed.
+ * When the previous snapshot is of the step before, only the cells in the
+ * field's journal of changes are read from the field. Plants kept in a
+ * PlantLayer are shown in the cells with no actor on top of them.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class FieldSnapshot
+{
+    // Marks a cell with no actor shown on it.
+    public static final byte EMPTY = -1;
+
+    // The step the snapshot was taken at.
+    private final int step;
+    // The number of steps the simulator is running for.
+    private final int totalSteps;
+    // The weather of the step.
+    private final Weather weather;
+    // The number of infected animals.
+    private final int infected;
+    // A description of the population of the field.
+    private final String population;
+    // The species id of the actor shown in each cell, or EMPTY, indexed by cell.
+    private final byte[] cells;
+
+    /**
+     * Create a snapshot from its parts.
+     *
+     * @param step The step the snapshot was taken at.
+     * @param totalSteps The number of steps the simulator is running for.
+     * @param weather The weather of the step.
+     * @param infected The number of infected animals.
+     * @param population A description of the population of the field.
+     * @param cells The species shown in each cell, no longer changed by the caller.
+     */
+    private FieldSnapshot(int step, int totalSteps, Weather weather, int infected, String population,
+                          byte[] cells)
+    {
+        this.step = step;
+        this.totalSteps = totalSteps;
+        this.weather = weather;
+        this.infected = infected;
+        this.population = population;
+        this.cells = cells;
+    }
+
+    /**
+     * Take a snapshot of the field after a step.
+     *
+     * @param field The field to copy.
+     * @param previous The last snapshot taken of the field, or null if there is none.
+     * @param step The current step.
+     * @param totalSteps The number of steps the simulator is running for.
+     * @param weather The weather of the step.
+     * @param infected The number of infected animals.
+     * @return The new snapshot.
+     */
+    public static FieldSnapshot take(Field field, FieldSnapshot previous, int step, int totalSteps,
+                                     Weather weather, int infected)
+    {
+        byte[] cells;
+        // The changes to a plant layer are not journaled, so every chunk is read when there is one.
+        PlantLayer plants = field.getPlants();
+        if(plants == null && previous != null && previous.step == step - 1
+        && previous.cells.length == field.getDepth() * field.getWidth()) {
+            // Only the cells changed during this step differ from the previous snapshot.
+            cells = previous.cells.clone();
+            for(int i = 0; i < field.getChangeCount(); i++) {
+                int cell = field.getChangedCell(i);
+                cells[cell] = speciesAt(field, cell);
+            }
+        }
+        else {
+            cells = new byte[field.getDepth() * field.getWidth()];
+            Arrays.fill(cells, EMPTY);
+            // Only the chunks of the field holding actors are read, unless plants may grow in any.
+            for(int chunkRow = 0; chunkRow < field.getChunkRows(); chunkRow++) {
+                for(int chunkCol = 0; chunkCol < field.getChunkCols(); chunkCol++) {
+                    if(plants != null || !field.isChunkEmpty(chunkRow, chunkCol)) {
+                        copyChunk(field, cells, chunkRow, chunkCol);
+                    }
+                }
+            }
+        }
+        return new FieldSnapshot(step, totalSteps, weather, infected,
+            field.getStats().getPopulationDetails(), cells);
+    }
+
+    /**
+     * Create a snapshot of a step that was recorded rather than simulated.
+     *
+     * @param cells The species id shown in each cell, or EMPTY, copied into the snapshot.
+     * @param step The step the snapshot is of.
+     * @param totalSteps The number of steps recorded.
+     * @param weather The weather of the step.
+     * @param infected The number of infected animals.
+     * @param population A description of the population of the field.
+     * @return The new snapshot.
+     */
+    public static FieldSnapshot of(byte[] cells, int step, int totalSteps, Weather weather, int infected,
+                                   String population)
+    {
+        return new FieldSnapshot(step, totalSteps, weather, infected, population, cells.clone());
+    }
+
+    /**
+     * Copy the species shown in the cells of one chunk of the field.
+     *
+     * @param field The field to read.
+     * @param cells The species shown in each cell, indexed by cell.
+     * @param chunkRow The row of the chunk.
+     * @param chunkCol The column of the chunk.
+     */
+    private static void copyChunk(Field field, byte[] cells, int chunkRow, int chunkCol)
+    {
+        int width = field.getWidth();
+        int lastRow = Math.min((chunkRow + 1) * Field.CHUNK_SIZE, field.getDepth());
+        int lastCol = Math.min((chunkCol + 1) * Field.CHUNK_SIZE, width);
+        for(int row = chunkRow * Field.CHUNK_SIZE; row < lastRow; row++) {
+            for(int col = chunkCol * Field.CHUNK_SIZE; col < lastCol; col++) {
+                cells[row * width + col] = speciesAt(field, row * width + col);
+            }
+        }
+    }
+
+    /**
+     * Returns the species id of the actor shown at a cell of the field,
+     * or of the plant under it if there is no actor.
+     *
+     * @param field The field to read.
+     * @param cell The cell to read.
+     * @return The species id, or EMPTY if the cell is empty.
+     */
+    private static byte speciesAt(Field field, int cell)
+    {
+        Actor actor = (Actor) field.getObjectAt(cell);
+        if(actor == null) {
+            PlantLayer plants = field.getPlants();
+            return plants != null && plants.hasPlant(cell) ? (byte) Species.PLANT.getId() : EMPTY;
+        }
+        return (byte) actor.getSpecies().getId();
+    }
+
+    /**
+     * @param cell A cell of the field.
+     * @return The species id of the actor shown at the cell, or EMPTY.
+     */
+    public int getSpeciesId(int cell)
+    {
+        return cells[cell];
+    }
+
+    /**
+     * @return The number of cells in the field.
+     */
+    public int getCellCount()
+    {
+        return cells.length;
+    }
+
+    /**
+     * @return The step the snapshot was taken at.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @return The number of steps the simulator is running for.
+     */
+    public int getTotalSteps()
+    {
+        return totalSteps;
+    }
+
+    /**
+     * @return The weather of the step.
+     */
+    public Weather getWeather()
+    {
+        return weather;
+    }
+
+    /**
+     * @return The number of infected animals.
+     */
+    public int getInfected()
+    {
+        return infected;
+    }
+
+    /**
+     * @return A description of the population of the field.
+     */
+    public String getPopulation()
+    {
+        return population;
+    }
+}
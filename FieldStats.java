@@ -1,140 +1,159 @@
-import java.util.HashMap;
-import java.util.ArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class collects and provides some statistical data on the state
- * of a field. It is flexible: it will create and maintain a counter
- * for any class of object that is found within the field.
- * 
+ * of a field: how many actors of each species are shown in it, and how
+ * many of them are infected.
+ *
+ * The counts are kept up to date as actors are placed, cleared and infected,
+ * so reading them costs one counter per species rather than a pass over the field.
+ * The counters are LongAdders, as actors in different tiles can change the
+ * field at the same time.
+ *
  * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
  * @version (28/02/2022)
  */
 public class FieldStats
 {
-    // Counters for each type of entity in the simulation.
-    private HashMap<Class, Counter> counters;
-    // Whether the counters are currently up to date.
-    private boolean countsValid;
-    // What actors to ignore in viability of running.
-    private ArrayList<Class> ignoreViable;
+    // The number of actors of each species, indexed by species id.
+    private final LongAdder[] population;
+    // The number of infected actors of each species, indexed by species id.
+    private final LongAdder[] infected;
 
     /**
-     * Construct a FieldStats object.
+     * Construct a FieldStats object with every count at zero.
      */
     public FieldStats()
     {
-        // Set up a collection for counters for each type of actor that
-        // we might find.
-        counters = new HashMap<>();
-        countsValid = true;
-        ignoreViable = new ArrayList<>();
-        ignoreViable.add(Plant.class);
+        population = new LongAdder[Species.count()];
+        infected = new LongAdder[Species.count()];
+        for(int id = 0; id < population.length; id++) {
+            population[id] = new LongAdder();
+            infected[id] = new LongAdder();
+        }
     }
 
     /**
      * Get details of what is in the field.
-     * 
+     *
      * @return A string describing what is in the field.
      */
-    public String getPopulationDetails(Field field)
+    public String getPopulationDetails()
     {
-        StringBuffer buffer = new StringBuffer();
-        if(!countsValid) {
-            generateCounts(field);
-        }
-        for(Class key : counters.keySet()) {
-            Counter info = counters.get(key);
-            buffer.append(info.getName());
+        StringBuilder buffer = new StringBuilder();
+        for(int id = 0; id < population.length; id++) {
+            buffer.append(Species.fromId(id).getActorClass().getName());
             buffer.append(": ");
-            buffer.append(info.getCount());
+            buffer.append(population[id].sum());
             buffer.append(' ');
         }
         return buffer.toString();
     }
 
     /**
-     * Invalidate the current set of statistics; reset all 
-     * counts to zero.
+     * Reset all counts to zero.
      */
     public void reset()
     {
-        countsValid = false;
-        for(Class key : counters.keySet()) {
-            Counter count = counters.get(key);
-            count.reset();
+        for(int id = 0; id < population.length; id++) {
+            population[id].reset();
+            infected[id].reset();
         }
     }
 
     /**
-     * Increment the count for one class of actor.
-     * 
-     * @param actorClass The class of actor to increment.
+     * Count an actor that has been placed in the field.
+     *
+     * @param actor The actor placed.
      */
-    public void incrementCount(Class actorClass)
+    public void added(Actor actor)
     {
-        Counter count = counters.get(actorClass);
-        if(count == null) {
-            // We do not have a counter for this species yet.
-            // Create one.
-            count = new Counter(actorClass.getName());
-            counters.put(actorClass, count);
+        int id = actor.getSpecies().getId();
+        population[id].increment();
+        if(actor.getInfected()) {
+            infected[id].increment();
         }
-        count.increment();
     }
 
     /**
-     * Indicate that an actor count has been completed.
+     * Stop counting an actor that has been cleared from the field.
+     *
+     * @param actor The actor cleared.
      */
-    public void countFinished()
+    public void removed(Actor actor)
     {
-        countsValid = true;
+        int id = actor.getSpecies().getId();
+        population[id].decrement();
+        if(actor.getInfected()) {
+            infected[id].decrement();
+        }
     }
 
     /**
-     * Determine whether the simulation is still viable.
-     * I.e., should it continue to run.
-     * 
-     * @return true If there is more than one species alive.
+     * Count a change of infection of an actor shown in the field.
+     *
+     * @param species The species of the actor.
+     * @param nowInfected Whether the actor has become infected or has been cured.
      */
-    public boolean isViable(Field field)
+    public void infectionChanged(Species species, boolean nowInfected)
     {
-        // How many counts are non-zero.
-        int nonZero = 0;
-        if(!countsValid) {
-            generateCounts(field);
+        if(nowInfected) {
+            infected[species.getId()].increment();
         }
-
-        for(Class key : counters.keySet()) {
-            if(!(ignoreViable.contains(key))){
-                Counter info = counters.get(key);
-                if(info.getCount() > 0){
-                    nonZero++;
-                }
-            }
+        else {
+            infected[species.getId()].decrement();
         }
+    }
 
-        return nonZero > 1;
+    /**
+     * Increment the count for one species by the given amount.
+     * Used for actors that are not kept in a field, such as those in an ActorStore.
+     *
+     * @param species The species to increment.
+     * @param amount The amount to increment the count by.
+     */
+    public void incrementCount(Species species, int amount)
+    {
+        population[species.getId()].add(amount);
+    }
+
+    /**
+     * @param species The species to count.
+     * @return The number of actors of the species.
+     */
+    public int getCount(Species species)
+    {
+        return population[species.getId()].intValue();
     }
 
     /**
-     * Generate counts of the number of actors.
-     * These are not kept up to date. 
-     * Actors are placed in the field, but only when a request
-     * is made for the information.
-     * 
-     * @param field The field to generate the stats for.
+     * @return The number of infected actors of every species.
      */
-    private void generateCounts(Field field)
+    public int getInfectedCount()
     {
-        reset();
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object actor = field.getObjectAt(row, col);
-                if(actor != null) {
-                    incrementCount(actor.getClass());
-                }
+        long total = 0;
+        for(LongAdder count : infected) {
+            total += count.sum();
+        }
+        return (int) total;
+    }
+
+    /**
+     * Determine whether the simulation is still viable.
+     * I.e., should it continue to run.
+     * Plants are not counted.
+     *
+     * @return true If there is more than one animal species alive.
+     */
+    public boolean isViable()
+    {
+        // How many counts are non-zero.
+        int nonZero = 0;
+        for(int id = 0; id < population.length; id++) {
+            if(Species.fromId(id).isAnimal() && population[id].sum() > 0) {
+                nonZero++;
             }
         }
-        countsValid = true;
+        return nonZero > 1;
     }
 }
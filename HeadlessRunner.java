@@ -0,0 +1,225 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs the simulation from the command line without a graphical view.
+ * Steps are run back to back with no delay, and the throughput, the time taken
+ * by each phase of a step and the final population are printed once the run is over.
+ *
+ * Each argument is a named option of the form --name=value, and any option left
+ * out falls back to its default value:
+ *
+ *     --width, --depth   the size of the grid
+ *     --steps            the number of steps to run for
+ *     --seed             the seed for the random generator
+ *     --threads          the number of threads used to step actors
+ *     --mode             the step mode: object, compact, tiled or buffered
+ *     --replay           a directory the run is recorded in for ReplayPlayer
+ *     --metrics          a file the statistics of each step are written to, as CSV when
+ *                        its name ends in .csv and in the binary format of MetricsSink otherwise
+ *     --policy           what to do with the rows of metrics when their writer falls behind:
+ *                        coalesce them into the last row, or drop them
+ *     --plants           layer to keep plants in a PlantLayer, or actors to keep them as actors
+ *     --disease          layer to step the disease in a DiseaseLayer, or animals to step it in each animal
+ *
+ * Usage: java HeadlessRunner [--width=150] [--depth=100] [--steps=400] [--seed=1111] [--threads=n]
+ *        [--mode=object] [--replay=dir] [--metrics=file] [--policy=coalesce] [--plants=actors] [--disease=animals]
+ * 
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class HeadlessRunner
+{
+    // The default width for the grid.
+    private static final int DEFAULT_WIDTH = 150;
+    // The default depth of the grid.
+    private static final int DEFAULT_DEPTH = 100;
+    // The default number of steps to run for.
+    private static final int DEFAULT_STEPS = 400;
+    // The default seed for the random generator.
+    private static final long DEFAULT_SEED = 1111;
+    // How to run the runner, printed when an argument is not understood.
+    private static final String USAGE = "Usage: java HeadlessRunner [--width=" + DEFAULT_WIDTH + "] [--depth=" + DEFAULT_DEPTH
+        + "] [--steps=" + DEFAULT_STEPS + "] [--seed=" + DEFAULT_SEED + "] [--threads=n] [--mode=object|compact|tiled|buffered]"
+        + " [--replay=dir] [--metrics=file] [--policy=coalesce|drop] [--plants=actors|layer] [--disease=animals|layer]";
+
+    /**
+     * Runs a headless simulation using the given command line arguments.
+     * Any option left out falls back to its default value.
+     * 
+     * @param args Named options of the form --name=value.
+     */
+    public static void main(String[] args)
+    {
+        int width = DEFAULT_WIDTH;
+        int depth = DEFAULT_DEPTH;
+        int steps = DEFAULT_STEPS;
+        long seed = DEFAULT_SEED;
+        int threads = Runtime.getRuntime().availableProcessors();
+        StepMode mode = StepMode.OBJECT;
+        Path replay = null;
+        Path metricsFile = null;
+        OverflowPolicy policy = OverflowPolicy.COALESCE;
+        boolean plantLayer = false;
+        boolean diseaseLayer = false;
+        try {
+            for(String arg : args) {
+                int equals = arg.indexOf('=');
+                if(!arg.startsWith("--") || equals < 0) {
+                    throw new IllegalArgumentException("Argument " + arg + " is not of the form --name=value");
+                }
+                String name = arg.substring(2, equals);
+                String value = arg.substring(equals + 1);
+                switch(name) {
+                    case "width":
+                        width = parseCount(name, value);
+                        break;
+                    case "depth":
+                        depth = parseCount(name, value);
+                        break;
+                    case "steps":
+                        steps = parseCount(name, value);
+                        break;
+                    case "seed":
+                        try {
+                            seed = Long.parseLong(value);
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("--seed must be a whole number, not " + value);
+                        }
+                        break;
+                    case "threads":
+                        threads = parseCount(name, value);
+                        break;
+                    case "mode":
+                        mode = StepMode.valueOf(parseChoice(name, value, "object", "compact", "tiled", "buffered").toUpperCase());
+                        break;
+                    case "replay":
+                        replay = Paths.get(value);
+                        break;
+                    case "metrics":
+                        metricsFile = Paths.get(value);
+                        break;
+                    case "policy":
+                        policy = OverflowPolicy.valueOf(parseChoice(name, value, "coalesce", "drop").toUpperCase());
+                        break;
+                    case "plants":
+                        plantLayer = parseChoice(name, value, "actors", "layer").equals("layer");
+                        break;
+                    case "disease":
+                        diseaseLayer = parseChoice(name, value, "animals", "layer").equals("layer");
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            return;
+        }
+
+        // Seed before any actor or field exists so the whole run uses it.
+        Randomizer.setSeed(seed);
+        Simulator simulator = new Simulator(depth, width, threads, false);
+        if(mode != StepMode.OBJECT) {
+            simulator.setStepMode(mode);
+        }
+        if(plantLayer) {
+            simulator.setPlantLayer(true);
+        }
+        if(diseaseLayer) {
+            simulator.setDiseaseLayer(true);
+        }
+        simulator.getStepTimer().setEnabled(true);
+        if(replay != null) {
+            try {
+                simulator.startRecording(replay, ReplayRecorder.DEFAULT_KEYFRAME_INTERVAL);
+            } catch (IOException e) {
+                System.out.println("Could not record to " + replay + ": " + e.getMessage());
+                return;
+            }
+        }
+        MetricsSink metrics = null;
+        if(metricsFile != null) {
+            MetricsFormat format = metricsFile.toString().endsWith(".csv") ? MetricsFormat.CSV : MetricsFormat.BINARY;
+            try {
+                metrics = new MetricsSink(metricsFile, format, policy);
+            } catch (IOException e) {
+                System.out.println("Could not write metrics to " + metricsFile + ": " + e.getMessage());
+                return;
+            }
+            simulator.setMetricsSink(metrics);
+        }
+
+        long start = System.nanoTime();
+        int completed = simulator.simulateHeadless(steps);
+        long elapsed = System.nanoTime() - start;
+        simulator.close();
+        if(metrics != null) {
+            simulator.setMetricsSink(null);
+            try {
+                metrics.close();
+            } catch (IOException e) {
+                System.out.println("Could not write metrics to " + metricsFile + ": " + e.getMessage());
+            }
+            if(metrics.getCoalescedRows() > 0) {
+                System.out.println(metrics.getCoalescedRows() + " rows of metrics were coalesced as the writer fell behind");
+            }
+            if(metrics.getDroppedRows() > 0) {
+                System.out.println(metrics.getDroppedRows() + " rows of metrics were dropped as the writer fell behind");
+            }
+        }
+
+        double seconds = elapsed / 1e9;
+        System.out.println("Grid: " + width + "x" + depth + "   Seed: " + seed + "   Threads: " + threads + "   Mode: " + mode
+            + (plantLayer ? "   Plants: layer" : "") + (diseaseLayer ? "   Disease: layer" : ""));
+        System.out.printf("Ran %d of %d steps in %.3f s (%.1f steps/sec)%n", completed, steps, seconds, completed / seconds);
+        System.out.print(simulator.getStepTimer().getReport());
+        if(completed < steps) {
+            System.out.println("The simulation stopped early as it was no longer viable");
+        }
+        System.out.println("Population: " + simulator.getPopulationDetails());
+    }
+
+    /**
+     * Reads the value of an option that counts something, such as cells, steps or threads.
+     *
+     * @param name The name of the option.
+     * @param value The value given to the option.
+     * @return The count.
+     * @throws IllegalArgumentException If the value is not a whole number above zero.
+     */
+    private static int parseCount(String name, String value)
+    {
+        int count;
+        try {
+            count = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            count = 0;
+        }
+        if(count <= 0) {
+            throw new IllegalArgumentException("--" + name + " must be a whole number above zero, not " + value);
+        }
+        return count;
+    }
+
+    /**
+     * Reads the value of an option that takes one of a fixed set of values.
+     *
+     * @param name The name of the option.
+     * @param value The value given to the option.
+     * @param choices The values the option takes.
+     * @return The value, in lower case.
+     * @throws IllegalArgumentException If the value is not one of the choices.
+     */
+    private static String parseChoice(String name, String value, String... choices)
+    {
+        for(String choice : choices) {
+            if(choice.equalsIgnoreCase(value)) {
+                return choice;
+            }
+        }
+        throw new IllegalArgumentException("--" + name + " must be one of " + String.join(", ", choices) + ", not " + value);
+    }
+}
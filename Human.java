@@ -1,5 +1,4 @@
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * A simple model of a human.
@@ -13,25 +12,18 @@ public class Human extends Animal
     // Characteristics shared by all human (class variables).
 
     // The age at which a human can start to breed.
-    private static final int BREEDING_AGE = 18;
+    static final int BREEDING_AGE = 18;
     // The age to which a human can live.
-    private static final int MAX_AGE = 90;
+    static final int MAX_AGE = 90;
     // The likelihood of a human breeding.
-    private static final double BREEDING_PROBABILITY = 0.2;
+    static final double BREEDING_PROBABILITY = 0.2;
     // The maximum number of births.
-    private static final int MAX_LITTER_SIZE = 3;
+    static final int MAX_LITTER_SIZE = 3;
     // The base rate which is used to give
     // the number of steps a predator gains when it eats a human
-    private static final int BASIC_FOOD_LEVEL = 25;
+    static final int BASIC_FOOD_LEVEL = 25;
     // Probability that a human dies from disease.
-    private static final double HUMAN_DEATH_FROM_DISEASE_PROBABILITY = 0.05;
-    // List of all human prey.
-    private final ArrayList<Class> LIST_OF_PREY = new ArrayList<>() {
-            {
-                add(Dodo.class);
-                add(Pig.class);
-            }
-        };
+    static final double HUMAN_DEATH_FROM_DISEASE_PROBABILITY = 0.05;
 
     /**
      * Create a human. A human can be created as a new born (age zero
@@ -39,12 +31,12 @@ public class Human extends Animal
      * 
      * @param randomAge If true, the human will have random age and hunger level.
      * @param field     The field currently occupied.
-     * @param location  The location within the field.
+     * @param cell      The cell within the field.
      * @param infected  Boolean value determining if the animal is infected or not.
      */
-    protected Human(boolean randomAge, Field field, Location location, boolean infected)
+    protected Human(boolean randomAge, Field field, int cell, boolean infected)
     {
-        super(field, location, infected);
+        super(field, cell, infected);
 
         // Sets values in animal class.
         setOverlap(false);
@@ -82,18 +74,18 @@ public class Human extends Animal
             spreadVirus();
 
             // Move towards a source of food if found.
-            Location newLocation = super.findFood(LIST_OF_PREY);
-            if(newLocation == null) { 
-                // No food found - try to move to a free location.
-                newLocation = getField().freeAdjacentLocation(getLocation());
+            int newCell = super.findFood();
+            if(newCell == Field.NO_CELL) { 
+                // No food found - try to move to a free cell.
+                newCell = getField().freeAdjacentCell(getCell());
             }
             // See if it was possible to move.
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell != Field.NO_CELL) {
+                setCell(newCell);
             }
             else {
                 // Overcrowding.
-                setDead();
+                setDead(DeathCause.OVERCROWDING);
             }
         }
     }
@@ -114,4 +106,12 @@ public class Human extends Animal
             spreadVirus();    
         }
     }
+
+    /**
+     * @return The species of the human.
+     */
+    public Species getSpecies()
+    {
+        return Species.HUMAN;
+    }
 }
@@ -0,0 +1,133 @@
+import java.util.Arrays;
+
+/**
+ * A histogram of durations in nanoseconds, cheap enough to record into on every step.
+ *
+ * Durations are counted in buckets that grow with their size: each power of two
+ * is split into SUB_BUCKETS equal buckets, so any percentile read back is within
+ * 1/SUB_BUCKETS of the duration recorded, whatever its size, and recording is a
+ * few shifts and an array increment with no allocation.
+ *
+ * A histogram is recorded into by one thread at a time.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class LatencyHistogram
+{
+    // The log base 2 of the number of buckets each power of two is split into.
+    private static final int SUB_BUCKET_BITS = 3;
+    // The number of buckets each power of two is split into.
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // The number of durations recorded in each bucket.
+    private final long[] counts;
+    // The number of durations recorded.
+    private long total;
+    // The longest duration recorded.
+    private long max;
+
+    /**
+     * Create an empty histogram.
+     */
+    public LatencyHistogram()
+    {
+        counts = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos The duration in nanoseconds, negative durations count as 0.
+     */
+    public void record(long nanos)
+    {
+        long value = Math.max(nanos, 0);
+        counts[bucket(value)]++;
+        total++;
+        if(value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Forget every duration recorded.
+     */
+    public void clear()
+    {
+        Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+
+    /**
+     * @return The number of durations recorded.
+     */
+    public long getCount()
+    {
+        return total;
+    }
+
+    /**
+     * @return The longest duration recorded in nanoseconds, 0 if there are none.
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Returns a duration that the given fraction of the durations recorded are no longer than.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The duration in nanoseconds, 0 if there are none.
+     */
+    public long getPercentile(double percentile)
+    {
+        if(total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for(int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if(seen >= rank) {
+                return Math.min(upperBound(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the bucket a duration is counted in.
+     * Durations below SUB_BUCKETS have a bucket each; above that, the highest bit
+     * picks the power of two and the bits after it pick the bucket within it.
+     *
+     * @param value The duration, not negative.
+     * @return The index of the bucket.
+     */
+    private static int bucket(long value)
+    {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Returns the longest duration counted in a bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The duration in nanoseconds.
+     */
+    private static long upperBound(int bucket)
+    {
+        if(bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long first = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return first + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Defines the file formats a MetricsSink can write its rows in.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public enum MetricsFormat
+{
+    // One comma separated line per step, after a header line.
+    CSV,
+    // Blocks of rows, each stored column by column as big-endian binary values.
+    BINARY
+}
@@ -0,0 +1,360 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Collects statistics of each step into a time series file, written on a background thread.
+ *
+ * A row holds the step, the weather, the number of each species shown, the number of
+ * infected animals and the wall time of the step. Rows are copied into blocks of
+ * preallocated columns; a full block is handed to the writer thread, which writes it
+ * out and hands it back empty. The simulation thread never waits for the writer: when
+ * every block is waiting to be written, the OverflowPolicy decides what happens to the
+ * new row, and the rows dropped or coalesced are counted.
+ *
+ * A BINARY file starts with MAGIC, VERSION, the number of species and their names.
+ * Each block follows as its number of rows, then the steps, weathers, counts of each
+ * species in turn, infected counts and wall times, each as one column.
+ *
+ * record must only be called from one thread at a time.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class MetricsSink implements AutoCloseable
+{
+    // The first four bytes of every binary file, "PPMT".
+    public static final int MAGIC = 0x50504d54;
+    // The version of the binary format written.
+    public static final short VERSION = 1;
+    // The default number of rows in each block.
+    public static final int DEFAULT_BLOCK_ROWS = 1024;
+    // The default number of blocks.
+    public static final int DEFAULT_BLOCKS = 4;
+    // Marks a row whose weather was not known.
+    private static final byte NO_WEATHER = -1;
+
+    // What happens to new rows while every block is waiting to be written.
+    private final OverflowPolicy policy;
+    // The format the rows are written in.
+    private final MetricsFormat format;
+    // The empty blocks, ready to be filled.
+    private final ArrayBlockingQueue<Block> free;
+    // The blocks waiting to be written, in order.
+    private final ArrayBlockingQueue<Block> full;
+    // Handed to the writer after the last block, to end it.
+    private final Block end;
+    // Writes the full blocks out.
+    private final Thread writer;
+    // The file, when written as CSV.
+    private BufferedWriter csv;
+    // The file, when written as binary.
+    private DataOutputStream binary;
+
+    // The block being filled, only used by the thread recording rows.
+    private Block current;
+    // The number of rows dropped.
+    private volatile long dropped;
+    // The number of rows coalesced into the row before them.
+    private volatile long coalesced;
+    // The first error met by the writer, after which nothing more is written.
+    private volatile IOException failure;
+
+    /**
+     * Create a sink with the default number and size of blocks.
+     *
+     * @param file The file to write, which is replaced.
+     * @param format The format to write the rows in.
+     * @param policy What happens to new rows while every block is waiting to be written.
+     * @throws IOException If the file cannot be created.
+     */
+    public MetricsSink(Path file, MetricsFormat format, OverflowPolicy policy) throws IOException
+    {
+        this(file, format, policy, DEFAULT_BLOCK_ROWS, DEFAULT_BLOCKS);
+    }
+
+    /**
+     * Create a sink and start its writer thread.
+     *
+     * @param file The file to write, which is replaced.
+     * @param format The format to write the rows in.
+     * @param policy What happens to new rows while every block is waiting to be written.
+     * @param blockRows The number of rows in each block.
+     * @param blocks The number of blocks, at least 2.
+     * @throws IOException If the file cannot be created.
+     */
+    public MetricsSink(Path file, MetricsFormat format, OverflowPolicy policy, int blockRows, int blocks) throws IOException
+    {
+        if(blockRows <= 0 || blocks < 2) {
+            throw new IllegalArgumentException("A sink needs at least 2 blocks of at least 1 row");
+        }
+        this.format = format;
+        this.policy = policy;
+        free = new ArrayBlockingQueue<>(blocks);
+        // One more place for the end marker.
+        full = new ArrayBlockingQueue<>(blocks + 1);
+        for(int i = 0; i < blocks; i++) {
+            free.add(new Block(blockRows));
+        }
+        end = new Block(0);
+        current = free.poll();
+
+        if(format == MetricsFormat.CSV) {
+            csv = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8));
+            writeCsvHeader();
+        }
+        else {
+            binary = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            writeBinaryHeader();
+        }
+
+        writer = new Thread(this::drain, "metrics-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Record the statistics of a step. Never waits for the writer.
+     *
+     * @param step The step.
+     * @param weather The weather of the step, or null if it is not known.
+     * @param counts The number of each species shown, indexed by species id.
+     * @param infected The number of infected animals.
+     * @param wallNanos The wall time the step took, in nanoseconds.
+     */
+    public void record(int step, Weather weather, int[] counts, int infected, long wallNanos)
+    {
+        int row;
+        if(current.rows < current.capacity) {
+            row = current.rows++;
+        }
+        else {
+            Block next = free.poll();
+            if(next != null) {
+                full.add(current);
+                current = next;
+                row = current.rows++;
+            }
+            else if(policy == OverflowPolicy.COALESCE) {
+                // The last row takes on the new state, and the time of both steps.
+                row = current.rows - 1;
+                wallNanos += current.wallNanos[row];
+                coalesced++;
+            }
+            else {
+                dropped++;
+                return;
+            }
+        }
+        current.steps[row] = step;
+        current.weathers[row] = weather == null ? NO_WEATHER : (byte) weather.ordinal();
+        System.arraycopy(counts, 0, current.counts, row * Species.count(), Species.count());
+        current.infected[row] = infected;
+        current.wallNanos[row] = wallNanos;
+    }
+
+    /**
+     * Write out every row recorded, stop the writer and close the file.
+     * Waits for the writer to finish.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if(current.rows > 0) {
+            full.add(current);
+        }
+        full.add(end);
+        try {
+            writer.join();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if(csv != null) {
+            csv.close();
+        }
+        if(binary != null) {
+            binary.close();
+        }
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return The number of rows dropped because every block was waiting to be written.
+     */
+    public long getDroppedRows()
+    {
+        return dropped;
+    }
+
+    /**
+     * @return The number of rows coalesced into the row before them because every block was waiting to be written.
+     */
+    public long getCoalescedRows()
+    {
+        return coalesced;
+    }
+
+    /**
+     * The loop of the writer thread, writing full blocks until the end marker.
+     */
+    private void drain()
+    {
+        while(true) {
+            Block block;
+            try {
+                block = full.take();
+            }
+            catch(InterruptedException e) {
+                return;
+            }
+            if(block == end) {
+                return;
+            }
+            // After an error the blocks are still emptied, so recording carries on.
+            if(failure == null) {
+                try {
+                    if(format == MetricsFormat.CSV) {
+                        writeCsv(block);
+                    }
+                    else {
+                        writeBinary(block);
+                    }
+                }
+                catch(IOException e) {
+                    System.out.println("The metrics could not be written, so no more will be: " + e.getMessage());
+                    failure = e;
+                }
+            }
+            block.rows = 0;
+            free.add(block);
+        }
+    }
+
+    /**
+     * Write the names of the columns as the first line of a CSV file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeCsvHeader() throws IOException
+    {
+        StringBuilder line = new StringBuilder("step,weather");
+        for(Species species : Species.values()) {
+            line.append(',').append(species.getActorClass().getName());
+        }
+        line.append(",infected,wall_ns");
+        csv.write(line.toString());
+        csv.newLine();
+    }
+
+    /**
+     * Write the rows of a block as lines of a CSV file.
+     *
+     * @param block The block to write.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeCsv(Block block) throws IOException
+    {
+        Weather[] weathers = Weather.values();
+        int species = Species.count();
+        StringBuilder line = new StringBuilder();
+        for(int row = 0; row < block.rows; row++) {
+            line.setLength(0);
+            line.append(block.steps[row]).append(',');
+            line.append(block.weathers[row] == NO_WEATHER ? "" : weathers[block.weathers[row]].toString());
+            for(int id = 0; id < species; id++) {
+                line.append(',').append(block.counts[row * species + id]);
+            }
+            line.append(',').append(block.infected[row]).append(',').append(block.wallNanos[row]);
+            csv.write(line.toString());
+            csv.newLine();
+        }
+        csv.flush();
+    }
+
+    /**
+     * Write the header of a binary file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeBinaryHeader() throws IOException
+    {
+        binary.writeInt(MAGIC);
+        binary.writeShort(VERSION);
+        binary.writeByte(Species.count());
+        for(Species species : Species.values()) {
+            binary.writeUTF(species.getActorClass().getName());
+        }
+    }
+
+    /**
+     * Write a block to a binary file, one column after another.
+     *
+     * @param block The block to write.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeBinary(Block block) throws IOException
+    {
+        int species = Species.count();
+        binary.writeInt(block.rows);
+        for(int row = 0; row < block.rows; row++) {
+            binary.writeInt(block.steps[row]);
+        }
+        binary.write(block.weathers, 0, block.rows);
+        for(int id = 0; id < species; id++) {
+            for(int row = 0; row < block.rows; row++) {
+                binary.writeInt(block.counts[row * species + id]);
+            }
+        }
+        for(int row = 0; row < block.rows; row++) {
+            binary.writeInt(block.infected[row]);
+        }
+        for(int row = 0; row < block.rows; row++) {
+            binary.writeLong(block.wallNanos[row]);
+        }
+        binary.flush();
+    }
+
+    /**
+     * A fixed number of rows, held as one array per column.
+     */
+    private static class Block
+    {
+        // The number of rows the block can hold.
+        private final int capacity;
+        // The columns of the rows.
+        private final int[] steps;
+        private final byte[] weathers;
+        // The count of each species of each row, indexed by row times the number of species plus species id.
+        private final int[] counts;
+        private final int[] infected;
+        private final long[] wallNanos;
+        // The number of rows filled.
+        private int rows;
+
+        /**
+         * Create an empty block.
+         *
+         * @param capacity The number of rows the block can hold.
+         */
+        public Block(int capacity)
+        {
+            this.capacity = capacity;
+            steps = new int[capacity];
+            weathers = new byte[capacity];
+            counts = new int[capacity * Species.count()];
+            infected = new int[capacity];
+            wallNanos = new long[capacity];
+        }
+    }
+}
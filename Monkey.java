@@ -1,5 +1,4 @@
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * A simple model of a monkey.
@@ -13,24 +12,18 @@ public class Monkey extends Animal
     // Characteristics shared by all monkeys (class variables).
 
     // The age at which a monkey can start to breed.
-    private static final int BREEDING_AGE = 4;
+    static final int BREEDING_AGE = 4;
     // The age to which a monkey can live.
-    private static final int MAX_AGE = 50;
+    static final int MAX_AGE = 50;
     // The likelihood of a monkey breeding.
-    private static final double BREEDING_PROBABILITY = 0.4;
+    static final double BREEDING_PROBABILITY = 0.4;
     // The maximum number of births.
-    private static final int MAX_LITTER_SIZE = 4;
+    static final int MAX_LITTER_SIZE = 4;
     // The base rate which is used to give
     // the number of steps a predator gains when it eats a monkey
-    private static final int BASIC_FOOD_LEVEL = 25;
+    static final int BASIC_FOOD_LEVEL = 25;
     // Probability that a monkey dies from disease.
-    private static final double MONKEY_DEATH_FROM_DISEASE_PROBABILITY = 0.05;
-    // List of all monkey prey.
-    private final ArrayList<Class> LIST_OF_PREY = new ArrayList<>() {
-            {
-                add(Dodo.class);
-            }
-        };
+    static final double MONKEY_DEATH_FROM_DISEASE_PROBABILITY = 0.05;
 
     /**
      * Create a monkey. A monkey can be created as a new born (age zero
@@ -38,12 +31,12 @@ public class Monkey extends Animal
      * 
      * @param randomAge If true, the monkey will have random age and hunger level.
      * @param field     The field currently occupied.
-     * @param location  The location within the field.
+     * @param cell      The cell within the field.
      * @param infected  Boolean value determining if the animal is infected or not
      */
-    protected Monkey(boolean randomAge, Field field, Location location, boolean infected)
+    protected Monkey(boolean randomAge, Field field, int cell, boolean infected)
     {
-        super(field, location, infected);
+        super(field, cell, infected);
 
         // Sets values in animal class
         setOverlap(false);
@@ -82,18 +75,18 @@ public class Monkey extends Animal
             spreadVirus();
 
             // Move towards a source of food if found.
-            Location newLocation = super.findFood(LIST_OF_PREY);
-            if(newLocation == null) { 
-                // No food found - try to move to a free location.
-                newLocation = getField().freeAdjacentLocation(getLocation());
+            int newCell = super.findFood();
+            if(newCell == Field.NO_CELL) { 
+                // No food found - try to move to a free cell.
+                newCell = getField().freeAdjacentCell(getCell());
             }
             // See if it was possible to move.
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell != Field.NO_CELL) {
+                setCell(newCell);
             }
             else {
                 // Overcrowding.
-                setDead();
+                setDead(DeathCause.OVERCROWDING);
             }
         }
     }
@@ -108,4 +101,12 @@ public class Monkey extends Animal
     {
         dieInfection();
     }
+
+    /**
+     * @return The species of the monkey.
+     */
+    public Species getSpecies()
+    {
+        return Species.MONKEY;
+    }
 }
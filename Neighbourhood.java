@@ -0,0 +1,93 @@
+import java.util.Random;
+
+/**
+ * Visits the 8 neighbours of a cell in a random order without allocating anything.
+ *
+ * Every ordering of the 8 directions around a cell is worked out once, when the
+ * class is loaded. A random order is then just the index of one of those orderings,
+ * drawn with a single random number, and the k-th neighbour in that order is
+ * looked up from the table. Directions that lead off the grid are skipped by the
+ * caller, which leaves the remaining neighbours in a uniformly random order too.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class Neighbourhood
+{
+    // The number of directions around a cell.
+    public static final int DIRECTIONS = 8;
+    // The number of orders the directions can be visited in, 8 factorial.
+    public static final int ORDERS = 40320;
+    // The row and column offset of each direction, in reading order.
+    private static final int[] ROW_OFFSETS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COL_OFFSETS = {-1, 0, 1, -1, 1, -1, 0, 1};
+    // Every order of the directions, 8 directions per order.
+    private static final byte[] PERMUTATIONS = new byte[ORDERS * DIRECTIONS];
+
+    static {
+        // Decode each order from its index, using the factorial number system.
+        byte[] remaining = new byte[DIRECTIONS];
+        for(int order = 0; order < ORDERS; order++) {
+            for(int direction = 0; direction < DIRECTIONS; direction++) {
+                remaining[direction] = (byte) direction;
+            }
+            int code = order;
+            for(int k = 0; k < DIRECTIONS; k++) {
+                int left = DIRECTIONS - k;
+                int pick = code % left;
+                code /= left;
+                PERMUTATIONS[order * DIRECTIONS + k] = remaining[pick];
+                remaining[pick] = remaining[left - 1];
+            }
+        }
+    }
+
+    /**
+     * No neighbourhood objects are constructed
+     * All values are statically used
+     */
+    private Neighbourhood()
+    {
+    }
+
+    /**
+     * Choose a random order to visit the directions around a cell in.
+     *
+     * @param rand The random generator used to choose the order.
+     * @return The index of the order.
+     */
+    public static int randomOrder(Random rand)
+    {
+        return rand.nextInt(ORDERS);
+    }
+
+    /**
+     * Returns the direction visited at a given position of an order.
+     *
+     * @param order The index of an order, as given by randomOrder.
+     * @param k The position in the order, from 0 to 7.
+     * @return The direction, from 0 to 7.
+     */
+    public static int direction(int order, int k)
+    {
+        return PERMUTATIONS[order * DIRECTIONS + k];
+    }
+
+    /**
+     * @param direction A direction, from 0 to 7.
+     * @return The row offset of the direction.
+     */
+    public static int rowOffset(int direction)
+    {
+        return ROW_OFFSETS[direction];
+    }
+
+    /**
+     * @param direction A direction, from 0 to 7.
+     * @return The column offset of the direction.
+     */
+    public static int colOffset(int direction)
+    {
+        return COL_OFFSETS[direction];
+    }
+}
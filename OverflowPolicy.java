@@ -0,0 +1,14 @@
+/**
+ * Defines what a MetricsSink does with a new row when its writer has fallen behind
+ * and every buffer is waiting to be written.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public enum OverflowPolicy
+{
+    // The new row is dropped, so the rows written stop at the last one buffered.
+    DROP,
+    // The new row replaces the last one buffered, adding its wall time to it, so the latest state is written.
+    COALESCE
+}
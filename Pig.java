@@ -1,5 +1,4 @@
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * A simple model of a pig.
@@ -13,24 +12,18 @@ public class Pig extends Animal
     // Characteristics shared by all pigs (class variables).
 
     // The age at which a pig can start to breed.
-    private static final int BREEDING_AGE = 3;
+    static final int BREEDING_AGE = 3;
     // The age to which a pig can live.
-    private static final int MAX_AGE = 40;
+    static final int MAX_AGE = 40;
     // The likelihood of a pig breeding.
-    private static final double BREEDING_PROBABILITY = 0.8;
+    static final double BREEDING_PROBABILITY = 0.8;
     // The maximum number of births.
-    private static final int MAX_LITTER_SIZE = 6;
+    static final int MAX_LITTER_SIZE = 6;
     // The base rate which is used to give
     // the number of steps a predator gains when it eats a pig
-    private static final int BASIC_FOOD_LEVEL = 18;
+    static final int BASIC_FOOD_LEVEL = 18;
     // Probability that a pig dies from disease.
-    private static final double PIG_DEATH_FROM_DISEASE_PROBABILITY = 0.025;
-    // List of all pig prey.
-    private final ArrayList<Class> LIST_OF_PREY = new ArrayList<>() {
-            {
-                add(Dodo.class);
-            }
-        };
+    static final double PIG_DEATH_FROM_DISEASE_PROBABILITY = 0.025;
 
     /**
      * Create a pig. A pig can be created as a new born (age zero
@@ -38,12 +31,12 @@ public class Pig extends Animal
      * 
      * @param randomAge If true, the pig will have random age and hunger level.
      * @param field     The field currently occupied.
-     * @param location  The location within the field.
+     * @param cell      The cell within the field.
      * @param infected  Boolean value determining if the animal is infected or not
      */
-    protected Pig(boolean randomAge, Field field, Location location, boolean infected)
+    protected Pig(boolean randomAge, Field field, int cell, boolean infected)
     {
-        super(field, location, infected);
+        super(field, cell, infected);
 
         // Sets values in animal class
         setOverlap(false);
@@ -81,18 +74,18 @@ public class Pig extends Animal
             cureInfected();
             spreadVirus();       
             // Move towards a source of food if found.
-            Location newLocation = super.findFood(LIST_OF_PREY);
-            if(newLocation == null) { 
-                // No food found - try to move to a free location.
-                newLocation = getField().freeAdjacentLocation(getLocation());
+            int newCell = super.findFood();
+            if(newCell == Field.NO_CELL) { 
+                // No food found - try to move to a free cell.
+                newCell = getField().freeAdjacentCell(getCell());
             }
             // See if it was possible to move.
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell != Field.NO_CELL) {
+                setCell(newCell);
             }
             else {
                 // Overcrowding.
-                setDead();
+                setDead(DeathCause.OVERCROWDING);
             }
         }
     }
@@ -107,4 +100,12 @@ public class Pig extends Animal
     {
         dieInfection();
     }
+
+    /**
+     * @return The species of the pig.
+     */
+    public Species getSpecies()
+    {
+        return Species.PIG;
+    }
 }
@@ -12,18 +12,20 @@ public class Plant extends Actor
     // Characteristics shared by all plants (class variables).
 
     // The age at which a plant can start to breed.
-    private static final int BREEDING_AGE = 0;
+    static final int BREEDING_AGE = 0;
     // The age to which a plant can live.
-    private static final int MAX_AGE = 2;
+    static final int MAX_AGE = 2;
     // The likelihood of a plant breeding.
-    private static final double BREEDING_PROBABILITY = 0.9;
+    static final double BREEDING_PROBABILITY = 0.9;
     // The maximum number of births.
-    private static final int MAX_LITTER_SIZE = 2;
+    static final int MAX_LITTER_SIZE = 2;
     // The base rate which when multiplied by age gives
     // the number of steps a predator gains when it eats a plant.
-    private static final int PLANT_FOOD_VALUE = 7;
-    // A map containing values that can affect how the plant reacts based off the weather.
-    private EnumMap<WeatherEffectTypes, Double> weatherEffect = new EnumMap<>(WeatherEffectTypes.class);
+    static final int PLANT_FOOD_VALUE = 7;
+    // The modifier applied to the breeding probability at night.
+    static final double NIGHT_BREEDING_EFFECT = 0.01;
+    // The modifiers that affect how the plant reacts based off the weather, indexed by effect type ordinal.
+    private double[] weatherEffect;
 
     // Individual characteristics (instance fields).
 
@@ -36,12 +38,12 @@ public class Plant extends Actor
      * 
      * @param randomAge If true, the plant will have a random age.
      * @param field     The field currently occupied.
-     * @param location  The location within the field.
+     * @param cell      The cell within the field.
      * @param overlap   Whether or not an actor is allowed to overlap with other actors.
      */
-    public Plant(boolean randomAge, Field field, Location location)
+    public Plant(boolean randomAge, Field field, int cell)
     {
-        super(field, location);
+        super(field, cell);
         setOverlap(true);
         age = 0;
 
@@ -82,15 +84,35 @@ public class Plant extends Actor
     protected void incrementAge(int MAX_AGE) {
         age++;
         if (age > MAX_AGE) {
-            setDead();
+            setDead(DeathCause.AGE);
         }
     }
 
+    /**
+     * Returns the age of the plant.
+     * 
+     * @return The age of the plant.
+     */
+    protected int getAge()
+    {
+        return age;
+    }
+
+    /**
+     * Gives the plant the age it had when a checkpoint was taken.
+     * 
+     * @param age The age of the plant.
+     */
+    protected void setAge(int age)
+    {
+        this.age = age;
+    }
+
     /**
      * Retrieves and sets the current weather effect values.
      */
     protected void setWeatherEffects(){
-        weatherEffect = WeatherAction.weatherOnPlants(weather);
+        weatherEffect = WeatherAction.plantEffects(weather);
     }
 
     /**
@@ -102,17 +124,27 @@ public class Plant extends Actor
     private void giveBirth(List<Actor> newPlants)
     {
         // New plants are born into adjacent locations.
-        // Get a list of adjacent free locations.
+        // Choose the order the adjacent free locations are tried in.
         Field field = getField();
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
+        int cell = getCell();
+        int order = field.randomOrder();
+        boolean overlap = field.canOverlap(cell);
         int births = breed();
-        for(int b = 0; b < births && free.size() > 0; b++) {
+        for(int k = 0; k < Neighbourhood.DIRECTIONS && births > 0; k++) {
+            int next = field.adjacentCell(cell, order, k);
+            if(next == Field.NO_CELL || !(overlap || field.canOverlap(next))) {
+                continue;
+            }
             // Avoids overcrowding of the same type.
-            if(field.getObjectAt(free.get(0)) != null && !(this.getClass().equals(field.getObjectAt(free.get(0)).getClass()))) {
-                Location loc = free.remove(0);
-                Plant young = new Plant(false, field, loc);
-                newPlants.add(young);
+            // Births stop at the first free location without another type of actor.
+            Object actor = field.getObjectAt(next);
+            if(actor == null || this.getClass().equals(actor.getClass())) {
+                break;
             }
+            Plant young = new Plant(false, field, next);
+            newPlants.add(young);
+            field.getEvents().born(Species.PLANT);
+            births--;
         }
     }
 
@@ -145,10 +177,10 @@ public class Plant extends Actor
         if (getDay()) {
             dayEffect = 1;
         } else {
-            dayEffect = 0.01;
+            dayEffect = NIGHT_BREEDING_EFFECT;
         }
 
-        return dayEffect * weatherEffect.get(WeatherEffectTypes.BREED);
+        return dayEffect * weatherEffect[WeatherEffectTypes.BREED.ordinal()];
     }
 
     /**
@@ -170,4 +202,12 @@ public class Plant extends Actor
     {
         return age * PLANT_FOOD_VALUE;
     }
+
+    /**
+     * @return The species of the plant.
+     */
+    public Species getSpecies()
+    {
+        return Species.PLANT;
+    }
 }
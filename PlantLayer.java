@@ -0,0 +1,196 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The plants of a field, held as one byte per cell under the animals in the
+ * field rather than as Plant objects.
+ *
+ * A cell holds NONE, or the age of its plant plus one. Plants are aged once a day
+ * by a bulk pass over the whole layer, eight cells at a time: each long read
+ * from the array has one added to every byte that holds a plant, and the bytes
+ * that have passed the maximum age cleared, using only whole-word arithmetic.
+ *
+ * As with Plant objects, a plant with no animal on top of it spreads into the
+ * adjacent cells holding an animal. Rather than each plant choosing cells, each
+ * such cell draws once from the plant stream of its animal, with a chance that
+ * grows with the number of plants around it, so the result does not depend on
+ * the order of the actors. Herbivores eat a plant by clearing its cell.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class PlantLayer
+{
+    // The value of a cell with no plant.
+    public static final byte NONE = 0;
+    // Reads and writes eight cells of the layer as one long.
+    private static final VarHandle WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    // A one in every byte of a long.
+    private static final long ONES = 0x0101010101010101L;
+    // The top bit of every byte of a long.
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    // The value of a cell whose plant has passed the maximum age.
+    private static final int EXPIRED = Plant.MAX_AGE + 2;
+    // The chance of a plant taking root in one adjacent cell each time it breeds,
+    // its average number of births spread over the cells around it.
+    private static final double ROOT_PROBABILITY = (Plant.MAX_LITTER_SIZE + 1) / 2.0 / Neighbourhood.DIRECTIONS;
+
+    // The depth and width of the field.
+    private final int depth, width;
+    // The age of the plant in each cell plus one, or NONE, indexed by cell.
+    // Padded with empty cells to a whole number of longs.
+    private final byte[] cells;
+
+    /**
+     * Create an empty layer for a field of the given dimensions.
+     *
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public PlantLayer(int depth, int width)
+    {
+        this.depth = depth;
+        this.width = width;
+        cells = new byte[(depth * width + Long.BYTES - 1) / Long.BYTES * Long.BYTES];
+    }
+
+    /**
+     * Remove every plant.
+     */
+    public void clear()
+    {
+        Arrays.fill(cells, NONE);
+    }
+
+    /**
+     * Put a plant of the given age in a cell, replacing any plant there.
+     *
+     * @param cell The cell.
+     * @param age The age of the plant, from 0 to Plant.MAX_AGE.
+     */
+    public void plant(int cell, int age)
+    {
+        cells[cell] = (byte) (age + 1);
+    }
+
+    /**
+     * @param cell A cell of the field.
+     * @return true if a plant grows in the cell.
+     */
+    public boolean hasPlant(int cell)
+    {
+        return cells[cell] != NONE;
+    }
+
+    /**
+     * @param cell A cell of the field holding a plant.
+     * @return The age of the plant.
+     */
+    public int getAge(int cell)
+    {
+        return cells[cell] - 1;
+    }
+
+    /**
+     * Remove the plant in a cell, as it has been eaten.
+     *
+     * @param cell A cell of the field holding a plant.
+     * @return The number of steps the plant gives the animal eating it.
+     */
+    public double eat(int cell)
+    {
+        double food = getAge(cell) * Plant.PLANT_FOOD_VALUE;
+        cells[cell] = NONE;
+        return food;
+    }
+
+    /**
+     * Age every plant by one, removing those that pass the maximum age.
+     *
+     * @return The number of plants that died of age.
+     */
+    public int age()
+    {
+        int before = 0;
+        int after = 0;
+        for(int i = 0; i < cells.length; i += Long.BYTES) {
+            long word = (long) WORDS.get(cells, i);
+            // The top bit of each byte is set where the byte is at least 1, as no byte reaches 0x80.
+            long planted = (word + ONES * 0x7f) & HIGH_BITS;
+            before += Long.bitCount(planted);
+            word += planted >>> 7;
+            // The top bit of each byte is set where the byte has reached EXPIRED.
+            long expired = (word + ONES * (0x80 - EXPIRED)) & HIGH_BITS;
+            word &= ~((expired >>> 7) * 0xff);
+            after += Long.bitCount((word + ONES * 0x7f) & HIGH_BITS);
+            WORDS.set(cells, i, word);
+        }
+        return before - after;
+    }
+
+    /**
+     * Let plants spread into the adjacent cells holding animals.
+     * Each cell holding an animal and no plant draws once from the plant stream
+     * of its animal, keyed by the seed, the step and the id of the animal, with
+     * the chance of any of the plants around it that have no animal on top taking root there.
+     *
+     * @param field The field holding the animals.
+     * @param actors The actors in the field.
+     * @param seed The seed of the run.
+     * @param step The current step of the run.
+     * @param breedingProbability The chance of a plant breeding this step.
+     * @return The number of new plants.
+     */
+    public int spread(Field field, List<Actor> actors, long seed, int step, double breedingProbability)
+    {
+        double perPlant = breedingProbability * ROOT_PROBABILITY;
+        Random rand = Randomizer.getRandom();
+        int born = 0;
+        for(Actor actor : actors) {
+            int cell = actor.getCell();
+            if(!actor.isAlive() || cell == Field.NO_CELL || cells[cell] != NONE
+            || field.getObjectAt(cell) != actor) {
+                continue;
+            }
+            int row = cell / width;
+            int col = cell - row * width;
+            int plants = 0;
+            for(int r = Math.max(row - 1, 0); r <= Math.min(row + 1, depth - 1); r++) {
+                for(int c = Math.max(col - 1, 0); c <= Math.min(col + 1, width - 1); c++) {
+                    int next = r * width + c;
+                    if(cells[next] != NONE && field.getObjectAt(next) == null) {
+                        plants++;
+                    }
+                }
+            }
+            if(plants == 0) {
+                continue;
+            }
+            Randomizer.beginStream(seed, step, Randomizer.PLANT_STREAM, actor.getId());
+            if(rand.nextDouble() < 1 - Math.pow(1 - perPlant, plants)) {
+                plant(cell, 0);
+                born++;
+            }
+        }
+        return born;
+    }
+
+    /**
+     * Count the plants in the layer, eight cells at a time.
+     *
+     * @return The number of plants.
+     */
+    public int count()
+    {
+        int plants = 0;
+        for(int i = 0; i < cells.length; i += Long.BYTES) {
+            long word = (long) WORDS.get(cells, i);
+            plants += Long.bitCount((word + ONES * 0x7f) & HIGH_BITS);
+        }
+        return plants;
+    }
+}
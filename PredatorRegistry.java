@@ -0,0 +1,105 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Records which species have been seen eating each species, for one simulation.
+ *
+ * For every prey species the registry keeps a bit set of species ids.
+ * Predators seen during a step are first added to a separate set of bits and only
+ * become known once publish is called at the end of the step, so what an animal
+ * knows does not depend on the order actors act in.
+ *
+ * Bits are only ever set, using atomic updates, so any number of threads can
+ * learn and read at the same time without locks.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class PredatorRegistry
+{
+    // For each prey species id, the bit set of the species ids known to eat it.
+    private final AtomicIntegerArray known;
+    // For each prey species id, the bit set of the species ids seen eating it this step.
+    private final AtomicIntegerArray seen;
+
+    /**
+     * Create an empty registry.
+     */
+    public PredatorRegistry()
+    {
+        known = new AtomicIntegerArray(Species.count());
+        seen = new AtomicIntegerArray(Species.count());
+    }
+
+    /**
+     * Record that a species was seen eating another this step.
+     *
+     * @param prey The species eaten.
+     * @param predator The species that ate it.
+     */
+    public void learn(Species prey, Species predator)
+    {
+        int bit = predator.bit();
+        // Skip the write when the bit is already set, which is the usual case.
+        if((seen.get(prey.getId()) & bit) == 0) {
+            seen.getAndAccumulate(prey.getId(), bit, (bits, add) -> bits | add);
+        }
+    }
+
+    /**
+     * Returns whether a species is known to eat another.
+     *
+     * @param prey The species that may be eaten.
+     * @param predator The species that may eat it.
+     * @return true if the predator has been seen eating the prey before this step.
+     */
+    public boolean isKnownPredator(Species prey, Species predator)
+    {
+        return (known.get(prey.getId()) & predator.bit()) != 0;
+    }
+
+    /**
+     * Make the predators seen this step known. Called once every actor has acted.
+     */
+    public void publish()
+    {
+        for(int id = 0; id < known.length(); id++) {
+            int bits = seen.getAndSet(id, 0);
+            if(bits != 0) {
+                known.getAndAccumulate(id, bits, (current, add) -> current | add);
+            }
+        }
+    }
+
+    /**
+     * Returns the species known to eat a species, for a checkpoint.
+     *
+     * @param prey The species eaten.
+     * @return The bit set of the species ids known to eat it.
+     */
+    public int getKnown(Species prey)
+    {
+        return known.get(prey.getId());
+    }
+
+    /**
+     * Sets the species known to eat a species, when restoring a checkpoint.
+     *
+     * @param prey The species eaten.
+     * @param predators The bit set of the species ids known to eat it.
+     */
+    public void setKnown(Species prey, int predators)
+    {
+        known.set(prey.getId(), predators);
+    }
+
+    /**
+     * Forget every predator, for a new simulation.
+     */
+    public void clear()
+    {
+        for(int id = 0; id < known.length(); id++) {
+            known.set(id, 0);
+            seen.set(id, 0);
+        }
+    }
+}
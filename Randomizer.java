@@ -1,10 +1,13 @@
 import java.util.Random;
 
 /**
- * Provide control over the randomization of the simulation. By using the shared, fixed-seed randomizer, 
- * repeated runs will perform exactly the same (which helps with testing). 
+ * Provide control over the randomization of the simulation. By using the shared, fixed-seed randomizer,
+ * repeated runs will perform exactly the same (which helps with testing).
  * Set 'useShared' to false to get different random behaviour every time.
- * 
+ *
+ * The shared randomizer is made of streams keyed by the seed, the step and the id
+ * of the actor acting, so runs repeat exactly even when actors act in parallel.
+ *
  * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
  * @version (28/02/2022)
  */
@@ -12,10 +15,22 @@ public class Randomizer
 {
     // The default seed for control of randomization.
     private static final int SEED = 1111;
+    // The id of the stream used to populate the field.
+    public static final long POPULATE_STREAM = -1;
+    // The id of the stream used to choose the weather.
+    public static final long WEATHER_STREAM = -2;
+    // The id of the stream used when committing the moves of a step.
+    public static final long COMMIT_STREAM = -3;
+    // The id of the streams each animal draws from when plants of a plant layer may take root under it.
+    public static final long PLANT_STREAM = -4;
+    // The id of the stream used to step the disease of a disease layer.
+    public static final long DISEASE_STREAM = -5;
     // A shared Random object, if required.
-    private static final Random rand = new Random(SEED);
+    private static final StreamRandom rand = new StreamRandom();
     // Determine whether a shared random generator is to be provided.
-    private static final boolean useShared = false;
+    private static boolean useShared = false;
+    // The seed of the shared random generator.
+    private static long seed = SEED;
 
     /**
      * Constructor for objects of class Randomizer
@@ -27,7 +42,7 @@ public class Randomizer
 
     /**
      * Provide a random generator.
-     * 
+     *
      * @return A random object.
      */
     public static Random getRandom()
@@ -40,6 +55,60 @@ public class Randomizer
         }
     }
 
+    /**
+     * Use the shared random generator with the given seed from now on.
+     * This must be called before any actor or field is created, as they
+     * keep hold of the generator they are given when first loaded.
+     *
+     * @param seed The seed for the shared random generator.
+     */
+    public static void setSeed(long seed)
+    {
+        Randomizer.seed = seed;
+        rand.setSeed(seed);
+        useShared = true;
+    }
+
+    /**
+     * @return The seed of the shared random generator.
+     */
+    public static long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Start drawing from a new stream of the shared random generator on the current thread.
+     * This has no effect if randomization is not through the shared generator.
+     *
+     * @param seed The seed of the run.
+     * @param step The current step of the run.
+     * @param id The id of the actor about to act, or one of the stream ids above.
+     */
+    public static void beginStream(long seed, long step, long id)
+    {
+        if(useShared) {
+            rand.beginStream(seed, step, id);
+        }
+    }
+
+    /**
+     * Start drawing from the stream an actor draws from for one of the stream ids above,
+     * which is apart from the stream it acts with.
+     * This has no effect if randomization is not through the shared generator.
+     *
+     * @param seed The seed of the run.
+     * @param step The current step of the run.
+     * @param stream One of the stream ids above.
+     * @param id The id of the actor drawing from the stream.
+     */
+    public static void beginStream(long seed, long step, long stream, long id)
+    {
+        if(useShared) {
+            rand.beginStream(seed, step, stream, id);
+        }
+    }
+
     /**
      * Reset the randomization.
      * This will have no effect if randomization is not through a shared Random generator.
@@ -47,6 +116,7 @@ public class Randomizer
     public static void reset()
     {
         if(useShared) {
+            seed = SEED;
             rand.setSeed(SEED);
         }
     }
@@ -0,0 +1,399 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads back a replay log written by ReplayRecorder, one step at a time.
+ *
+ * The log is a directory holding an index file and numbered segment files.
+ * The index starts with MAGIC, VERSION, the depth and width of the field and
+ * the keyframe interval, followed by the step, segment and offset of every
+ * keyframe. A segment is a list of frames, each of which is the step, the
+ * weather, the kind of frame and the length of its payload, then the payload.
+ *
+ * seek finds the last keyframe at or before a step in the index, opens its
+ * segment at the keyframe and reads forward to the step, so any step can be
+ * reached after reading at most one keyframe interval of frames.
+ *
+ * The state of a cell is EMPTY, or the species id of the actor shown
+ * plus one, with INFECTED added if it is infected.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class ReplayLog implements AutoCloseable
+{
+    // The first four bytes of every index file, "PPRL".
+    public static final int MAGIC = 0x5050524c;
+    // The version of the format written.
+    public static final short VERSION = 1;
+    // The state of a cell with no actor shown on it.
+    public static final byte EMPTY = 0;
+    // Added to the state of a cell whose actor is infected.
+    public static final byte INFECTED = (byte) 0x80;
+    // The name of the index file in the log directory.
+    static final String INDEX_FILE = "replay.idx";
+    // The names of the segment files in the log directory, as a glob.
+    static final String SEGMENT_GLOB = "segment-*.rpl";
+    // Marks a frame whose weather was not known.
+    static final int NO_WEATHER = -1;
+    // The kinds of frame: a whole field, or the cells changed since the step before.
+    static final int KEYFRAME = 1;
+    static final int DELTA = 0;
+    // The number of bytes before the payload of a frame.
+    static final int FRAME_HEADER_BYTES = Integer.BYTES + 1 + 1 + Integer.BYTES;
+    // The number of bytes each keyframe takes up in the index.
+    private static final int INDEX_ENTRY_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    // The directory holding the log.
+    private final Path directory;
+    // The depth and width of the field.
+    private final int depth, width;
+    // The number of steps between two keyframes.
+    private final int keyframeInterval;
+    // The step, segment and offset of each keyframe, in order.
+    private final int[] keyframeSteps;
+    private final int[] keyframeSegments;
+    private final long[] keyframeOffsets;
+    // The state of each cell at the current step, indexed by cell.
+    private final byte[] cells;
+
+    // The segment being read, or null before the first seek.
+    private DataInputStream segment;
+    // The number of the segment being read.
+    private int segmentNumber;
+    // The current step, or -1 before the first seek.
+    private int step;
+    // The weather of the current step, or null if it was not known.
+    private Weather weather;
+
+    /**
+     * Open the replay log in a directory.
+     *
+     * @param directory The directory holding the log.
+     * @throws IOException If the index cannot be read or is not a replay log index.
+     */
+    public ReplayLog(Path directory) throws IOException
+    {
+        this.directory = directory;
+        try (DataInputStream index = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(directory.resolve(INDEX_FILE))))) {
+            if(index.readInt() != MAGIC) {
+                throw new IOException(directory + " does not hold a replay log");
+            }
+            short version = index.readShort();
+            if(version != VERSION) {
+                throw new IOException(directory + " holds a version " + version + " replay log, only version " + VERSION + " can be read");
+            }
+            depth = index.readInt();
+            width = index.readInt();
+            keyframeInterval = index.readInt();
+
+            long entries = (Files.size(directory.resolve(INDEX_FILE)) - 2 * Integer.BYTES - Short.BYTES
+                - 2 * Integer.BYTES) / INDEX_ENTRY_BYTES;
+            keyframeSteps = new int[(int) entries];
+            keyframeSegments = new int[(int) entries];
+            keyframeOffsets = new long[(int) entries];
+            for(int i = 0; i < entries; i++) {
+                keyframeSteps[i] = index.readInt();
+                keyframeSegments[i] = index.readInt();
+                keyframeOffsets[i] = index.readLong();
+            }
+        }
+        cells = new byte[depth * width];
+        step = -1;
+    }
+
+    /**
+     * Move to a step, reading forward from the last keyframe at or before it.
+     * If the log ends before the step, the log is left at its last step.
+     *
+     * @param target The step to move to.
+     * @return true if the log is now at the step.
+     * @throws IOException If the log cannot be read.
+     */
+    public boolean seek(int target) throws IOException
+    {
+        int keyframe = Arrays.binarySearch(keyframeSteps, target);
+        if(keyframe < 0) {
+            keyframe = -keyframe - 2;
+        }
+        if(keyframe < 0) {
+            return false;
+        }
+        // Reads on from the current step rather than the keyframe when that is closer.
+        if(step < keyframeSteps[keyframe] || step > target) {
+            openSegment(keyframeSegments[keyframe], keyframeOffsets[keyframe]);
+            if(!next()) {
+                return false;
+            }
+        }
+        while(step < target) {
+            if(!next()) {
+                return false;
+            }
+        }
+        return step == target;
+    }
+
+    /**
+     * Move on to the next step recorded.
+     *
+     * @return true if there was a next step, false at the end of the log.
+     * @throws IOException If the log cannot be read.
+     */
+    public boolean next() throws IOException
+    {
+        if(segment == null) {
+            return firstStep() >= 0 && seek(firstStep());
+        }
+        while(true) {
+            try {
+                int frameStep = segment.readInt();
+                int frameWeather = segment.readByte();
+                int kind = segment.readByte();
+                // The length of the payload lets other readers skip frames, but every frame is read here.
+                segment.readInt();
+                if(kind == KEYFRAME) {
+                    readKeyframe();
+                }
+                else {
+                    readDelta();
+                }
+                step = frameStep;
+                weather = frameWeather == NO_WEATHER ? null : Weather.values()[frameWeather];
+                return true;
+            }
+            catch(EOFException e) {
+                // The segment is over, so the log carries on in the next one, if any.
+                if(!Files.exists(directory.resolve(segmentFile(segmentNumber + 1)))) {
+                    return false;
+                }
+                openSegment(segmentNumber + 1, 0);
+            }
+        }
+    }
+
+    /**
+     * Close the segment being read.
+     *
+     * @throws IOException If the segment cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if(segment != null) {
+            segment.close();
+            segment = null;
+        }
+    }
+
+    /**
+     * Open a segment file at an offset, closing the one being read.
+     *
+     * @param number The number of the segment.
+     * @param offset The offset to start reading from.
+     * @throws IOException If the segment cannot be opened.
+     */
+    private void openSegment(int number, long offset) throws IOException
+    {
+        close();
+        FileChannel channel = FileChannel.open(directory.resolve(segmentFile(number)), StandardOpenOption.READ);
+        channel.position(offset);
+        InputStream in = Channels.newInputStream(channel);
+        segment = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        segmentNumber = number;
+    }
+
+    /**
+     * Read the runs of a keyframe into the cells.
+     *
+     * @throws IOException If the segment cannot be read.
+     */
+    private void readKeyframe() throws IOException
+    {
+        int cell = 0;
+        while(cell < cells.length) {
+            int length = readVarint(segment);
+            byte state = segment.readByte();
+            Arrays.fill(cells, cell, cell + length, state);
+            cell += length;
+        }
+    }
+
+    /**
+     * Read the runs of changed cells of a delta into the cells.
+     *
+     * @throws IOException If the segment cannot be read.
+     */
+    private void readDelta() throws IOException
+    {
+        int runs = readVarint(segment);
+        int cell = 0;
+        for(int run = 0; run < runs; run++) {
+            cell += readVarint(segment);
+            int length = readVarint(segment);
+            byte state = segment.readByte();
+            Arrays.fill(cells, cell, cell + length, state);
+            cell += length;
+        }
+    }
+
+    /**
+     * @return The first step recorded, or -1 if no step was recorded.
+     */
+    public int firstStep()
+    {
+        return keyframeSteps.length == 0 ? -1 : keyframeSteps[0];
+    }
+
+    /**
+     * @return The current step, or -1 before the first step is read.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @return The weather of the current step, or null if it was not known.
+     */
+    public Weather getWeather()
+    {
+        return weather;
+    }
+
+    /**
+     * @param cell A cell of the field.
+     * @return The state of the cell at the current step.
+     */
+    public byte getState(int cell)
+    {
+        return cells[cell];
+    }
+
+    /**
+     * @return The depth of the field.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return The width of the field.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * @return The number of steps between two keyframes.
+     */
+    public int getKeyframeInterval()
+    {
+        return keyframeInterval;
+    }
+
+    /**
+     * Returns the state a cell is recorded with.
+     *
+     * @param actor The actor shown in the cell, or null if it is empty.
+     * @return The state of the cell.
+     */
+    public static byte state(Actor actor)
+    {
+        if(actor == null) {
+            return EMPTY;
+        }
+        return state(actor.getSpecies(), actor.getInfected());
+    }
+
+    /**
+     * Returns the state a cell is recorded with.
+     *
+     * @param species The species of the actor shown in the cell.
+     * @param infected Whether the actor is infected.
+     * @return The state of the cell.
+     */
+    public static byte state(Species species, boolean infected)
+    {
+        return (byte) ((species.getId() + 1) | (infected ? INFECTED : 0));
+    }
+
+    /**
+     * Returns the species id of the actor in a cell of the given state.
+     *
+     * @param state The state of a cell.
+     * @return The species id, or FieldSnapshot.EMPTY if the cell is empty.
+     */
+    public static byte speciesId(byte state)
+    {
+        return state == EMPTY ? FieldSnapshot.EMPTY : (byte) ((state & ~INFECTED) - 1);
+    }
+
+    /**
+     * Returns whether the actor in a cell of the given state is infected.
+     *
+     * @param state The state of a cell.
+     * @return true if the actor is infected.
+     */
+    public static boolean isInfected(byte state)
+    {
+        return (state & INFECTED) != 0;
+    }
+
+    /**
+     * @param number The number of a segment.
+     * @return The name of the segment file.
+     */
+    static String segmentFile(int number)
+    {
+        return String.format("segment-%05d.rpl", number);
+    }
+
+    /**
+     * Write a number that is not negative in as few bytes as it needs, seven bits at a time.
+     *
+     * @param out Where to write the number.
+     * @param value The number.
+     */
+    static void writeVarint(ByteArrayOutputStream out, int value)
+    {
+        while((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Read a number written by writeVarint.
+     *
+     * @param in Where to read the number from.
+     * @return The number.
+     * @throws IOException If the number cannot be read.
+     */
+    static int readVarint(DataInputStream in) throws IOException
+    {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,277 @@
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import javax.swing.*;
+
+/**
+ * Plays back a replay log recorded from a simulation, without running the model.
+ *
+ * The log is read a step at a time, each step is turned into a snapshot and
+ * drawn the same way the simulator view draws the field. Going to a step reads
+ * forward from the keyframe before it, so any step of a long run is reached quickly.
+ *
+ * Usage: java ReplayPlayer replayDir [step] [stepsPerSecond]
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class ReplayPlayer extends JFrame
+{
+    // Swing components are serializable, but the player is never written out.
+    private static final long serialVersionUID = 1L;
+    // The number of steps played each second by default.
+    private static final int DEFAULT_STEPS_PER_SECOND = 60;
+    // Color used for empty locations.
+    private static final Color EMPTY_COLOR = Color.white;
+    // The number of pixels each cell is drawn with, before the window is resized.
+    private static final int CELL_SCALE = 6;
+
+    // The log being played.
+    private final ReplayLog log;
+    // The image of the field, one pixel per cell.
+    private final FieldRaster raster;
+    // The colour of each species as an RGB value, indexed by species id.
+    private final int[] palette;
+    // The species id shown in each cell of the current step, or FieldSnapshot.EMPTY.
+    private final byte[] speciesIds;
+    // The snapshot currently on screen, or null before the first step is shown.
+    private FieldSnapshot shown;
+    // Reads the next step of the log at the speed of playback.
+    private final Timer playTimer;
+
+    private JLabel stepLabel, infoLabel, population;
+    private JButton playButton;
+    private JTextField stepField;
+
+    /**
+     * Opens a replay log and plays it from the given step.
+     *
+     * @param args The replay directory, the step to start from and the number of steps played each second.
+     */
+    public static void main(String[] args)
+    {
+        int start, stepsPerSecond;
+        try {
+            if(args.length < 1) {
+                throw new IllegalArgumentException();
+            }
+            start = args.length > 1 ? Integer.parseInt(args[1]) : -1;
+            stepsPerSecond = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_STEPS_PER_SECOND;
+            if(stepsPerSecond <= 0) {
+                throw new IllegalArgumentException();
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Usage: java ReplayPlayer replayDir [step] [stepsPerSecond]");
+            return;
+        }
+
+        ReplayLog log;
+        try {
+            log = new ReplayLog(Paths.get(args[0]));
+        } catch (IOException e) {
+            System.out.println("Could not open the replay log in " + args[0] + ": " + e.getMessage());
+            return;
+        }
+        SwingUtilities.invokeLater(() -> new ReplayPlayer(log, start < 0 ? log.firstStep() : start, stepsPerSecond));
+    }
+
+    /**
+     * Create a player window for a replay log.
+     *
+     * @param log The log to play.
+     * @param start The step to show first.
+     * @param stepsPerSecond The number of steps played each second.
+     */
+    public ReplayPlayer(ReplayLog log, int start, int stepsPerSecond)
+    {
+        this.log = log;
+        raster = new FieldRaster(log.getDepth(), log.getWidth());
+        speciesIds = new byte[log.getDepth() * log.getWidth()];
+        palette = new int[Species.count()];
+        for(int id = 0; id < palette.length; id++) {
+            palette[id] = Simulator.getDefaultColor(Species.fromId(id)).getRGB();
+        }
+
+        setTitle("Predator and Prey Replay");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        stepLabel = new JLabel("Step: ", JLabel.CENTER);
+        infoLabel = new JLabel("  ", JLabel.CENTER);
+        population = new JLabel("Population: ", JLabel.CENTER);
+
+        playButton = new JButton("Pause");
+        playButton.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    setPlaying(!playTimer.isRunning());
+                }
+            });
+
+        stepField = new JTextField(8);
+        JButton goButton = new JButton("Go to Step");
+        ActionListener goToStep = new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    try {
+                        goTo(Integer.parseInt(stepField.getText().trim()));
+                    } catch (NumberFormatException ex) {
+                        stepField.setText("");
+                    }
+                }
+            };
+        goButton.addActionListener(goToStep);
+        stepField.addActionListener(goToStep);
+
+        JPanel infoPane = new JPanel(new BorderLayout());
+        infoPane.add(stepLabel, BorderLayout.WEST);
+        infoPane.add(infoLabel, BorderLayout.CENTER);
+
+        JPanel controlPane = new JPanel();
+        controlPane.add(playButton);
+        controlPane.add(stepField);
+        controlPane.add(goButton);
+
+        JPanel southPane = new JPanel(new BorderLayout());
+        southPane.add(population, BorderLayout.NORTH);
+        southPane.add(controlPane, BorderLayout.SOUTH);
+
+        Container contents = getContentPane();
+        contents.add(infoPane, BorderLayout.NORTH);
+        contents.add(new FieldView(), BorderLayout.CENTER);
+        contents.add(southPane, BorderLayout.SOUTH);
+        setLocation(100, 50);
+        pack();
+        setVisible(true);
+
+        playTimer = new Timer(Math.max(1, 1000 / stepsPerSecond), new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    playNext();
+                }
+            });
+        goTo(start);
+        setPlaying(true);
+    }
+
+    /**
+     * Start or stop playing the log.
+     *
+     * @param playing Whether the log should play.
+     */
+    private void setPlaying(boolean playing)
+    {
+        if(playing) {
+            playTimer.start();
+            playButton.setText("Pause");
+        }
+        else {
+            playTimer.stop();
+            playButton.setText("Play");
+        }
+    }
+
+    /**
+     * Show the next step of the log, stopping at the end of the log.
+     */
+    private void playNext()
+    {
+        try {
+            if(log.next()) {
+                showStep();
+            }
+            else {
+                setPlaying(false);
+            }
+        } catch (IOException e) {
+            System.out.println("The replay log could not be read: " + e.getMessage());
+            setPlaying(false);
+        }
+    }
+
+    /**
+     * Show a step of the log, or the last step if the log ends before it.
+     *
+     * @param step The step to show.
+     */
+    private void goTo(int step)
+    {
+        try {
+            if(!log.seek(step)) {
+                System.out.println("The replay log does not reach step " + step);
+            }
+            if(log.getStep() >= 0) {
+                showStep();
+            }
+        } catch (IOException e) {
+            System.out.println("The replay log could not be read: " + e.getMessage());
+            setPlaying(false);
+        }
+    }
+
+    /**
+     * Draw the current step of the log, counting the population shown as it goes.
+     */
+    private void showStep()
+    {
+        int[] counts = new int[Species.count()];
+        int infected = 0;
+        for(int cell = 0; cell < speciesIds.length; cell++) {
+            byte state = log.getState(cell);
+            speciesIds[cell] = ReplayLog.speciesId(state);
+            if(state != ReplayLog.EMPTY) {
+                counts[speciesIds[cell]]++;
+                if(ReplayLog.isInfected(state)) {
+                    infected++;
+                }
+            }
+        }
+        StringBuilder details = new StringBuilder();
+        for(int id = 0; id < counts.length; id++) {
+            details.append(Species.fromId(id).getActorClass().getName()).append(": ").append(counts[id]).append(' ');
+        }
+
+        FieldSnapshot frame = FieldSnapshot.of(speciesIds, log.getStep(), log.getStep(), log.getWeather(),
+            infected, details.toString());
+        raster.draw(frame, shown, palette, EMPTY_COLOR.getRGB());
+        shown = frame;
+
+        stepLabel.setText("Step: " + frame.getStep());
+        infoLabel.setText("Weather:" + frame.getWeather() + "   Infected :" + frame.getInfected());
+        population.setText("Population: " + frame.getPopulation());
+        repaint();
+    }
+
+    /**
+     * Shows the raster of the field, scaled to the size of the component.
+     */
+    private class FieldView extends JPanel
+    {
+        // The version of the serialized form inherited from JPanel.
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Tell the GUI manager how big we would like to be.
+         *
+         * @return The field size.
+         */
+        @Override
+        public Dimension getPreferredSize()
+        {
+            return new Dimension(log.getWidth() * CELL_SCALE, log.getDepth() * CELL_SCALE);
+        }
+
+        /**
+         * Scale the field image to the size of the component.
+         *
+         * @param g An object of the Graphics class.
+         */
+        @Override
+        public void paintComponent(Graphics g)
+        {
+            Dimension size = getSize();
+            ((Graphics2D) g).setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.drawImage(raster.getImage(), 0, 0, size.width, size.height, null);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Records the state of every cell after each step into a replay log,
+ * which ReplayLog reads back and ReplayPlayer shows without running the model.
+ *
+ * Only the cells that changed are written for a step, sorted by cell and
+ * grouped into runs of neighbouring cells given the same state; each run is the
+ * gap from the end of the run before, its length and the state, with the numbers
+ * written as variable length integers. Every keyframe interval the whole field is
+ * written instead, run length encoded, and its position is added to the index,
+ * so a reader can start from any keyframe. A new segment file is started at the
+ * first keyframe after the current one grows past SEGMENT_BYTES.
+ *
+ * The cells to check are passed to update between beginStep and endStep.
+ * Cells that are not passed are taken to be unchanged.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class ReplayRecorder
+{
+    // The default number of steps between two keyframes.
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+    // The size a segment file grows to before a new one is started.
+    private static final long SEGMENT_BYTES = 64L << 20;
+
+    // The directory the log is written to.
+    private final Path directory;
+    // The number of steps between two keyframes.
+    private final int keyframeInterval;
+    // The index of the keyframes.
+    private final DataOutputStream index;
+    // The state of each cell as last recorded, indexed by cell.
+    private final byte[] cells;
+    // The cells changed during the current step, in the order they were found.
+    private int[] changed;
+    // The number of cells changed during the current step.
+    private int changedCount;
+    // Whether each cell is already in the list of changed cells.
+    private final boolean[] listed;
+    // The payload of the frame being written.
+    private final ByteArrayOutputStream payload;
+    // The runs of the delta being written, which follow their number in the payload.
+    private final ByteArrayOutputStream runs;
+
+    // The segment file being written.
+    private DataOutputStream segment;
+    // The number of the segment file being written.
+    private int segmentNumber;
+    // The number of bytes written to the current segment file.
+    private long segmentSize;
+    // The step being recorded.
+    private int step;
+    // The weather of the step being recorded.
+    private Weather weather;
+    // Whether the next frame must be a keyframe.
+    private boolean keyframeDue;
+
+    /**
+     * Start a replay log of a field in the given directory, replacing any log already there.
+     * The first step recorded is written as a keyframe.
+     *
+     * @param directory The directory to write the log to, created if it does not exist.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param keyframeInterval The number of steps between two keyframes.
+     * @throws IOException If the log cannot be created.
+     */
+    public ReplayRecorder(Path directory, int depth, int width, int keyframeInterval) throws IOException
+    {
+        if(keyframeInterval <= 0) {
+            throw new IllegalArgumentException("The keyframe interval must be greater than zero");
+        }
+        this.directory = directory;
+        this.keyframeInterval = keyframeInterval;
+        cells = new byte[depth * width];
+        changed = new int[1024];
+        listed = new boolean[depth * width];
+        payload = new ByteArrayOutputStream();
+        runs = new ByteArrayOutputStream();
+        keyframeDue = true;
+
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(directory, ReplayLog.SEGMENT_GLOB)) {
+            for(Path file : old) {
+                Files.delete(file);
+            }
+        }
+        index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(directory.resolve(ReplayLog.INDEX_FILE))));
+        index.writeInt(ReplayLog.MAGIC);
+        index.writeShort(ReplayLog.VERSION);
+        index.writeInt(depth);
+        index.writeInt(width);
+        index.writeInt(keyframeInterval);
+        index.flush();
+        segmentNumber = -1;
+    }
+
+    /**
+     * Start recording a step.
+     *
+     * @param step The step being recorded.
+     * @param weather The weather of the step.
+     */
+    public void beginStep(int step, Weather weather)
+    {
+        this.step = step;
+        this.weather = weather;
+        changedCount = 0;
+    }
+
+    /**
+     * Record the state of a cell after the step, if it has changed.
+     *
+     * @param cell The cell.
+     * @param state The state of the cell, as given by ReplayLog.state.
+     */
+    public void update(int cell, byte state)
+    {
+        if(cells[cell] != state) {
+            cells[cell] = state;
+            if(!listed[cell]) {
+                listed[cell] = true;
+                if(changedCount == changed.length) {
+                    changed = Arrays.copyOf(changed, changedCount * 2);
+                }
+                changed[changedCount++] = cell;
+            }
+        }
+    }
+
+    /**
+     * Write the frame of the step, a keyframe if one is due.
+     *
+     * @throws IOException If the frame cannot be written.
+     */
+    public void endStep() throws IOException
+    {
+        for(int i = 0; i < changedCount; i++) {
+            listed[changed[i]] = false;
+        }
+        payload.reset();
+        boolean keyframe = keyframeDue || step % keyframeInterval == 0;
+        if(keyframe) {
+            if(segment == null || segmentSize >= SEGMENT_BYTES) {
+                startSegment();
+            }
+            writeKeyframe();
+            index.writeInt(step);
+            index.writeInt(segmentNumber);
+            index.writeLong(segmentSize);
+            index.flush();
+            keyframeDue = false;
+        }
+        else {
+            writeDelta();
+        }
+
+        segment.writeInt(step);
+        segment.writeByte(weather == null ? ReplayLog.NO_WEATHER : weather.ordinal());
+        segment.writeByte(keyframe ? ReplayLog.KEYFRAME : ReplayLog.DELTA);
+        segment.writeInt(payload.size());
+        payload.writeTo(segment);
+        segmentSize += ReplayLog.FRAME_HEADER_BYTES + payload.size();
+    }
+
+    /**
+     * Finish the log, writing out anything still buffered.
+     *
+     * @throws IOException If the log cannot be written.
+     */
+    public void close() throws IOException
+    {
+        if(segment != null) {
+            segment.close();
+        }
+        index.close();
+    }
+
+    /**
+     * Close the current segment file, if any, and start the next one.
+     *
+     * @throws IOException If the segment cannot be created.
+     */
+    private void startSegment() throws IOException
+    {
+        if(segment != null) {
+            segment.close();
+        }
+        segmentNumber++;
+        segment = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(directory.resolve(ReplayLog.segmentFile(segmentNumber)))));
+        segmentSize = 0;
+    }
+
+    /**
+     * Write every cell into the payload as runs of equal states.
+     */
+    private void writeKeyframe()
+    {
+        int cell = 0;
+        while(cell < cells.length) {
+            int end = cell + 1;
+            while(end < cells.length && cells[end] == cells[cell]) {
+                end++;
+            }
+            ReplayLog.writeVarint(payload, end - cell);
+            payload.write(cells[cell]);
+            cell = end;
+        }
+    }
+
+    /**
+     * Write the changed cells into the payload as runs of neighbouring cells of equal states.
+     */
+    private void writeDelta()
+    {
+        Arrays.sort(changed, 0, changedCount);
+        runs.reset();
+        int runCount = 0;
+        int last = 0;
+        int i = 0;
+        while(i < changedCount) {
+            int start = changed[i];
+            byte state = cells[start];
+            int end = start + 1;
+            i++;
+            while(i < changedCount && changed[i] == end && cells[end] == state) {
+                end++;
+                i++;
+            }
+            ReplayLog.writeVarint(runs, start - last);
+            ReplayLog.writeVarint(runs, end - start);
+            runs.write(state);
+            runCount++;
+            last = end;
+        }
+        ReplayLog.writeVarint(payload, runCount);
+        payload.write(runs.toByteArray(), 0, runs.size());
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.Arrays;
+
+/**
+ * The outcome of one run of an ensemble: how long it ran for, and the peak
+ * population and extinction step of each species.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class RunSummary
+{
+    // Marks a species that did not die out during the run.
+    public static final int NOT_EXTINCT = -1;
+
+    // The index of the run within the ensemble.
+    private final int run;
+    // The seed the run was keyed by.
+    private final long seed;
+    // The parameters the run was populated with.
+    private final SimulationConfig config;
+    // The number of steps made.
+    private int steps;
+    // Whether the run was still viable when it ended.
+    private boolean viable;
+    // The largest population of each species, indexed by species id.
+    private final int[] peak;
+    // The first step at which each species had no members, indexed by species id.
+    private final int[] extinction;
+
+    /**
+     * Start the summary of a run.
+     *
+     * @param run The index of the run within the ensemble.
+     * @param seed The seed the run is keyed by.
+     * @param config The parameters the run is populated with.
+     */
+    public RunSummary(int run, long seed, SimulationConfig config)
+    {
+        this.run = run;
+        this.seed = seed;
+        this.config = config;
+        peak = new int[Species.count()];
+        extinction = new int[Species.count()];
+        Arrays.fill(extinction, NOT_EXTINCT);
+        viable = true;
+    }
+
+    /**
+     * Record the populations of a simulation after a step.
+     *
+     * @param simulator The simulation of the run.
+     */
+    public void record(Simulator simulator)
+    {
+        steps = simulator.getStep();
+        for(Species species : Species.values()) {
+            int population = simulator.getPopulation(species);
+            int id = species.getId();
+            peak[id] = Math.max(peak[id], population);
+            if(population == 0 && extinction[id] == NOT_EXTINCT) {
+                extinction[id] = steps;
+            }
+        }
+    }
+
+    /**
+     * Record that the run ended because it was no longer viable.
+     */
+    public void setNotViable()
+    {
+        viable = false;
+    }
+
+    /**
+     * Returns the header line of a results file holding summaries.
+     *
+     * @param parameters The names of the parameters swept over.
+     * @return The comma separated names of the columns.
+     */
+    public static String header(Iterable<String> parameters)
+    {
+        StringBuilder line = new StringBuilder("run,seed");
+        for(String parameter : parameters) {
+            line.append(',').append(parameter);
+        }
+        line.append(",steps,viable");
+        for(Species species : Species.values()) {
+            line.append(",peak_").append(species.getActorClass().getName());
+        }
+        for(Species species : Species.values()) {
+            line.append(",extinct_").append(species.getActorClass().getName());
+        }
+        return line.toString();
+    }
+
+    /**
+     * Returns the summary as a line of a results file.
+     *
+     * @param parameters The names of the parameters swept over, in the order of the header.
+     * @return The comma separated values of the summary.
+     */
+    public String toCsv(Iterable<String> parameters)
+    {
+        StringBuilder line = new StringBuilder();
+        line.append(run).append(',').append(seed);
+        for(String parameter : parameters) {
+            line.append(',').append(config.get(parameter));
+        }
+        line.append(',').append(steps).append(',').append(viable);
+        for(int count : peak) {
+            line.append(',').append(count);
+        }
+        for(int step : extinction) {
+            line.append(',').append(step);
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * The parameters a simulation is populated with.
+ * A new configuration holds the default values, which can then be changed
+ * one at a time by name, so that a set of runs can sweep over them.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class SimulationConfig
+{
+    // The names of the parameters, as used by set and get.
+    public static final String[] PARAMETERS = {"DODO_CREATION_PROBABILITY", "HUMAN_CREATION_PROBABILITY",
+        "PIG_CREATION_PROBABILITY", "MONKEY_CREATION_PROBABILITY", "TORTOISE_CREATION_PROBABILITY",
+        "PLANT_CREATION_PROBABILITY", "DISEASE_CREATION_PROBABILITY"};
+
+    // The probability that a dodo will be created in any given grid position.
+    private double dodoCreationProbability = 0.5;
+    // The probability that a human will be created in any given grid position.
+    private double humanCreationProbability = 0.001;
+    // The probability that a pig will be created in any given grid position.
+    private double pigCreationProbability = 0.06;
+    // The probability that a monkey will be created in any given grid position.
+    private double monkeyCreationProbability = 0.04;
+    // The probability that a tortoise will be created in any given grid position.
+    private double tortoiseCreationProbability = 0.008;
+    // The probability that a plant will be created in any given grid position.
+    private double plantCreationProbability = 0.9;
+    // The probability that a disease particle will be created in any given grid position.
+    private double diseaseCreationProbability = 0.05;
+
+    /**
+     * Create a configuration holding the default values.
+     */
+    public SimulationConfig()
+    {
+    }
+
+    /**
+     * Create a copy of another configuration.
+     *
+     * @param other The configuration to copy.
+     */
+    public SimulationConfig(SimulationConfig other)
+    {
+        for(String name : PARAMETERS) {
+            set(name, other.get(name));
+        }
+    }
+
+    /**
+     * Sets a parameter by name.
+     *
+     * @param name The name of the parameter, one of PARAMETERS.
+     * @param value The new value of the parameter.
+     * @throws IllegalArgumentException If there is no parameter with the given name.
+     */
+    public void set(String name, double value)
+    {
+        switch(name) {
+            case "DODO_CREATION_PROBABILITY":
+                dodoCreationProbability = value;
+                break;
+            case "HUMAN_CREATION_PROBABILITY":
+                humanCreationProbability = value;
+                break;
+            case "PIG_CREATION_PROBABILITY":
+                pigCreationProbability = value;
+                break;
+            case "MONKEY_CREATION_PROBABILITY":
+                monkeyCreationProbability = value;
+                break;
+            case "TORTOISE_CREATION_PROBABILITY":
+                tortoiseCreationProbability = value;
+                break;
+            case "PLANT_CREATION_PROBABILITY":
+                plantCreationProbability = value;
+                break;
+            case "DISEASE_CREATION_PROBABILITY":
+                diseaseCreationProbability = value;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown parameter " + name);
+        }
+    }
+
+    /**
+     * Returns a parameter by name.
+     *
+     * @param name The name of the parameter, one of PARAMETERS.
+     * @return The value of the parameter.
+     * @throws IllegalArgumentException If there is no parameter with the given name.
+     */
+    public double get(String name)
+    {
+        switch(name) {
+            case "DODO_CREATION_PROBABILITY":
+                return dodoCreationProbability;
+            case "HUMAN_CREATION_PROBABILITY":
+                return humanCreationProbability;
+            case "PIG_CREATION_PROBABILITY":
+                return pigCreationProbability;
+            case "MONKEY_CREATION_PROBABILITY":
+                return monkeyCreationProbability;
+            case "TORTOISE_CREATION_PROBABILITY":
+                return tortoiseCreationProbability;
+            case "PLANT_CREATION_PROBABILITY":
+                return plantCreationProbability;
+            case "DISEASE_CREATION_PROBABILITY":
+                return diseaseCreationProbability;
+            default:
+                throw new IllegalArgumentException("Unknown parameter " + name);
+        }
+    }
+
+    /**
+     * Returns whether there is a parameter with the given name.
+     *
+     * @param name The name to check.
+     * @return true if the name is one of PARAMETERS.
+     */
+    public static boolean isParameter(String name)
+    {
+        for(String parameter : PARAMETERS) {
+            if(parameter.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The probability that a dodo will be created in any given grid position.
+     */
+    public double getDodoCreationProbability()
+    {
+        return dodoCreationProbability;
+    }
+
+    /**
+     * @return The probability that a human will be created in any given grid position.
+     */
+    public double getHumanCreationProbability()
+    {
+        return humanCreationProbability;
+    }
+
+    /**
+     * @return The probability that a pig will be created in any given grid position.
+     */
+    public double getPigCreationProbability()
+    {
+        return pigCreationProbability;
+    }
+
+    /**
+     * @return The probability that a monkey will be created in any given grid position.
+     */
+    public double getMonkeyCreationProbability()
+    {
+        return monkeyCreationProbability;
+    }
+
+    /**
+     * @return The probability that a tortoise will be created in any given grid position.
+     */
+    public double getTortoiseCreationProbability()
+    {
+        return tortoiseCreationProbability;
+    }
+
+    /**
+     * @return The probability that a plant will be created in any given grid position.
+     */
+    public double getPlantCreationProbability()
+    {
+        return plantCreationProbability;
+    }
+
+    /**
+     * @return The probability that a disease particle will be created in any given grid position.
+     */
+    public double getDiseaseCreationProbability()
+    {
+        return diseaseCreationProbability;
+    }
+}
@@ -1,9 +1,11 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.TimeUnit;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.awt.Color;
 
 /**
@@ -13,25 +15,13 @@ import java.awt.Color;
  * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
  * @version (28/02/2022)
  */
-public class Simulator
+public class Simulator implements AutoCloseable
 {
     // Constants representing configuration information for the simulation.
     // The default width for the grid.
     private static final int DEFAULT_WIDTH = 150;
     // The default depth of the grid.
     private static final int DEFAULT_DEPTH = 100;
-    // The probability that a human will be created in any given grid position.
-    private static final double HUMAN_CREATION_PROBABILITY = 0.001;
-    // The probability that a monkey will be created in any given grid position.
-    private static final double MONKEY_CREATION_PROBABILITY = 0.04;
-    // The probability that a pig will be created in any given grid position.
-    private static final double PIG_CREATION_PROBABILITY = 0.06;
-    // The probability that a tortoise will be created in any given grid position.
-    private static final double TORTOISE_CREATION_PROBABILITY = 0.008;
-    // The probability that a dodo will be created in any given grid position.
-    private static final double DODO_CREATION_PROBABILITY = 0.5;    
-    // The probability that a plant will be created in any given grid position.
-    private static final double PLANT_CREATION_PROBABILITY = 0.9;
     // The probability that it is sunny.
     private static final double SUNNY_PROBABILITY = 0.55;
     // The probability that it is raining.
@@ -40,11 +30,12 @@ public class Simulator
     private static final double FOGGY_PROBABILITY = 0.1;
     // The probability that it is snowing.
     private static final double SNOWY_PROBABILITY = 0.05;
-    // The probability that a disease particle will be created in any given grid position.
-    private static final double DISEASE_CREATION_PROBABILITY = 0.05;
-    // A list of time delays in to go through in milliseconds
+    // The default width and depth of a tile when stepping tiles in parallel.
+    private static final int DEFAULT_TILE_SIZE = 16;
+    // A list of time delays in to go through in milliseconds, 0 for no delay at all
     private static final ArrayList<Integer> timeDelayList = new ArrayList<>() {
             {
+                add(0);
                 add(50);
                 add(500);
                 add(1000);
@@ -55,6 +46,30 @@ public class Simulator
 
     // List of actors in the field.
     private List<Actor> actors;
+    // How actors are stored and stepped.
+    private StepMode stepMode;
+    // Array storage for the actors when they are not objects.
+    private ActorStore store;
+    // The actions of the actors held in the store.
+    private StoreActions storeActions;
+    // Steps the actor objects tile by tile in parallel.
+    private TiledStep tiledStep;
+    // Steps the actors held in the store with propose and commit phases.
+    private BufferedStep bufferedStep;
+    // The width and depth of a tile when stepping tiles in parallel.
+    private int tileSize;
+    // Whether plants are kept in a PlantLayer of the field rather than as actors.
+    private boolean plantLayer;
+    // Whether the disease is stepped in a DiseaseLayer of the field rather than by each animal.
+    private boolean diseaseLayer;
+    // The number of threads the simulator can use.
+    private int threads;
+    // The seed used to key the random streams of the simulation.
+    private long seed;
+    // The parameters the field is populated with.
+    private SimulationConfig config;
+    // Times the phases of each step, when enabled.
+    private StepTimer timer;
     // The current state of the field.
     private Field field;
     // The current step of the simulation.
@@ -67,8 +82,18 @@ public class Simulator
     private int timeDelayIndex;
     // A graphical view of the simulation.
     private SimulatorView view;
-    // Thread scheduler to control the number of threads the simulator can use
-    private Executor executorService;
+    // Makes the steps of a running simulation on a thread of its own
+    private StepDriver driver;
+    // Statistics of the actors in the store, which are not kept in the field.
+    private FieldStats storeStats;
+    // The events counted during the last step.
+    private StepEvents stepEvents;
+    // Records each step into a replay log, or null when not recording.
+    private ReplayRecorder recorder;
+    // Receives the statistics of each step, or null when they are not exported.
+    private MetricsSink metrics;
+    // The number of each species shown after a step, reused for each row of metrics.
+    private int[] metricsCounts;
 
     // State of simulation
     // Dictates if the simulation is paused or not
@@ -98,6 +123,38 @@ public class Simulator
      * @param width Width of the field. Must be greater than zero.
      */
     public Simulator(int depth, int width)
+    {
+        this(depth, width, Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    /**
+     * Create a simulation field with the given size, optionally without a view.
+     * A simulation without a view never touches Swing, so it can be run on
+     * machines with no display.
+     * 
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param threads The number of threads the simulator can use. Must be greater than zero.
+     * @param visual Whether a graphical view of the simulation should be created.
+     */
+    public Simulator(int depth, int width, int threads, boolean visual)
+    {
+        this(depth, width, threads, visual, Randomizer.getSeed(), new SimulationConfig());
+    }
+
+    /**
+     * Create a simulation field with the given size, seed and parameters, optionally without a view.
+     * Simulations without a view share no state, so several can be run at the same time
+     * on different threads, once Randomizer.setSeed has been called.
+     * 
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param threads The number of threads the simulator can use. Must be greater than zero.
+     * @param visual Whether a graphical view of the simulation should be created.
+     * @param seed The seed used to key the random streams of the simulation.
+     * @param config The parameters the field is populated with.
+     */
+    public Simulator(int depth, int width, int threads, boolean visual, long seed, SimulationConfig config)
     {
         if(width <= 0 || depth <= 0) {
             System.out.println("The dimensions must be greater than zero.");
@@ -105,29 +162,64 @@ public class Simulator
             depth = DEFAULT_DEPTH;
             width = DEFAULT_WIDTH;
         }
+        if(threads <= 0) {
+            System.out.println("The number of threads must be greater than zero.");
+            System.out.println("Using the number of available processors.");
+            threads = Runtime.getRuntime().availableProcessors();
+        }
 
-        executorService = new Executor(Runtime.getRuntime().availableProcessors());
+        this.threads = threads;
+        this.seed = seed;
+        this.config = config;
+        driver = new StepDriver(this::simulateStep);
+        timer = new StepTimer();
         actors = new ArrayList<>();
+        stepMode = StepMode.OBJECT;
+        tileSize = DEFAULT_TILE_SIZE;
         field = new Field(depth, width);
+        storeStats = new FieldStats();
         this.numSteps = 0;
         // 1000 milliseconds
-        timeDelayIndex = 2;
+        setTimeDelayIndex(3);
         // Random weather
         currentWeather = null;
 
-        // Create a view of the state of each location in the field.
-        view = new SimulatorView(depth, width, this);
-        view.setColor(Pig.class, new Color(255,102,102));
-        view.setColor(Human.class, new Color(153,102,0));
-        view.setColor(Dodo.class, new Color(255,204,51));
-        view.setColor(Monkey.class, new Color(51,0,0));
-        view.setColor(Tortoise.class, new Color(0,153,0));
-        view.setColor(Plant.class, Color.GREEN);
+        if(visual) {
+            // Create a view of the state of each location in the field.
+            view = new SimulatorView(depth, width, this);
+            for(Species species : Species.values()) {
+                view.setColor(species.getActorClass(), getDefaultColor(species));
+            }
+        }
 
         // Setup a valid starting point.
         reset();
     }
 
+    /**
+     * Returns the colour a species is shown in, in the view and in replays.
+     * 
+     * @param species A species.
+     * @return The colour of the species.
+     */
+    public static Color getDefaultColor(Species species)
+    {
+        switch(species) {
+            case PIG:
+                return new Color(255,102,102);
+            case HUMAN:
+                return new Color(153,102,0);
+            case DODO:
+                return new Color(255,204,51);
+            case MONKEY:
+                return new Color(51,0,0);
+            case TORTOISE:
+                return new Color(0,153,0);
+            default:
+                return Color.GREEN;
+        }
+    }
+
     /**
      * Run the simulation from its current state for a reasonably long period,
      * (200 days).
@@ -157,47 +249,60 @@ public class Simulator
         this.numSteps += numSteps;
         if(stopped){
             start();
-            // executor service implementation for thread execution control
-            executorService.scheduleWithFixedDelay(this::simulateStep, 0, 1, TimeUnit.NANOSECONDS);
         }
     }
 
     /**
-     * Runs method to simulate a single step if conditions met
-     * Conditions: not paused, simulation steps not reached, executor open, field viable
+     * Run the simulation from its current state for the given number of steps
+     * on the calling thread, as fast as possible.
+     * There is no delay between steps and the view, if any, is not updated.
+     * Stops before the given number of steps if it ceases to be viable.
+     * 
+     * @param numSteps The number of steps to run for.
+     * @return The number of steps that were actually run.
      */
-    private void simulateStep()
+    public int simulateHeadless(int numSteps)
     {
-        // simulates step if simulation should continue
-        if(!paused && !stopped && view.isViable(field)){
-            simulateOneStep();
-            checkSimulationEnd();
-            delay(timeDelayList.get(timeDelayIndex));
-            return;
+        int completed = 0;
+        while(completed < numSteps && isViable()) {
+            step++;
+            actOneStep();
+            completed++;
         }
-
-        if(stopped){
-            System.out.println("The simulation has been stopped, add more steps to continue running");
+        if(step > this.numSteps) {
+            this.numSteps = step;
         }
-        if(paused){
-            System.out.println("You've paused the simulation, unpause the simulation to continue running");
-        }
-        if (!view.isViable(field)) {
+        return completed;
+    }
+
+    /**
+     * Simulates a single step for the step driver, if the field is still viable.
+     * Stops the simulation once the set number of steps is reached.
+     * 
+     * @return Whether the simulation should carry on running.
+     */
+    private boolean simulateStep()
+    {
+        if (!isViable()) {
             System.out.println("The simulation has been stopped as there is one animal species left, reset the field to continue simulating");
+            stopSimulation();
+            return false;
         }
 
-        //pauses execution across all threads
-        executorService.pause();
+        simulateOneStep();
+        checkSimulationEnd();
+        return !stopped;
     }
 
     /**
      * Simulates one step if paused
      * Cannot simulate a step if simulation is running
+     * The step is made by the step driver, after any step it is making
      */
     public void forceSimulateOneStep()
     {
         if(paused || stopped){
-            simulateOneStep();
+            driver.step();
         }
         else{
             System.out.println("Pause simulation to use this function");
@@ -212,38 +317,130 @@ public class Simulator
     {
         step++;
 
-        // Provide space for newborn actors.
-        List<Actor> newActors = new ArrayList<>();
-        // Stores dead actors to be removed from actors.
-        HashSet<Actor> deadActors = new HashSet<>();
-        // Changes weather every step
+        long time = timer.start();
         Weather weather = getWeather();
-        // list of infected actors
-        ArrayList<Actor> infected = new ArrayList<>();
-
-        // Let all actors act.
-        actors.forEach(actor -> {
-                actor.act(newActors, step % 2, weather);
-                if (!actor.isAlive()) {
-                    deadActors.add(actor);
-                } 
-                // gets number of infected animals
-                else if (actor.getInfected()) {
-                    infected.add(actor);
-                }
-            });
-
-        // Removes dead actors to actors list
-        deadActors.forEach(actor -> actors.remove(actor));
-
-        // Adds new actors to actors list
-        newActors.forEach(actor -> actors.add(actor));
+        timer.lap(StepPhase.WEATHER, time);
+        int infected = actOneStep(weather);
 
         if (step > numSteps) {
             numSteps = step + 1;
         }
 
-        view.showStatus(step, numSteps, field, weather, infected.size());
+        if(view != null) {
+            time = timer.start();
+            view.showStatus(step, numSteps, field, weather, infected);
+            timer.lap(StepPhase.RENDER, time);
+        }
+    }
+
+    /**
+     * Let every actor act once for the current step under a new weather.
+     * 
+     * @return The number of infected actors after the step.
+     */
+    private int actOneStep()
+    {
+        long time = timer.start();
+        Weather weather = getWeather();
+        timer.lap(StepPhase.WEATHER, time);
+        return actOneStep(weather);
+    }
+
+    /**
+     * Let every actor act once for the current step, then take the events
+     * counted during the step.
+     * 
+     * @param weather The weather for this step.
+     * @return The number of infected actors after the step.
+     */
+    private int actOneStep(Weather weather)
+    {
+        long start = metrics == null ? 0 : System.nanoTime();
+        int infected = stepActors(weather);
+        stepEvents = field.getEvents().snapshot(step);
+        if(metrics != null) {
+            recordMetrics(weather, infected, System.nanoTime() - start);
+        }
+        recordStep(weather);
+        return infected;
+    }
+
+    /**
+     * Let every actor act once for the current step.
+     * Dead actors are removed and newborn actors are added to the simulation.
+     * The infected count is that of the live infected animals shown in the field
+     * once the step is over, so an actor killed after its turn is not counted,
+     * even though it stays in the list of actors until the next step.
+     * 
+     * @param weather The weather for this step.
+     * @return The number of infected animals shown after the step.
+     */
+    private int stepActors(Weather weather)
+    {
+        // Only the changes made during this step are kept
+        field.clearChanges();
+
+        // The store modes count and publish within their own step, which is timed as a whole
+        long time = timer.start();
+        if(stepMode == StepMode.COMPACT) {
+            int infected = storeActions.step(seed, step, weather);
+            timer.lap(StepPhase.ACT, time);
+            return infected;
+        }
+        if(stepMode == StepMode.BUFFERED) {
+            int infected = bufferedStep.step(seed, step, weather);
+            timer.lap(StepPhase.ACT, time);
+            return infected;
+        }
+        if(stepMode == StepMode.TILED) {
+            tiledStep.step(actors, step, weather);
+            time = timer.lap(StepPhase.ACT, time);
+            updatePlants(weather);
+            int infected = updateDisease();
+            if(infected < 0) {
+                infected = field.getStats().getInfectedCount();
+            }
+            timer.lap(StepPhase.STATS, time);
+            return infected;
+        }
+
+        // Provide space for newborn actors.
+        List<Actor> newActors = new ArrayList<>();
+        // number of actors still alive after their turn
+        int live = 0;
+
+        // Let all actors act, moving the ones alive after their turn to the front of the list.
+        // Actors killed after their turn stay for one more step, as they always have.
+        int size = actors.size();
+        for (int i = 0; i < size; i++) {
+            Actor actor = actors.get(i);
+            Randomizer.beginStream(seed, step, actor.getId());
+            actor.act(newActors, step % 2, weather);
+            if (actor.isAlive()) {
+                actors.set(live++, actor);
+            }
+        }
+        time = timer.lap(StepPhase.ACT, time);
+
+        // Drops the dead actors left at the end of the list and adds the newborns after the survivors
+        actors.subList(live, size).clear();
+        time = timer.lap(StepPhase.REMOVAL, time);
+        actors.addAll(newActors);
+        time = timer.lap(StepPhase.BIRTH_MERGE, time);
+
+        // Predators seen this step become known to their prey
+        field.getPredators().publish();
+
+        // The layers are stepped once the list holds exactly the survivors and newborns, as after a tiled step
+        updatePlants(weather);
+        int infected = updateDisease();
+
+        // Without a disease layer, the field counts infected animals as they are infected and cured
+        if(infected < 0) {
+            infected = field.getStats().getInfectedCount();
+        }
+        timer.lap(StepPhase.STATS, time);
+        return infected;
     }
 
     /**
@@ -254,21 +451,353 @@ public class Simulator
         // resets step counter
         step = 0;
         numSteps = 0;
-        // stops simulator
-        stopped = true;
-        // removes actors in simulation
+        // stops simulator and any recording of it
+        stopSimulation();
+        stopRecording();
+        // removes actors in simulation and forgets the predators they saw
         actors.clear();
+        field.getPredators().clear();
+        field.getEvents().reset();
+        prepareStepMode();
         // repopulates simulation
         int infected = populate();
+        stepEvents = field.getEvents().snapshot(step);
         // resets simulation speed
-        timeDelayIndex = 2;
+        setTimeDelayIndex(3);
         // resets current weather to random
         currentWeather = null;
 
         Weather weather = getWeather();
 
         // Show the starting state in the view.
-        view.showStatus(step, numSteps, field, weather, infected);
+        if(view != null) {
+            view.showStatus(step, numSteps, field, weather, infected);
+        }
+    }
+
+    /**
+     * Age the plants of the plant layer and let them spread, once every actor has acted.
+     * Does nothing when plants are actors.
+     * 
+     * @param weather The weather for this step.
+     */
+    private void updatePlants(Weather weather)
+    {
+        PlantLayer plants = field.getPlants();
+        if(plants == null) {
+            return;
+        }
+        // Plants only age during the day, as Plant objects do
+        boolean day = step % 2 == 0;
+        if(day) {
+            field.getEvents().died(Species.PLANT, DeathCause.AGE, plants.age());
+        }
+        double breedingProbability = Plant.BREEDING_PROBABILITY * (day ? 1 : Plant.NIGHT_BREEDING_EFFECT)
+            * WeatherAction.plantEffects(weather)[WeatherEffectTypes.BREED.ordinal()];
+        field.getEvents().born(Species.PLANT, plants.spread(field, actors, seed, step, breedingProbability));
+        countPlants();
+    }
+
+    /**
+     * Step the disease of every animal at once in the disease layer, once every actor has acted.
+     * Does nothing when each animal steps its own disease.
+     * 
+     * @return The number of infected animals shown after the step, or -1 if there is no disease layer.
+     */
+    private int updateDisease()
+    {
+        DiseaseLayer disease = field.getDisease();
+        if(disease == null) {
+            return -1;
+        }
+        Randomizer.beginStream(seed, step, Randomizer.DISEASE_STREAM);
+        return disease.step(field, actors, Randomizer.getRandom(), step % 2);
+    }
+
+    /**
+     * Bring the count of plants in the field's statistics up to date with the plant layer.
+     * As with every other species, only the plants shown are counted, so those with an
+     * actor on top of them are left out.
+     */
+    private void countPlants()
+    {
+        PlantLayer plants = field.getPlants();
+        int shown = plants.count();
+        for(Actor actor : actors) {
+            int cell = actor.getCell();
+            if(actor.isAlive() && cell != Field.NO_CELL && plants.hasPlant(cell) && field.getObjectAt(cell) == actor) {
+                shown--;
+            }
+        }
+        FieldStats stats = field.getStats();
+        stats.incrementCount(Species.PLANT, shown - stats.getCount(Species.PLANT));
+    }
+
+    /**
+     * Creates an empty store and the steppers needed by the current step mode,
+     * and empty plant and disease layers if they are used.
+     */
+    private void prepareStepMode()
+    {
+        field.setPlants(plantLayer && !usesStore(stepMode) ? new PlantLayer(field.getDepth(), field.getWidth()) : null);
+        field.setDisease(diseaseLayer && !usesStore(stepMode) ? new DiseaseLayer(field.getDepth(), field.getWidth()) : null);
+        if(usesStore(stepMode)) {
+            store = new ActorStore(field.getDepth(), field.getWidth());
+            storeActions = new StoreActions(store, field.getPredators(), field.getEvents());
+        }
+        else {
+            store = null;
+            storeActions = null;
+        }
+        if(stepMode != StepMode.TILED && tiledStep != null) {
+            tiledStep.shutdown();
+            tiledStep = null;
+        }
+        if(stepMode == StepMode.TILED && tiledStep == null) {
+            tiledStep = new TiledStep(field, tileSize, threads, seed);
+        }
+        if(bufferedStep != null) {
+            bufferedStep.shutdown();
+            bufferedStep = null;
+        }
+        if(stepMode == StepMode.BUFFERED) {
+            bufferedStep = new BufferedStep(store, storeActions, field.getPredators(), field.getEvents(), threads);
+        }
+    }
+
+    /**
+     * Write the full state of the simulation to a checkpoint file, between steps.
+     * Actors that have died but not yet been removed are left out, as they
+     * have no further effect on the simulation.
+     * 
+     * @param file The file to write, which is replaced.
+     * @throws IOException If the file cannot be written.
+     */
+    public void saveCheckpoint(Path file) throws IOException
+    {
+        Checkpoint checkpoint = new Checkpoint(field.getDepth(), field.getWidth(), seed, Randomizer.getSeed(),
+            step, numSteps, currentWeather, stepMode, tileSize, config);
+        for(Species prey : Species.values()) {
+            checkpoint.setKnownPredators(prey, field.getPredators().getKnown(prey));
+        }
+
+        if(usesStore(stepMode)) {
+            int[] index = new int[store.size()];
+            for(int handle = 0; handle < store.size(); handle++) {
+                index[handle] = Checkpoint.NONE;
+                if(store.isAlive(handle)) {
+                    Species species = store.getSpecies(handle);
+                    index[handle] = checkpoint.addActor(store.getId(handle), species, store.getCell(handle),
+                        store.getAge(handle), store.getFoodLevel(handle),
+                        species.isAnimal() ? store.getGender(handle) : Checkpoint.NONE, store.isInfected(handle));
+                }
+            }
+            for(int cell = 0; cell < field.getDepth() * field.getWidth(); cell++) {
+                int handle = store.getHandleAt(cell);
+                checkpoint.setShown(cell, handle == ActorStore.EMPTY ? Checkpoint.NONE : index[handle]);
+            }
+        }
+        else {
+            Map<Actor, Integer> index = new IdentityHashMap<>();
+            for(Actor actor : actors) {
+                if(actor.isAlive()) {
+                    index.put(actor, addActor(checkpoint, actor));
+                }
+            }
+            for(int cell = 0; cell < field.getDepth() * field.getWidth(); cell++) {
+                Integer shown = index.get(field.getObjectAt(cell));
+                checkpoint.setShown(cell, shown == null ? Checkpoint.NONE : shown);
+            }
+            // The plants of a plant layer come after every actor, so the indices of the actors are kept.
+            PlantLayer plants = field.getPlants();
+            checkpoint.setPlantLayer(plants != null);
+            checkpoint.setDiseaseLayer(field.getDisease() != null);
+            for(int cell = 0; plants != null && cell < field.getDepth() * field.getWidth(); cell++) {
+                if(plants.hasPlant(cell)) {
+                    checkpoint.addActor(0, Species.PLANT, cell, plants.getAge(cell), 0, Checkpoint.NONE, false);
+                }
+            }
+        }
+        checkpoint.write(file);
+    }
+
+    /**
+     * Add an actor object to a checkpoint.
+     * 
+     * @param checkpoint The checkpoint being written.
+     * @param actor The actor to add.
+     * @return The index of the actor in the checkpoint.
+     */
+    private int addActor(Checkpoint checkpoint, Actor actor)
+    {
+        if(actor instanceof Animal) {
+            Animal animal = (Animal) actor;
+            return checkpoint.addActor(animal.getId(), animal.getSpecies(), animal.getCell(), animal.age,
+                animal.foodLevel, animal.getGender().ordinal(), animal.getInfected());
+        }
+        Plant plant = (Plant) actor;
+        return checkpoint.addActor(plant.getId(), plant.getSpecies(), plant.getCell(), plant.getAge(),
+            0, Checkpoint.NONE, false);
+    }
+
+    /**
+     * Create a simulation from a checkpoint file, which carries on exactly as
+     * the simulation the checkpoint was taken from would have.
+     * The shared random generator is given the seed it had, so this must be
+     * called before any actor or field is created, as Randomizer.setSeed must.
+     * 
+     * @param file The checkpoint file.
+     * @param threads The number of threads the simulator can use.
+     * @param visual Whether a graphical view of the simulation should be created.
+     * @return The restored simulation.
+     * @throws IOException If the file cannot be read or is not a checkpoint.
+     */
+    public static Simulator fromCheckpoint(Path file, int threads, boolean visual) throws IOException
+    {
+        Checkpoint checkpoint = Checkpoint.read(file);
+        Randomizer.setSeed(checkpoint.getRandomizerSeed());
+        Simulator simulator = new Simulator(checkpoint.getDepth(), checkpoint.getWidth(), threads, visual,
+            checkpoint.getSeed(), checkpoint.getConfig());
+        simulator.restore(checkpoint);
+        return simulator;
+    }
+
+    /**
+     * Replace the state of the simulation with the one held in a checkpoint file.
+     * The simulation is stopped first.
+     * 
+     * @param file The checkpoint file.
+     * @throws IOException If the file cannot be read or is not a checkpoint.
+     * @throws IllegalArgumentException If the checkpoint is of a field of a different size.
+     */
+    public void restoreCheckpoint(Path file) throws IOException
+    {
+        restore(Checkpoint.read(file));
+    }
+
+    /**
+     * Replace the state of the simulation with the one held in a checkpoint.
+     * 
+     * @param checkpoint The checkpoint to restore.
+     * @throws IllegalArgumentException If the checkpoint is of a field of a different size.
+     */
+    private void restore(Checkpoint checkpoint)
+    {
+        if(checkpoint.getDepth() != field.getDepth() || checkpoint.getWidth() != field.getWidth()) {
+            throw new IllegalArgumentException("The checkpoint is of a " + checkpoint.getWidth() + "x"
+                + checkpoint.getDepth() + " field, not " + field.getWidth() + "x" + field.getDepth());
+        }
+        stopSimulation();
+        stopRecording();
+        if(tiledStep != null && (checkpoint.getTileSize() != tileSize || checkpoint.getSeed() != seed)) {
+            tiledStep.shutdown();
+            tiledStep = null;
+        }
+        seed = checkpoint.getSeed();
+        config = checkpoint.getConfig();
+        stepMode = checkpoint.getStepMode();
+        // Checkpoints written before tiles had to cover the reach of a day step may hold smaller tiles.
+        tileSize = Math.max(checkpoint.getTileSize(), TiledStep.MIN_TILE_SIZE);
+        step = checkpoint.getStep();
+        numSteps = checkpoint.getNumSteps();
+        currentWeather = checkpoint.getWeather();
+
+        actors.clear();
+        field.getPredators().clear();
+        for(Species prey : Species.values()) {
+            field.getPredators().setKnown(prey, checkpoint.getKnownPredators(prey));
+        }
+        field.getEvents().reset();
+        plantLayer = checkpoint.hasPlantLayer();
+        diseaseLayer = checkpoint.hasDiseaseLayer();
+        prepareStepMode();
+        // Cells are cleared one at a time so the view's journal sees every change.
+        int cells = field.getDepth() * field.getWidth();
+        for(int cell = 0; cell < cells; cell++) {
+            field.clear(cell);
+        }
+
+        if(usesStore(stepMode)) {
+            for(int i = 0; i < checkpoint.getActorCount(); i++) {
+                int gender = checkpoint.getGender(i);
+                store.add(checkpoint.getId(i), checkpoint.getSpecies(i), checkpoint.getCell(i), checkpoint.getAge(i),
+                    checkpoint.getFoodLevel(i), gender == Checkpoint.NONE ? null : Gender.values()[gender],
+                    checkpoint.isInfected(i));
+            }
+            for(int cell = 0; cell < cells; cell++) {
+                store.clearCell(cell);
+                if(checkpoint.getShown(cell) != Checkpoint.NONE) {
+                    store.place(checkpoint.getShown(cell), cell);
+                }
+            }
+        }
+        else {
+            PlantLayer plants = field.getPlants();
+            for(int i = 0; i < checkpoint.getActorCount(); i++) {
+                if(plants != null && checkpoint.getSpecies(i) == Species.PLANT) {
+                    plants.plant(checkpoint.getCell(i), checkpoint.getAge(i));
+                }
+                else {
+                    actors.add(restoreActor(checkpoint, i));
+                }
+            }
+            if(plants != null) {
+                countPlants();
+            }
+            // Actors placed themselves as they were created, so the cells are shown again as they were.
+            for(int cell = 0; cell < cells; cell++) {
+                field.clear(cell);
+                if(checkpoint.getShown(cell) != Checkpoint.NONE) {
+                    field.place(actors.get(checkpoint.getShown(cell)), cell);
+                }
+            }
+        }
+        stepEvents = field.getEvents().snapshot(step);
+
+        if(view != null) {
+            view.showStatus(step, numSteps, field, getWeather(), getStats().getInfectedCount());
+        }
+    }
+
+    /**
+     * Create an actor object from a checkpoint.
+     * 
+     * @param checkpoint The checkpoint being restored.
+     * @param i The index of the actor in the checkpoint.
+     * @return The actor, with the state it had when the checkpoint was taken.
+     */
+    private Actor restoreActor(Checkpoint checkpoint, int i)
+    {
+        int cell = checkpoint.getCell(i);
+        boolean infected = checkpoint.isInfected(i);
+        Actor actor;
+        switch(checkpoint.getSpecies(i)) {
+            case DODO:
+                actor = new Dodo(false, field, cell, infected);
+                break;
+            case HUMAN:
+                actor = new Human(false, field, cell, infected);
+                break;
+            case PIG:
+                actor = new Pig(false, field, cell, infected);
+                break;
+            case MONKEY:
+                actor = new Monkey(false, field, cell, infected);
+                break;
+            case TORTOISE:
+                actor = new Tortoise(false, field, cell, infected);
+                break;
+            default:
+                Plant plant = new Plant(false, field, cell);
+                plant.setAge(checkpoint.getAge(i));
+                actor = plant;
+        }
+        actor.setId(checkpoint.getId(i));
+        if(actor instanceof Animal) {
+            ((Animal) actor).restore(checkpoint.getAge(i), checkpoint.getFoodLevel(i),
+                Gender.values()[checkpoint.getGender(i)], infected);
+        }
+        return actor;
     }
 
     /**
@@ -276,11 +805,13 @@ public class Simulator
      */
     private int populate()
     {
+        Randomizer.beginStream(seed, step, Randomizer.POPULATE_STREAM);
         Random rand = Randomizer.getRandom();
         field.clear();
 
         //Gathers running probability for use in creation
-        double[] totalProbabilities = {DODO_CREATION_PROBABILITY, HUMAN_CREATION_PROBABILITY, PIG_CREATION_PROBABILITY, MONKEY_CREATION_PROBABILITY, TORTOISE_CREATION_PROBABILITY};
+        double[] totalProbabilities = {config.getDodoCreationProbability(), config.getHumanCreationProbability(), config.getPigCreationProbability(),
+            config.getMonkeyCreationProbability(), config.getTortoiseCreationProbability()};
         totalProbabilities =  getTotalProbability(totalProbabilities);
 
         //number of infected actors
@@ -289,42 +820,40 @@ public class Simulator
         for(int row = 0; row < field.getDepth(); row++) {
             for(int col = 0; col < field.getWidth(); col++) {
                 // Populate with animals and plants as per their probabilities    
-                Location location = new Location(row, col);
+                int cell = field.index(row, col);
                 boolean virus = false;
 
-                if (rand.nextDouble() <= DISEASE_CREATION_PROBABILITY) {
+                if (rand.nextDouble() <= config.getDiseaseCreationProbability()) {
                     virus = true;
                     ++infected;
                 }
 
-                if (rand.nextDouble() <= PLANT_CREATION_PROBABILITY) {
-                    Plant plant = new Plant(true, field, location);
-                    actors.add(plant);
+                if (rand.nextDouble() <= config.getPlantCreationProbability()) {
+                    create(Species.PLANT, cell, false);
                 }
 
                 if (rand.nextDouble() <= totalProbabilities[0]){
-                    Dodo dodo = new Dodo(true, field, location, virus);
-                    actors.add(dodo);
+                    create(Species.DODO, cell, virus);
                 }
                 else if(rand.nextDouble() <= totalProbabilities[1]){
-                    Human human = new Human(true, field, location, virus);
-                    actors.add(human);
+                    create(Species.HUMAN, cell, virus);
                 }
                 else if(rand.nextDouble() <= totalProbabilities[2]){
-                    Pig pig = new Pig(true, field, location, virus);
-                    actors.add(pig);
+                    create(Species.PIG, cell, virus);
                 }
                 else if (rand.nextDouble() <= totalProbabilities[3]){
-                    Monkey monkey = new Monkey(true, field, location, virus);
-                    actors.add(monkey);
+                    create(Species.MONKEY, cell, virus);
                 }
                 else if (rand.nextDouble() <= totalProbabilities[4]){
-                    Tortoise tortoise = new Tortoise( true, field, location, virus);
-                    actors.add(tortoise);
+                    create(Species.TORTOISE, cell, virus);
                 }
             }
         }
 
+        if(field.getPlants() != null) {
+            countPlants();
+        }
+
         // Gives warning if spawn probability is above 1
         if(totalProbabilities[totalProbabilities.length-1] > 1){
             System.out.println("Your total spawn probability is above 1, there may be some unexpected errors in simulation as a result");
@@ -333,6 +862,49 @@ public class Simulator
         return infected;
     }
 
+    /**
+     * Creates an actor of a random age at the start of the simulation,
+     * either as an object or in the store depending on the step mode.
+     * 
+     * @param species The species of the actor.
+     * @param cell The cell of the actor.
+     * @param virus Whether the actor is infected, ignored for plants.
+     */
+    private void create(Species species, int cell, boolean virus)
+    {
+        if(usesStore(stepMode)) {
+            storeActions.create(species, cell, true, species.isAnimal() && virus);
+            return;
+        }
+
+        switch(species) {
+            case PLANT:
+                PlantLayer plants = field.getPlants();
+                if(plants != null) {
+                    plants.plant(cell, Randomizer.getRandom().nextInt(Plant.MAX_AGE));
+                }
+                else {
+                    actors.add(new Plant(true, field, cell));
+                }
+                break;
+            case DODO:
+                actors.add(new Dodo(true, field, cell, virus));
+                break;
+            case HUMAN:
+                actors.add(new Human(true, field, cell, virus));
+                break;
+            case PIG:
+                actors.add(new Pig(true, field, cell, virus));
+                break;
+            case MONKEY:
+                actors.add(new Monkey(true, field, cell, virus));
+                break;
+            case TORTOISE:
+                actors.add(new Tortoise(true, field, cell, virus));
+                break;
+        }
+    }
+
     /**
      * Generates running total probability list based on input
      * 
@@ -367,8 +939,7 @@ public class Simulator
         stopped = false;
         paused = false;
 
-        // resumes execution across all threads
-        executorService.resume();
+        driver.run();
     }
 
     /**
@@ -377,14 +948,38 @@ public class Simulator
     private void stopSimulation()
     {
         stopped = true;
+        driver.stop();
     }
 
     /**
-     * Shutdown the simulator executor
+     * Release the threads of the simulator: its step driver and the pools of the
+     * tiled and buffered steppers, and finish any recording. Waits for a step being
+     * made to finish. The simulator cannot be run again, but the JVM carries on.
+     */
+    @Override
+    public void close()
+    {
+        driver.shutdown();
+        stopRecording();
+        if(tiledStep != null) {
+            tiledStep.shutdown();
+            tiledStep = null;
+        }
+        if(bufferedStep != null) {
+            bufferedStep.shutdown();
+            bufferedStep = null;
+        }
+    }
+
+    /**
+     * Shutdown the simulator and exit
      */
     public void shutdownSimulation() 
     {
-        executorService.shutdown();
+        close();
+        if(timer.isEnabled()) {
+            System.out.print(timer.getReport());
+        }
         System.out.println("Simulator Shutdown");
         System.exit(0);
     }
@@ -405,9 +1000,11 @@ public class Simulator
 
         paused = pause;
 
-        if(!pause){
-            // resumes execution across all threads
-            executorService.resume();
+        if(pause){
+            driver.pause();
+        }
+        else if(!stopped){
+            driver.run();
         }
     }
 
@@ -452,6 +1049,7 @@ public class Simulator
      */
     private Weather randomWeather() 
     {
+        Randomizer.beginStream(seed, step, Randomizer.WEATHER_STREAM);
         Random rand = Randomizer.getRandom();
 
         double[] totalProbabilities = {SNOWY_PROBABILITY, FOGGY_PROBABILITY, RAINY_PROBABILITY, SUNNY_PROBABILITY};
@@ -478,17 +1076,268 @@ public class Simulator
     }
 
     /**
-     * Pause for a given time.
+     * Determines whether the simulation should continue to run.
+     * 
+     * @return true If there is more than one animal species alive.
+     */
+    public boolean isViable()
+    {
+        return getStats().isViable();
+    }
+
+    /**
+     * Returns a description of the current population of the field.
+     * 
+     * @return A string describing what is in the field.
+     */
+    public String getPopulationDetails()
+    {
+        return getStats().getPopulationDetails();
+    }
+
+    /**
+     * Returns the number of actors of a species shown in the field.
+     * 
+     * @param species The species to count.
+     * @return The number of actors of the species.
+     */
+    public int getPopulation(Species species)
+    {
+        return getStats().getCount(species);
+    }
+
+    /**
+     * Returns up to date statistics of the actors in the simulation.
+     * The field keeps its own statistics up to date. Actors in the store
+     * are counted from the store, as the field is not used.
+     * 
+     * @return The statistics of the simulation.
+     */
+    private FieldStats getStats()
+    {
+        if(!usesStore(stepMode)) {
+            return field.getStats();
+        }
+        storeStats.reset();
+        int[] counts = new int[Species.count()];
+        store.countShown(counts);
+        for(int id = 0; id < counts.length; id++) {
+            storeStats.incrementCount(Species.fromId(id), counts[id]);
+        }
+        return storeStats;
+    }
+
+    /**
+     * Sets the width and depth of the tiles used when stepping tiles in parallel.
+     * Takes effect the next time the simulation is reset.
+     * 
+     * @param tileSize The width and depth of a tile in cells, at least TiledStep.MIN_TILE_SIZE.
+     */
+    public void setTileSize(int tileSize)
+    {
+        if(tileSize < TiledStep.MIN_TILE_SIZE) {
+            System.out.println("Tiles must be at least " + TiledStep.MIN_TILE_SIZE + " cells wide");
+            return;
+        }
+        this.tileSize = tileSize;
+        if(tiledStep != null) {
+            tiledStep.shutdown();
+            tiledStep = null;
+        }
+    }
+
+    /**
+     * Sets whether plants are kept in a PlantLayer of the field, aged and spread
+     * in bulk after the actors act, rather than as actors of their own, and resets
+     * the simulation. Only the object step modes use a plant layer.
+     * 
+     * @param plantLayer true to keep plants in a plant layer.
+     */
+    public void setPlantLayer(boolean plantLayer)
+    {
+        if(plantLayer && usesStore(stepMode)) {
+            System.out.println("The " + stepMode + " step mode keeps plants in the store, so has no plant layer");
+            return;
+        }
+        this.plantLayer = plantLayer;
+        reset();
+    }
+
+    /**
+     * Sets whether the disease is stepped for the whole field at once in a
+     * DiseaseLayer after the actors act, rather than by each animal as it acts,
+     * and resets the simulation. Only the object step modes use a disease layer.
      * 
-     * @param millisec The time to pause for, in milliseconds
+     * @param diseaseLayer true to step the disease in a disease layer.
      */
-    private void delay(int millisec) 
+    public void setDiseaseLayer(boolean diseaseLayer)
     {
+        if(diseaseLayer && usesStore(stepMode)) {
+            System.out.println("The " + stepMode + " step mode steps the disease in the store, so has no disease layer");
+            return;
+        }
+        this.diseaseLayer = diseaseLayer;
+        reset();
+    }
+
+    /**
+     * Changes how actors are stored and stepped, and resets the simulation.
+     * Only object actors can be shown in a view.
+     * 
+     * @param mode The new step mode.
+     */
+    public void setStepMode(StepMode mode)
+    {
+        if(view != null && usesStore(mode)) {
+            System.out.println("The " + mode + " step mode can only be used without a view");
+            return;
+        }
+        stepMode = mode;
+        reset();
+    }
+
+    /**
+     * Returns whether a step mode keeps the actors in the store rather than as objects.
+     * 
+     * @param mode A step mode.
+     * @return true if the mode uses the store.
+     */
+    private static boolean usesStore(StepMode mode)
+    {
+        return mode == StepMode.COMPACT || mode == StepMode.BUFFERED;
+    }
+
+    /**
+     * Start recording the simulation into a replay log, which ReplayPlayer can show later.
+     * The current state is written as the first keyframe, and each step after it is
+     * recorded until stopRecording is called or the simulation is reset or restored.
+     * 
+     * @param directory The directory to write the log to, replacing any log already there.
+     * @param keyframeInterval The number of steps between two keyframes of the log.
+     * @throws IOException If the log cannot be created.
+     */
+    public void startRecording(Path directory, int keyframeInterval) throws IOException
+    {
+        stopRecording();
+        recorder = new ReplayRecorder(directory, field.getDepth(), field.getWidth(), keyframeInterval);
+        recordStep(currentWeather);
+    }
+
+    /**
+     * Stop recording the simulation, finishing the replay log. Does nothing if not recording.
+     */
+    public void stopRecording()
+    {
+        if(recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        }
+        catch(IOException e) {
+            System.out.println("The replay log could not be finished: " + e.getMessage());
+        }
+        recorder = null;
+    }
+
+    /**
+     * Record the state of every cell after the current step, if recording.
+     * Every cell is checked, as actors can be infected or cured without moving,
+     * and the recorder keeps only the cells that changed.
+     * 
+     * @param weather The weather of the step.
+     */
+    private void recordStep(Weather weather)
+    {
+        if(recorder == null) {
+            return;
+        }
+        recorder.beginStep(step, weather);
+        int cells = field.getDepth() * field.getWidth();
+        if(usesStore(stepMode)) {
+            for(int cell = 0; cell < cells; cell++) {
+                int handle = store.getHandleAt(cell);
+                recorder.update(cell, handle == ActorStore.EMPTY ? ReplayLog.EMPTY
+                    : ReplayLog.state(store.getSpecies(handle), store.isInfected(handle)));
+            }
+        }
+        else {
+            PlantLayer plants = field.getPlants();
+            for(int cell = 0; cell < cells; cell++) {
+                Actor actor = (Actor) field.getObjectAt(cell);
+                recorder.update(cell, actor == null && plants != null && plants.hasPlant(cell)
+                    ? ReplayLog.state(Species.PLANT, false) : ReplayLog.state(actor));
+            }
+        }
         try {
-            Thread.sleep(millisec);
-        } catch (InterruptedException ie) {
-            // wake up
+            recorder.endStep();
+        }
+        catch(IOException e) {
+            System.out.println("The replay log could not be written, so recording has stopped: " + e.getMessage());
+            stopRecording();
+        }
+    }
+
+    /**
+     * Sets the sink the statistics of each step are exported to. The sink is
+     * not closed by the simulator, so the caller closes it once it is replaced
+     * or the run is over.
+     * 
+     * @param sink The sink to export to, or null to stop exporting.
+     */
+    public void setMetricsSink(MetricsSink sink)
+    {
+        if(metricsCounts == null) {
+            metricsCounts = new int[Species.count()];
         }
+        metrics = sink;
+    }
+
+    /**
+     * Export the statistics of the current step to the metrics sink.
+     * 
+     * @param weather The weather of the step.
+     * @param infected The number of infected actors after the step.
+     * @param wallNanos The wall time the step took, in nanoseconds.
+     */
+    private void recordMetrics(Weather weather, int infected, long wallNanos)
+    {
+        FieldStats stats = getStats();
+        for(Species species : Species.values()) {
+            metricsCounts[species.getId()] = stats.getCount(species);
+        }
+        metrics.record(step, weather, metricsCounts, infected, wallNanos);
+    }
+
+    /**
+     * Returns the timer of the phases of each step, which is disabled until
+     * setEnabled is called on it. Its report is printed at shutdown while enabled.
+     * 
+     * @return The timer of the phases of each step.
+     */
+    public StepTimer getStepTimer()
+    {
+        return timer;
+    }
+
+    /**
+     * Returns the births, kills, infections, cures and deaths counted during the last step.
+     * 
+     * @return The events of the last step, or of populating the field if no step has been made.
+     */
+    public StepEvents getStepEvents()
+    {
+        return stepEvents;
+    }
+
+    /**
+     * Returns the current step of the simulation.
+     * 
+     * @return The current step of the simulation.
+     */
+    public int getStep()
+    {
+        return step;
     }
 
     /**
@@ -507,7 +1356,7 @@ public class Simulator
     public void speedUpTimeDelay()
     {
         if(timeDelayIndex > 0){
-            timeDelayIndex--;
+            setTimeDelayIndex(timeDelayIndex - 1);
         }
         else{
             System.out.println("You're already at the fastest speed");
@@ -520,10 +1369,22 @@ public class Simulator
     public void slowDownTimeDelay() 
     {
         if (timeDelayIndex < timeDelayList.size()-1) {
-            timeDelayIndex++;
+            setTimeDelayIndex(timeDelayIndex + 1);
         }
         else {
             System.out.println("You're already at the slowest speed");
         }
     }
+
+    /**
+     * Sets the time delay used between steps, from the time delay list
+     * 
+     * @param index The index of the time delay in the time delay list
+     */
+    private void setTimeDelayIndex(int index)
+    {
+        timeDelayIndex = index;
+        int delay = timeDelayList.get(index);
+        driver.setTargetRate(delay == 0 ? StepDriver.UNTHROTTLED : 1000.0 / delay);
+    }
 }
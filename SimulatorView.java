@@ -5,6 +5,7 @@ import java.awt.event.ActionListener;
 import javax.swing.*;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A graphical view of the simulation grid.
@@ -12,6 +13,10 @@ import java.util.Map;
  * representing its contents. It uses a default background colour.
  * Colours for each type of species can be defined using the
  * setColor method.
+ *
+ * The simulation hands the view an immutable snapshot of each step and carries on.
+ * The view draws the latest snapshot on the Swing thread, at most once per refresh
+ * of the display, and snapshots replaced before they were drawn are dropped.
  * 
  * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
  * @version (28/02/2022)
@@ -23,22 +28,32 @@ public class SimulatorView extends JFrame
 
     // Color used for objects that have no defined color.
     private static final Color UNKNOWN_COLOR = Color.gray;
+    // The refresh rate assumed when the display does not report one.
+    private static final int DEFAULT_REFRESH_RATE = 60;
 
     private final String DAY_PREFIX = "Day: ";
     private final String TIME_PREFIX = "Time: ";
     private final String POPULATION_PREFIX = "Population: ";
     private JLabel stepLabel, timeLabel, population, infoLabel, visibleLabel, controlLabel, playbackLabel, stepControlLabel, speedControlLabel, weatherLabel;
     private JButton plantButton, humanButton, monkeyButton, pigButton, tortoiseButton, dodoButton, resetClearButton, shutSimulationButton, 
-    pauseSimulationButton, playSimulationButton, resetSimulationButton, longSimulationButton, shortSimulationButton, oneStepButton,
+    gridLinesButton, pauseSimulationButton, playSimulationButton, resetSimulationButton, longSimulationButton, shortSimulationButton, oneStepButton,
     speedUpButton, slowDownButton, randomWeatherButton, sunnyButton, rainyButton, foggyButton, snowyButton;
     private FieldView fieldView;
+    // The latest snapshot handed over by the simulation and not yet drawn, or null.
+    private final AtomicReference<FieldSnapshot> pending = new AtomicReference<>();
+    // The last snapshot handed over, used by the simulation to take the next one.
+    private FieldSnapshot published;
+    // The snapshot currently on screen, only used on the Swing thread.
+    private FieldSnapshot shown;
+    // Draws the pending snapshot once per refresh of the display.
+    private Timer frameTimer;
 
     // A map for storing the current colors for participants in the simulation.
     private Map<Class, Color> colors;
     // A map for storing colors for participants in the simulation.
     private Map<Class, Color> baseColors;
-    // A statistics object computing and storing simulation information.
-    private FieldStats stats;
+    // The current color of each species as an RGB value, indexed by species id.
+    private int[] palette;
 
     /**
      * Create a view of the given width and height.
@@ -47,9 +62,10 @@ public class SimulatorView extends JFrame
      */
     public SimulatorView(int height, int width, Simulator simulator)
     {
-        stats = new FieldStats();
         colors = new LinkedHashMap<>();
         baseColors = new LinkedHashMap<>();
+        palette = new int[Species.count()];
+        updatePalette();
 
         setTitle("Predator and Prey Simulation");
 
@@ -67,49 +83,56 @@ public class SimulatorView extends JFrame
         plantButton = new JButton("Plant");
         plantButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    toggleColor(Plant.class, simulator.getField());
+                    toggleColor(Plant.class);
                 }
             });
 
         dodoButton = new JButton("Dodo");
         dodoButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    toggleColor(Dodo.class, simulator.getField());
+                    toggleColor(Dodo.class);
                 }
             });
 
         tortoiseButton = new JButton("Tortoise");
         tortoiseButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    toggleColor(Tortoise.class, simulator.getField());
+                    toggleColor(Tortoise.class);
                 }
             });
 
         humanButton = new JButton("Human");
         humanButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    toggleColor(Human.class, simulator.getField());
+                    toggleColor(Human.class);
                 }
             });
 
         monkeyButton = new JButton("Monkey");
         monkeyButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    toggleColor(Monkey.class, simulator.getField());
+                    toggleColor(Monkey.class);
                 }
             });
 
         pigButton = new JButton("Pig");
         pigButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    toggleColor(Pig.class, simulator.getField());
+                    toggleColor(Pig.class);
+                }
+            });
+
+        gridLinesButton = new JButton("Grid Lines");
+        gridLinesButton.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    fieldView.toggleGridLines();
                 }
             });
 
         resetClearButton = new JButton("Reset Colours");
         resetClearButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    resetViewColor(simulator.getField());
+                    resetViewColor();
                 }
             });
 
@@ -241,6 +264,7 @@ public class SimulatorView extends JFrame
 
         northVisionButtonPane3.add(pigButton, BorderLayout.NORTH);
         northVisionButtonPane3.add(resetClearButton, BorderLayout.CENTER);
+        northVisionButtonPane3.add(gridLinesButton, BorderLayout.SOUTH);
 
         JPanel weatherButtonPane = new JPanel(new BorderLayout());
         visionButtonPane.add(weatherButtonPane, BorderLayout.SOUTH);
@@ -314,6 +338,27 @@ public class SimulatorView extends JFrame
         contents.add(controlButtonPane, BorderLayout.WEST);
         pack();
         setVisible(true);
+
+        frameTimer = new Timer(1000 / refreshRate(), new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    drawPending();
+                }
+            });
+        frameTimer.start();
+    }
+
+    /**
+     * Returns the refresh rate of the display the view is shown on.
+     * 
+     * @return The number of frames the display shows per second.
+     */
+    private int refreshRate()
+    {
+        int rate = getGraphicsConfiguration().getDevice().getDisplayMode().getRefreshRate();
+        if(rate == DisplayMode.REFRESH_RATE_UNKNOWN) {
+            return DEFAULT_REFRESH_RATE;
+        }
+        return rate;
     }
 
     /**
@@ -326,15 +371,25 @@ public class SimulatorView extends JFrame
     {
         colors.put(actorClass, color);
         baseColors.put(actorClass, color);
+        updatePalette();
+    }
+
+    /**
+     * Rebuilds the palette of species colours from the current colours.
+     */
+    private void updatePalette()
+    {
+        for(int id = 0; id < palette.length; id++) {
+            palette[id] = getColor(Species.fromId(id).getActorClass()).getRGB();
+        }
     }
 
     /**
      * Toggles the colour of the actor between clear and coloured
      * 
      * @param actorClass The actor's Class object, 
-     * @param field The field in the simulator view.
      */
-    private void toggleColor(Class actorClass, Field field)
+    private void toggleColor(Class actorClass)
     {
         if(EMPTY_COLOR.equals(colors.get(actorClass))){
             colors.replace(actorClass, baseColors.get(actorClass));
@@ -343,17 +398,17 @@ public class SimulatorView extends JFrame
             colors.replace(actorClass, EMPTY_COLOR);
         }
 
-        updatePanel(field, false);
+        updatePalette();
+        redraw();
     }
 
     /**
      * Bring all colours into view.
-     * 
-     * @param field The field in the simulator view.
      */
-    private void resetViewColor(Field field){
+    private void resetViewColor(){
         baseColors.forEach((key,entry) -> colors.replace(key,entry)); 
-        updatePanel(field, false);
+        updatePalette();
+        redraw();
     }
 
     /**
@@ -386,6 +441,7 @@ public class SimulatorView extends JFrame
 
     /**
      * Show the current status of the field.
+     * Takes a snapshot of the field and hands it over to be drawn, without waiting for it.
      * 
      * @param step Which iteration step it is.
      * @param totalSteps The number of steps the simulator is running for.
@@ -393,14 +449,32 @@ public class SimulatorView extends JFrame
      * @param weather The current weather of the board.
      * @param virusCount The number of currently infected animals.
      */
-    public void showStatus(int step, int totalSteps, Field field, Weather weather, int virusCount)
+    public synchronized void showStatus(int step, int totalSteps, Field field, Weather weather, int virusCount)
     {
+        published = FieldSnapshot.take(field, published, step, totalSteps, weather, virusCount);
+        // Replaces any snapshot that has not been drawn yet, which is dropped.
+        pending.set(published);
+    }
+
+    /**
+     * Draws the latest snapshot handed over, if there is a new one.
+     * Runs on the Swing thread.
+     */
+    private void drawPending()
+    {
+        FieldSnapshot frame = pending.getAndSet(null);
+        if(frame == null) {
+            return;
+        }
         if(!isVisible()) {
             setVisible(true);
         }
+        FieldSnapshot previous = shown;
+        shown = frame;
 
+        int step = frame.getStep();
         // Displays day number.
-        stepLabel.setText(DAY_PREFIX + (step+1)/2 + "/" + totalSteps/2);
+        stepLabel.setText(DAY_PREFIX + (step+1)/2 + "/" + frame.getTotalSteps()/2);
         // Computes and displays time of day.
         String time = "";
         if(step%2 == 0){
@@ -412,39 +486,33 @@ public class SimulatorView extends JFrame
         timeLabel.setText(TIME_PREFIX + time);
 
         // Displays additional info such as weather and virus numbers.
-        setInfoText("Weather:" + weather + "   Infected :" + virusCount);
-        stats.reset();
+        setInfoText("Weather:" + frame.getWeather() + "   Infected :" + frame.getInfected());
 
-        updatePanel(field, true);
+        updatePanel(frame, previous);
     }
 
     /**
-     * Clears and repaints the field on the viewer.
-     * 
-     * @param field The field the viewer is currently representing.
-     * @param newStep Defines whether a new step has occured or not.
+     * Draws the snapshot on screen again in full, after the colours have changed.
+     * Runs on the Swing thread.
      */
-    private void updatePanel(Field field, boolean newStep)
+    private void redraw()
     {
-        fieldView.preparePaint();
-
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                Actor actor = (Actor) field.getObjectAt(row, col);
-                if (actor != null) {
-                    // Increments population
-                    if(newStep){
-                        stats.incrementCount(actor.getClass()); 
-                    }
-                    fieldView.drawMark(col, row, getColor(actor.getClass()));
-                } else {
-                    fieldView.drawMark(col, row, EMPTY_COLOR);
-                }
-            }
+        if(shown != null) {
+            updatePanel(shown, null);
         }
-        stats.countFinished();
+    }
 
-        population.setText(POPULATION_PREFIX + stats.getPopulationDetails(field));
+    /**
+     * Repaints the field on the viewer from a snapshot.
+     * Only the cells that differ from the snapshot already drawn are painted.
+     * 
+     * @param frame The snapshot to draw.
+     * @param previous The snapshot drawn before, or null to paint every cell.
+     */
+    private void updatePanel(FieldSnapshot frame, FieldSnapshot previous)
+    {
+        fieldView.raster.draw(frame, previous, palette, EMPTY_COLOR.getRGB());
+        population.setText(POPULATION_PREFIX + frame.getPopulation());
         fieldView.repaint();
     }
 
@@ -456,7 +524,7 @@ public class SimulatorView extends JFrame
      */
     public boolean isViable(Field field)
     {
-        return stats.isViable(field);
+        return field.getStats().isViable();
     }
 
     /**
@@ -466,16 +534,21 @@ public class SimulatorView extends JFrame
      * component displays the field.
      * This is rather advanced GUI stuff - you can ignore this 
      * for your project if you like.
+     *
+     * The field is kept as a FieldRaster, with one pixel per cell,
+     * and Java2D scales it up to the size of the component.
      */
     private class FieldView extends JPanel
     {
         private final int GRID_VIEW_SCALING_FACTOR = 6;
+        // The smallest cell size in pixels at which grid lines are drawn.
+        private final int MIN_GRID_LINE_SCALE = 3;
 
         private int gridWidth, gridHeight;
-        private int xScale, yScale;
-        Dimension size;
-        private Graphics g;
-        private Image fieldImage;
+        // The image of the field, one pixel per cell.
+        private final FieldRaster raster;
+        // Whether lines are drawn between the cells.
+        private boolean gridLines;
 
         /**
          * Create a new FieldView component.
@@ -487,7 +560,8 @@ public class SimulatorView extends JFrame
         {
             gridHeight = height;
             gridWidth = width;
-            size = new Dimension(0, 0);
+            raster = new FieldRaster(height, width);
+            gridLines = true;
         }
 
         /**
@@ -503,57 +577,39 @@ public class SimulatorView extends JFrame
         }
 
         /**
-         * Prepare for a new round of painting. Since the component
-         * may be resized, compute the scaling factor again.
-         */
-        public void preparePaint()
-        {
-            if(! size.equals(getSize())) {  // if the size has changed...
-                size = getSize();
-                fieldImage = fieldView.createImage(size.width, size.height);
-                g = fieldImage.getGraphics();
-
-                xScale = size.width / gridWidth;
-                if(xScale < 1) {
-                    xScale = GRID_VIEW_SCALING_FACTOR;
-                }
-                yScale = size.height / gridHeight;
-                if(yScale < 1) {
-                    yScale = GRID_VIEW_SCALING_FACTOR;
-                }
-            }
-        }
-
-        /**
-         * Paint on grid location on this field in a given color.
-         * 
-         * @param x The x-coordinate in the field.
-         * @param y The y-coordinate in the field.
-         * @param color The color to be painted on the field.
+         * Show or hide the lines between the cells.
          */
-        public void drawMark(int x, int y, Color color)
+        public void toggleGridLines()
         {
-            g.setColor(color);
-            g.fillRect(x * xScale, y * yScale, xScale-1, yScale-1);
+            gridLines = !gridLines;
+            repaint();
         }
 
         /**
-         * The field view component needs to be redisplayed. Copy the
-         * internal image to screen.
+         * The field view component needs to be redisplayed. Scale the
+         * field image to the size of the component, then draw the grid lines over it.
          * 
          * @param g An object of the Graphics class.
          */
         @Override
         public void paintComponent(Graphics g)
         {
-            if(fieldImage != null) {
-                Dimension currentSize = getSize();
-                if(size.equals(currentSize)) {
-                    g.drawImage(fieldImage, 0, 0, null);
+            Dimension size = getSize();
+            ((Graphics2D) g).setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.drawImage(raster.getImage(), 0, 0, size.width, size.height, null);
+
+            if(gridLines && size.width / gridWidth >= MIN_GRID_LINE_SCALE
+            && size.height / gridHeight >= MIN_GRID_LINE_SCALE) {
+                // A line along the right and bottom edge of every cell, as the old marks left.
+                g.setColor(EMPTY_COLOR);
+                for(int col = 1; col <= gridWidth; col++) {
+                    int x = col * size.width / gridWidth - 1;
+                    g.drawLine(x, 0, x, size.height);
                 }
-                else {
-                    // Rescale the previous image.
-                    g.drawImage(fieldImage, 0, 0, currentSize.width, currentSize.height, null);
+                for(int row = 1; row <= gridHeight; row++) {
+                    int y = row * size.height / gridHeight - 1;
+                    g.drawLine(0, y, size.width, y);
                 }
             }
         }
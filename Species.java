@@ -0,0 +1,210 @@
+/**
+ * Defines the different species that can live in the simulation,
+ * along with the characteristics shared by every member of a species.
+ *
+ * The values are taken from the constants of each actor class, so that
+ * actors stored without an object of their own behave the same way.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public enum Species
+{
+    PLANT(Plant.class, true, Plant.BREEDING_AGE, Plant.MAX_AGE, Plant.BREEDING_PROBABILITY,
+        Plant.MAX_LITTER_SIZE, Plant.PLANT_FOOD_VALUE, 0),
+    DODO(Dodo.class, false, Dodo.BREEDING_AGE, Dodo.MAX_AGE, Dodo.BREEDING_PROBABILITY,
+        Dodo.MAX_LITTER_SIZE, Dodo.BASIC_FOOD_LEVEL, Dodo.DODO_DEATH_FROM_DISEASE_PROBABILITY),
+    HUMAN(Human.class, false, Human.BREEDING_AGE, Human.MAX_AGE, Human.BREEDING_PROBABILITY,
+        Human.MAX_LITTER_SIZE, Human.BASIC_FOOD_LEVEL, Human.HUMAN_DEATH_FROM_DISEASE_PROBABILITY),
+    MONKEY(Monkey.class, false, Monkey.BREEDING_AGE, Monkey.MAX_AGE, Monkey.BREEDING_PROBABILITY,
+        Monkey.MAX_LITTER_SIZE, Monkey.BASIC_FOOD_LEVEL, Monkey.MONKEY_DEATH_FROM_DISEASE_PROBABILITY),
+    PIG(Pig.class, false, Pig.BREEDING_AGE, Pig.MAX_AGE, Pig.BREEDING_PROBABILITY,
+        Pig.MAX_LITTER_SIZE, Pig.BASIC_FOOD_LEVEL, Pig.PIG_DEATH_FROM_DISEASE_PROBABILITY),
+    TORTOISE(Tortoise.class, false, Tortoise.BREEDING_AGE, Tortoise.MAX_AGE, Tortoise.BREEDING_PROBABILITY,
+        Tortoise.MAX_LITTER_SIZE, Tortoise.BASIC_FOOD_LEVEL, Tortoise.TORTOISE_DEATH_FROM_DISEASE_PROBABILITY);
+
+    // Cached copy of values(), so lookups by id do not copy the array.
+    private static final Species[] BY_ID = values();
+
+    static {
+        // The list of prey of each animal class, one bit per species id.
+        DODO.preyMask = PLANT.bit();
+        TORTOISE.preyMask = PLANT.bit();
+        HUMAN.preyMask = DODO.bit() | PIG.bit();
+        MONKEY.preyMask = DODO.bit();
+        PIG.preyMask = DODO.bit();
+    }
+
+    // The actor class modelling this species.
+    private final Class<? extends Actor> actorClass;
+    // Whether members of this species can overlap with other actors.
+    private final boolean overlap;
+    // The age at which a member of this species can start to breed.
+    private final int breedingAge;
+    // The age to which a member of this species can live.
+    private final int maxAge;
+    // The likelihood of a member of this species breeding.
+    private final double breedingProbability;
+    // The maximum number of births.
+    private final int maxLitterSize;
+    // The base rate used to give the number of steps a predator gains when it eats this species.
+    private final int foodValue;
+    // Probability that a member of this species dies from disease.
+    private final double deathFromDiseaseProbability;
+    // The species this species feeds on, as a bit set of species ids.
+    private int preyMask;
+
+    /**
+     * Defines a species from its characteristics.
+     *
+     * @param actorClass The actor class modelling this species.
+     * @param overlap Whether members of this species can overlap with other actors.
+     * @param breedingAge The minimum breeding age.
+     * @param maxAge The maximum age.
+     * @param breedingProbability The breeding probability.
+     * @param maxLitterSize The maximum litter per breeding session.
+     * @param foodValue The base food value.
+     * @param deathFromDiseaseProbability The probability of dying from disease.
+     */
+    private Species(Class<? extends Actor> actorClass, boolean overlap, int breedingAge, int maxAge, double breedingProbability,
+                    int maxLitterSize, int foodValue, double deathFromDiseaseProbability)
+    {
+        this.actorClass = actorClass;
+        this.overlap = overlap;
+        this.breedingAge = breedingAge;
+        this.maxAge = maxAge;
+        this.breedingProbability = breedingProbability;
+        this.maxLitterSize = maxLitterSize;
+        this.foodValue = foodValue;
+        this.deathFromDiseaseProbability = deathFromDiseaseProbability;
+    }
+
+    /**
+     * Returns the species with the given id.
+     *
+     * @param id The id of the species, as given by getId.
+     * @return The species with the given id.
+     */
+    public static Species fromId(int id)
+    {
+        return BY_ID[id];
+    }
+
+    /**
+     * Returns the number of species.
+     *
+     * @return The number of species.
+     */
+    public static int count()
+    {
+        return BY_ID.length;
+    }
+
+    /**
+     * @return The small integer id of this species.
+     */
+    public int getId()
+    {
+        return ordinal();
+    }
+
+    /**
+     * @return The actor class modelling this species.
+     */
+    public Class<? extends Actor> getActorClass()
+    {
+        return actorClass;
+    }
+
+    /**
+     * @return Whether this species is an animal.
+     */
+    public boolean isAnimal()
+    {
+        return this != PLANT;
+    }
+
+    /**
+     * @return The bit of this species in a bit set of species ids.
+     */
+    public int bit()
+    {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @return The species this species feeds on, as a bit set of species ids.
+     */
+    public int getPreyMask()
+    {
+        return preyMask;
+    }
+
+    /**
+     * Returns whether this species feeds on another species,
+     * following the list of prey of each animal class.
+     *
+     * @param prey The species that may be eaten.
+     * @return true if this species eats the prey.
+     */
+    public boolean eats(Species prey)
+    {
+        return (preyMask & prey.bit()) != 0;
+    }
+
+    /**
+     * @return Whether members of this species can overlap with other actors.
+     */
+    public boolean getOverlap()
+    {
+        return overlap;
+    }
+
+    /**
+     * @return The age at which a member of this species can start to breed.
+     */
+    public int getBreedingAge()
+    {
+        return breedingAge;
+    }
+
+    /**
+     * @return The age to which a member of this species can live.
+     */
+    public int getMaxAge()
+    {
+        return maxAge;
+    }
+
+    /**
+     * @return The likelihood of a member of this species breeding.
+     */
+    public double getBreedingProbability()
+    {
+        return breedingProbability;
+    }
+
+    /**
+     * @return The maximum number of births.
+     */
+    public int getMaxLitterSize()
+    {
+        return maxLitterSize;
+    }
+
+    /**
+     * @return The base food value of this species.
+     */
+    public int getFoodValue()
+    {
+        return foodValue;
+    }
+
+    /**
+     * @return The probability that a member of this species dies from disease.
+     */
+    public double getDeathFromDiseaseProbability()
+    {
+        return deathFromDiseaseProbability;
+    }
+}
@@ -0,0 +1,220 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Makes the steps of a running simulation on a thread of its own.
+ *
+ * The driver is run, paused, stepped once or stopped by changing its state,
+ * which wakes the driver thread if it has been started. While running, steps are started at a target rate
+ * measured with System.nanoTime, or one after another when unthrottled. A driver that
+ * is behind keeps to its schedule if it is less than one step late and otherwise
+ * starts a new one, so it never rushes through missed steps. While paused or stopped
+ * the thread is parked and uses no processor time.
+ *
+ * The thread is only started when the driver is first run or stepped, so a
+ * driver that is never run holds no thread. Once started, the thread lives
+ * until the driver is shut down.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class StepDriver
+{
+    // The target rate that makes steps one after another, as fast as possible.
+    public static final double UNTHROTTLED = 0;
+    // The number of nanoseconds in a second.
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // Makes one step, returning whether the simulation should carry on.
+    private final BooleanSupplier step;
+    // The current state of the driver.
+    private final AtomicReference<DriverState> state;
+    // The time between the starts of two steps in nanoseconds, 0 when unthrottled.
+    private volatile long period;
+    // The thread making the steps, null until it is first needed.
+    private Thread thread;
+
+    /**
+     * Create a stopped, unthrottled driver.
+     *
+     * @param step Makes one step and returns whether the simulation should carry on.
+     */
+    public StepDriver(BooleanSupplier step)
+    {
+        this.step = step;
+        state = new AtomicReference<>(DriverState.STOPPED);
+        period = 0;
+    }
+
+    /**
+     * Sets the number of steps made per second while running.
+     *
+     * @param stepsPerSecond The target rate, or UNTHROTTLED to make steps as fast as possible.
+     */
+    public void setTargetRate(double stepsPerSecond)
+    {
+        period = stepsPerSecond <= UNTHROTTLED ? 0 : (long) (NANOS_PER_SECOND / stepsPerSecond);
+        // Wakes a started thread so that a step already waited for is rescheduled.
+        wake(false);
+    }
+
+    /**
+     * Start making steps at the target rate.
+     */
+    public void run()
+    {
+        change(DriverState.RUNNING);
+    }
+
+    /**
+     * Stop making steps until the driver is run or stepped. The current step is finished.
+     */
+    public void pause()
+    {
+        state.compareAndSet(DriverState.RUNNING, DriverState.PAUSED);
+    }
+
+    /**
+     * Make a single step, if the driver is not running, then pause.
+     */
+    public void step()
+    {
+        DriverState current = state.get();
+        if((current == DriverState.PAUSED || current == DriverState.STOPPED)
+        && state.compareAndSet(current, DriverState.STEPPING)) {
+            wake(true);
+        }
+    }
+
+    /**
+     * Stop making steps until the driver is run again. The current step is finished.
+     */
+    public void stop()
+    {
+        change(DriverState.STOPPED);
+    }
+
+    /**
+     * End the driver thread once the current step is finished, and wait for it to end.
+     * The driver cannot be used again.
+     */
+    public void shutdown()
+    {
+        state.set(DriverState.SHUTDOWN);
+        Thread ending;
+        synchronized(this) {
+            ending = thread;
+        }
+        if(ending == null) {
+            return;
+        }
+        LockSupport.unpark(ending);
+        // A step that shuts its own driver down cannot wait for itself.
+        if(ending == Thread.currentThread()) {
+            return;
+        }
+        try {
+            ending.join();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The current state of the driver.
+     */
+    public DriverState getState()
+    {
+        return state.get();
+    }
+
+    /**
+     * Change the state of the driver, unless it has been shut down, and wake its thread.
+     * The thread is only started when the driver starts running.
+     *
+     * @param next The new state.
+     */
+    private void change(DriverState next)
+    {
+        DriverState current = state.get();
+        while(current != DriverState.SHUTDOWN && !state.compareAndSet(current, next)) {
+            current = state.get();
+        }
+        wake(next == DriverState.RUNNING);
+    }
+
+    /**
+     * Wake the driver thread, optionally starting it if it has not been started yet.
+     *
+     * @param start Whether to start the thread if it has not been started.
+     */
+    private synchronized void wake(boolean start)
+    {
+        if(thread == null) {
+            if(!start || state.get() == DriverState.SHUTDOWN) {
+                return;
+            }
+            thread = new Thread(this::loop, "simulation-driver");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * The loop of the driver thread, making steps while running and parking otherwise.
+     */
+    private void loop()
+    {
+        long lastStart = System.nanoTime() - period;
+        while(true) {
+            switch(state.get()) {
+                case SHUTDOWN:
+                    return;
+                case PAUSED:
+                case STOPPED:
+                    LockSupport.park(this);
+                    // The first step after a pause is made straight away.
+                    lastStart = System.nanoTime() - period;
+                    break;
+                case STEPPING:
+                    makeStep();
+                    state.compareAndSet(DriverState.STEPPING, DriverState.PAUSED);
+                    break;
+                case RUNNING:
+                    long now = System.nanoTime();
+                    long due = lastStart + period;
+                    if(due - now > 0) {
+                        // Woken early by a change of state or rate, the state and due time are checked again.
+                        LockSupport.parkNanos(this, due - now);
+                        break;
+                    }
+                    lastStart = now - due < period ? due : now;
+                    if(!makeStep()) {
+                        state.compareAndSet(DriverState.RUNNING, DriverState.STOPPED);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Make one step, stopping the driver if the step fails.
+     *
+     * @return Whether the simulation should carry on.
+     */
+    private boolean makeStep()
+    {
+        try {
+            return step.getAsBoolean();
+        }
+        catch(RuntimeException e) {
+            e.printStackTrace();
+            state.compareAndSet(DriverState.RUNNING, DriverState.STOPPED);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * The events counted during one step: births, kills, infections, cures and
+ * deaths by cause, for each species.
+ *
+ * The counts are held in a single int[], which a row of a results file is
+ * written from directly. The births come first, one per species, then the kills
+ * for each pair of killer and killed species, then the infections and cures,
+ * and then the deaths for each cause and species. Snapshots are not changed
+ * once taken.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class StepEvents
+{
+    // The number of species counted.
+    private static final int SPECIES = Species.count();
+    // Where each kind of count starts in the array of counts.
+    private static final int BIRTHS = 0;
+    private static final int KILLS = BIRTHS + SPECIES;
+    private static final int INFECTIONS = KILLS + SPECIES * SPECIES;
+    private static final int CURES = INFECTIONS + SPECIES;
+    private static final int DEATHS = CURES + SPECIES;
+    // The number of counts in a snapshot.
+    static final int SIZE = DEATHS + DeathCause.values().length * SPECIES;
+
+    // The step the events were counted in.
+    private final int step;
+    // The counts, laid out as described above.
+    private final int[] counts;
+
+    /**
+     * Create a snapshot of the events of a step.
+     *
+     * @param step The step the events were counted in.
+     * @param counts The counts, no longer changed by the caller.
+     */
+    StepEvents(int step, int[] counts)
+    {
+        this.step = step;
+        this.counts = counts;
+    }
+
+    /**
+     * @return The step the events were counted in.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @param species A species.
+     * @return The number of actors of the species born.
+     */
+    public int getBirths(Species species)
+    {
+        return counts[birthIndex(species)];
+    }
+
+    /**
+     * @param killer The species of the killing animals.
+     * @param killed The species of the actors killed.
+     * @return The number of actors of one species killed by animals of the other.
+     */
+    public int getKills(Species killer, Species killed)
+    {
+        return counts[killIndex(killer, killed)];
+    }
+
+    /**
+     * @param species A species.
+     * @return The number of animals of the species infected by others.
+     */
+    public int getInfections(Species species)
+    {
+        return counts[infectionIndex(species)];
+    }
+
+    /**
+     * @param species A species.
+     * @return The number of animals of the species cured.
+     */
+    public int getCures(Species species)
+    {
+        return counts[cureIndex(species)];
+    }
+
+    /**
+     * @param species A species.
+     * @param cause A cause of death.
+     * @return The number of actors of the species that died of the cause.
+     */
+    public int getDeaths(Species species, DeathCause cause)
+    {
+        return counts[deathIndex(species, cause)];
+    }
+
+    /**
+     * Returns the header line of a results file holding snapshots.
+     *
+     * @return The comma separated names of the columns.
+     */
+    public static String header()
+    {
+        StringBuilder line = new StringBuilder("step");
+        for(Species species : Species.values()) {
+            line.append(",born_").append(name(species));
+        }
+        for(Species killer : Species.values()) {
+            for(Species killed : Species.values()) {
+                line.append(",kill_").append(name(killer)).append('_').append(name(killed));
+            }
+        }
+        for(Species species : Species.values()) {
+            line.append(",infected_").append(name(species));
+        }
+        for(Species species : Species.values()) {
+            line.append(",cured_").append(name(species));
+        }
+        for(DeathCause cause : DeathCause.values()) {
+            for(Species species : Species.values()) {
+                line.append(",died_").append(cause.name().toLowerCase()).append('_').append(name(species));
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Returns the snapshot as a line of a results file.
+     *
+     * @return The comma separated step and counts, in the order of the header.
+     */
+    public String toCsv()
+    {
+        StringBuilder line = new StringBuilder();
+        line.append(step);
+        for(int count : counts) {
+            line.append(',').append(count);
+        }
+        return line.toString();
+    }
+
+    /**
+     * @param species A species.
+     * @return The name of the species used in column names.
+     */
+    private static String name(Species species)
+    {
+        return species.getActorClass().getName();
+    }
+
+    /**
+     * Returns where the births of a species are counted.
+     *
+     * @param species A species.
+     * @return The index of the count.
+     */
+    static int birthIndex(Species species)
+    {
+        return BIRTHS + species.getId();
+    }
+
+    /**
+     * Returns where the kills of one species by another are counted.
+     *
+     * @param killer The species of the killing animals.
+     * @param killed The species of the actors killed.
+     * @return The index of the count.
+     */
+    static int killIndex(Species killer, Species killed)
+    {
+        return KILLS + killer.getId() * SPECIES + killed.getId();
+    }
+
+    /**
+     * Returns where the infections of a species are counted.
+     *
+     * @param species A species.
+     * @return The index of the count.
+     */
+    static int infectionIndex(Species species)
+    {
+        return INFECTIONS + species.getId();
+    }
+
+    /**
+     * Returns where the cures of a species are counted.
+     *
+     * @param species A species.
+     * @return The index of the count.
+     */
+    static int cureIndex(Species species)
+    {
+        return CURES + species.getId();
+    }
+
+    /**
+     * Returns where the deaths of a species from a cause are counted.
+     *
+     * @param species A species.
+     * @param cause A cause of death.
+     * @return The index of the count.
+     */
+    static int deathIndex(Species species, DeathCause cause)
+    {
+        return DEATHS + cause.ordinal() * SPECIES + species.getId();
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * Defines the different ways the simulator can store and step its actors
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public enum StepMode
+{
+    // Every actor is an object in a list, acting on the shared field.
+    OBJECT,
+    // Actors are held as primitive arrays in an ActorStore, without a view.
+    COMPACT,
+    // Actor objects act in parallel, tile by tile, using TiledStep.
+    TILED,
+    // Actors are held in an ActorStore and act in parallel on a double-buffered grid, using BufferedStep.
+    BUFFERED
+}
@@ -0,0 +1,21 @@
+/**
+ * Defines the named phases a step of the simulation is timed in
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public enum StepPhase
+{
+    // Choosing the weather of the step.
+    WEATHER,
+    // Every actor acting, or the whole step of the actors when they are not stepped as objects.
+    ACT,
+    // Dropping the actors that died from the list of actors.
+    REMOVAL,
+    // Adding the newborn actors to the list of actors.
+    BIRTH_MERGE,
+    // Publishing the predators seen, stepping the plant and disease layers and reading the counts of the field.
+    STATS,
+    // Handing a snapshot of the field over to the view.
+    RENDER
+}
@@ -0,0 +1,499 @@
+import java.util.Random;
+
+/**
+ * Defines the actions taken each step by the actors held in an ActorStore.
+ *
+ * Every action mirrors the matching method of Actor, Animal, Plant and the
+ * animal classes, so that a simulation run on the store has the same
+ * population dynamics as one run on actor objects.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class StoreActions
+{
+    // The store holding the actors.
+    private final ActorStore store;
+    // A random number generator controlling the actors' behaviour.
+    private final Random rand;
+    // Scratch space for the cells adjacent to the acting actor.
+    private final int[] adjacent = new int[8];
+    // Scratch space for the free cells adjacent to the acting actor.
+    private final int[] free = new int[8];
+    // The predators seen eating each species.
+    private final PredatorRegistry predators;
+    // The counts of what the actors have done.
+    private final EventCounters events;
+
+    // The current time of day, true day, false night.
+    private boolean day;
+    // The weather modifier on plant breeding for the current step.
+    private double plantBreedEffect;
+    // The weather modifier on animal breeding for the current step.
+    private double animalBreedEffect;
+    // The weather modifier on animal hunting for the current step.
+    private double animalHuntEffect;
+
+    /**
+     * Create the actions for the actors in the given store.
+     *
+     * @param store The store holding the actors.
+     * @param predators The registry of the predators seen eating each species.
+     * @param events The counters of what the actors do.
+     */
+    public StoreActions(ActorStore store, PredatorRegistry predators, EventCounters events)
+    {
+        this.store = store;
+        this.predators = predators;
+        this.events = events;
+        rand = Randomizer.getRandom();
+    }
+
+    /**
+     * Add a new actor to the store, as the populate step of the simulator would.
+     * Actors are given a random id, animals are given a random gender, and actors created with a random age
+     * are also given a random food level.
+     *
+     * @param species The species of the actor.
+     * @param cell The cell the actor is created in.
+     * @param randomAge Whether the actor is given a random age.
+     * @param infected Whether the actor is infected.
+     * @return The handle of the new actor.
+     */
+    public int create(Species species, int cell, boolean randomAge, boolean infected)
+    {
+        long id = rand.nextLong();
+        Gender gender = null;
+        if(species.isAnimal()) {
+            gender = Gender.values()[rand.nextInt(Gender.values().length)];
+        }
+        int age = 0;
+        double food = species.getFoodValue();
+        if(randomAge) {
+            age = rand.nextInt(species.getMaxAge());
+            if(species.isAnimal()) {
+                food = rand.nextInt(species.getFoodValue());
+            }
+        }
+        return store.add(id, species, cell, age, food, gender, infected);
+    }
+
+    /**
+     * Let every actor in the store act once, then remove the dead ones.
+     * Actors born during the step first act in the next one.
+     * Each actor draws from its own random stream, as actor objects do.
+     *
+     * @param seed The seed used to key the random stream of each actor.
+     * @param step The current step of the simulation.
+     * @param weather The weather for this step.
+     * @return The number of infected actors after the step.
+     */
+    public int step(long seed, int step, Weather weather)
+    {
+        double[] plantEffect = WeatherAction.plantEffects(weather);
+        double[] animalEffect = WeatherAction.animalEffects(weather);
+        plantBreedEffect = plantEffect[WeatherEffectTypes.BREED.ordinal()];
+        animalBreedEffect = animalEffect[WeatherEffectTypes.BREED.ordinal()];
+        animalHuntEffect = animalEffect[WeatherEffectTypes.HUNT.ordinal()];
+
+        // As in the object model, an actor is only removed if it is dead once it
+        // has acted, and actors killed after their turn act once more while dead.
+        // This keeps both using the random generator in the same way.
+        int timeOfDay = step % 2;
+        int actors = store.size();
+        int infected = 0;
+        for(int handle = 0; handle < actors; handle++) {
+            Randomizer.beginStream(seed, step, store.getId(handle));
+            act(handle, timeOfDay);
+            if(!store.isAlive(handle)) {
+                store.remove(handle);
+            }
+            else if(store.isInfected(handle)) {
+                infected++;
+            }
+        }
+
+        store.compact();
+        predators.publish();
+        return infected;
+    }
+
+    /**
+     * Let one actor act, as Actor.act does.
+     * As there, the day actions are followed by the night actions.
+     *
+     * @param handle The acting actor.
+     * @param timeOfDay 0 for a step that starts with the day actions, 1 for night only.
+     */
+    private void act(int handle, int timeOfDay)
+    {
+        Species species = store.getSpecies(handle);
+        int cell = store.getCell(handle);
+
+        if(cell != ActorStore.EMPTY) {
+            // Dies if another actor took its cell while it could not overlap.
+            int shown = store.getHandleAt(cell);
+            if(!species.getOverlap() && shown != ActorStore.EMPTY && shown != handle) {
+                if(store.isAlive(handle)) {
+                    events.died(species, DeathCause.OVERCROWDING);
+                }
+                store.setOvercrowded(handle);
+            }
+            // Puts itself back on the field if its cell has been freed.
+            else if(shown == ActorStore.EMPTY) {
+                store.place(handle, cell);
+            }
+        }
+
+        if(timeOfDay == 0) {
+            day = true;
+            dayAct(handle, species);
+        }
+        day = false;
+        nightAct(handle, species);
+    }
+
+    /**
+     * Plays out the actions taken by an actor during the day.
+     *
+     * @param handle The acting actor.
+     * @param species The species of the actor.
+     */
+    private void dayAct(int handle, Species species)
+    {
+        if(species == Species.PLANT) {
+            incrementAge(handle, species);
+            if(store.isAlive(handle)) {
+                plantGiveBirth(handle);
+            }
+            return;
+        }
+
+        incrementAge(handle, species);
+        incrementHunger(handle);
+        dieInfection(handle, species);
+
+        if(store.isAlive(handle)) {
+            // Humans give birth at night.
+            if(species != Species.HUMAN) {
+                giveBirth(handle, species);
+            }
+            cureInfected(handle);
+            spreadVirus(handle);
+
+            // Move towards a source of food if found.
+            int newCell = findFood(handle, species);
+            if(newCell == ActorStore.EMPTY) {
+                // No food found - try to move to a free cell.
+                newCell = freeAdjacentCell(store.getCell(handle));
+            }
+            // See if it was possible to move.
+            if(newCell != ActorStore.EMPTY) {
+                store.move(handle, newCell);
+            }
+            else {
+                // Overcrowding.
+                die(handle, species, DeathCause.OVERCROWDING);
+            }
+        }
+    }
+
+    /**
+     * Plays out the actions taken by an actor during the night.
+     *
+     * @param handle The acting actor.
+     * @param species The species of the actor.
+     */
+    private void nightAct(int handle, Species species)
+    {
+        switch(species) {
+            case PLANT:
+                if(store.isAlive(handle)) {
+                    plantGiveBirth(handle);
+                }
+                break;
+            case DODO:
+                dieInfection(handle, species);
+                if(store.isAlive(handle)) {
+                    cureInfected(handle);
+                    spreadVirus(handle);
+
+                    // Charges into predator killing it
+                    int newCell = chargePredator(handle, species);
+                    if(newCell != ActorStore.EMPTY && Dodo.ATTACK_CHANCE >= rand.nextDouble()) {
+                        store.move(handle, newCell);
+                    }
+                }
+                break;
+            case HUMAN:
+                dieInfection(handle, species);
+                if(store.isAlive(handle)) {
+                    giveBirth(handle, species);
+                    cureInfected(handle);
+                    spreadVirus(handle);
+                }
+                break;
+            case TORTOISE:
+                if(store.isAlive(handle)) {
+                    cureInfected(handle);
+                    spreadVirus(handle);
+                }
+                break;
+            default:
+                dieInfection(handle, species);
+        }
+    }
+
+    /**
+     * Increase the age. This could result in the actor's death.
+     *
+     * @param handle The acting actor.
+     * @param species The species of the actor.
+     */
+    private void incrementAge(int handle, Species species)
+    {
+        int age = store.getAge(handle) + 1;
+        store.setAge(handle, age);
+        if(age > species.getMaxAge()) {
+            die(handle, species, DeathCause.AGE);
+        }
+    }
+
+    /**
+     * Make this animal more hungry. This could result in the animal's death.
+     *
+     * @param handle The acting animal.
+     */
+    private void incrementHunger(int handle)
+    {
+        double food = store.getFoodLevel(handle) - 1;
+        store.setFoodLevel(handle, food);
+        if(food <= 0) {
+            die(handle, store.getSpecies(handle), DeathCause.STARVATION);
+        }
+    }
+
+    /**
+     * If infected, the animal may die of the disease.
+     *
+     * @param handle The acting animal.
+     * @param species The species of the animal.
+     */
+    private void dieInfection(int handle, Species species)
+    {
+        if(store.isInfected(handle) && rand.nextDouble() <= species.getDeathFromDiseaseProbability()) {
+            die(handle, species, DeathCause.DISEASE);
+        }
+    }
+
+    /**
+     * Kill an actor, counting its death unless it was already dead.
+     *
+     * @param handle The actor that died.
+     * @param species The species of the actor.
+     * @param cause What the actor died of.
+     */
+    private void die(int handle, Species species, DeathCause cause)
+    {
+        if(store.isAlive(handle)) {
+            events.died(species, cause);
+        }
+        store.setDead(handle);
+    }
+
+    /**
+     * If infected, the animal may be cured.
+     *
+     * @param handle The acting animal.
+     */
+    private void cureInfected(int handle)
+    {
+        if(store.isInfected(handle)) {
+            store.setInfected(handle, rand.nextDouble() > Animal.CURE_INFECTION_PROBABILITY);
+            if(!store.isInfected(handle)) {
+                events.cured(store.getSpecies(handle));
+            }
+        }
+    }
+
+    /**
+     * If infected, gives adjacent animals the chance to be infected.
+     *
+     * @param handle The acting animal.
+     */
+    private void spreadVirus(int handle)
+    {
+        if(store.isInfected(handle)) {
+            int count = store.adjacentCells(store.getCell(handle), rand, adjacent);
+            for(int i = 0; i < count; i++) {
+                int other = store.getHandleAt(adjacent[i]);
+                if(other != ActorStore.EMPTY && store.getSpecies(other).isAnimal()
+                && rand.nextDouble() > Animal.VIRUS_SPREAD_PROBABILITY && !store.isInfected(other)) {
+                    store.setInfected(other, true);
+                    events.infected(store.getSpecies(other));
+                }
+            }
+        }
+    }
+
+    /**
+     * Fill the free array with the free cells adjacent to a cell, in a random order.
+     * If the actor shown at the cell can overlap, every adjacent cell counts as free.
+     *
+     * @param cell The cell from which to find free cells.
+     * @return The number of free cells found.
+     */
+    private int freeAdjacentCells(int cell)
+    {
+        int count = store.adjacentCells(cell, rand, adjacent);
+        int shown = store.getHandleAt(cell);
+        boolean overlap = shown == ActorStore.EMPTY || store.getSpecies(shown).getOverlap();
+        int freeCount = 0;
+        for(int i = 0; i < count; i++) {
+            int other = store.getHandleAt(adjacent[i]);
+            if(overlap || other == ActorStore.EMPTY || store.getSpecies(other).getOverlap()) {
+                free[freeCount++] = adjacent[i];
+            }
+        }
+        return freeCount;
+    }
+
+    /**
+     * Find a random free cell adjacent to a cell.
+     *
+     * @param cell The cell from which to find a free cell.
+     * @return A free adjacent cell, or EMPTY if there is none.
+     */
+    private int freeAdjacentCell(int cell)
+    {
+        if(freeAdjacentCells(cell) > 0) {
+            return free[0];
+        }
+        return ActorStore.EMPTY;
+    }
+
+    /**
+     * An animal can breed if it has reached the breeding age and is next to a
+     * mate of the same species and the opposite gender.
+     *
+     * @param handle The acting animal.
+     * @param species The species of the animal.
+     * @return true if the animal can breed.
+     */
+    private boolean canBreed(int handle, Species species)
+    {
+        int count = store.adjacentCells(store.getCell(handle), rand, adjacent);
+        boolean partner = false;
+        for(int i = 0; i < count && !partner; i++) {
+            int other = store.getHandleAt(adjacent[i]);
+            partner = other != ActorStore.EMPTY && store.getSpecies(other) == species
+                && store.getGender(other) != store.getGender(handle);
+        }
+        return store.getAge(handle) >= species.getBreedingAge() && partner;
+    }
+
+    /**
+     * Check whether or not this animal is to give birth at this step.
+     * New births will be made into free adjacent cells.
+     *
+     * @param handle The acting animal.
+     * @param species The species of the animal.
+     */
+    private void giveBirth(int handle, Species species)
+    {
+        int freeCount = freeAdjacentCells(store.getCell(handle));
+        int births = 0;
+        if(canBreed(handle, species) && rand.nextDouble() <= species.getBreedingProbability() * animalBreedEffect) {
+            births = rand.nextInt(species.getMaxLitterSize()) + 1;
+        }
+        for(int b = 0; b < births && b < freeCount; b++) {
+            create(species, free[b], false, false);
+            events.born(species);
+        }
+    }
+
+    /**
+     * Check whether or not this plant is to give birth at this step.
+     * As in Plant, new plants only take root under adjacent animals.
+     *
+     * @param handle The acting plant.
+     */
+    private void plantGiveBirth(int handle)
+    {
+        int freeCount = freeAdjacentCells(store.getCell(handle));
+        int births = 0;
+        double dayEffect = day ? 1 : Plant.NIGHT_BREEDING_EFFECT;
+        if(store.getAge(handle) >= Species.PLANT.getBreedingAge()
+        && rand.nextDouble() <= Species.PLANT.getBreedingProbability() * dayEffect * plantBreedEffect) {
+            births = rand.nextInt(Species.PLANT.getMaxLitterSize()) + 1;
+        }
+
+        int next = 0;
+        for(int b = 0; b < births && next < freeCount; b++) {
+            int other = store.getHandleAt(free[next]);
+            if(other != ActorStore.EMPTY && store.getSpecies(other) != Species.PLANT) {
+                create(Species.PLANT, free[next], false, false);
+                events.born(Species.PLANT);
+                next++;
+            }
+        }
+    }
+
+    /**
+     * Look for prey adjacent to the animal. Every live prey found may be eaten,
+     * increasing the animal's food level.
+     *
+     * @param handle The acting animal.
+     * @param species The species of the animal.
+     * @return The cell of the first prey eaten, or EMPTY if none was.
+     */
+    private int findFood(int handle, Species species)
+    {
+        int count = store.adjacentCells(store.getCell(handle), rand, adjacent);
+        int found = ActorStore.EMPTY;
+        for(int i = 0; i < count; i++) {
+            int prey = store.getHandleAt(adjacent[i]);
+            if(prey != ActorStore.EMPTY && species.eats(store.getSpecies(prey))
+            && rand.nextDouble() <= Animal.EATING_PROBABILITY * animalHuntEffect && store.isAlive(prey)) {
+                store.setDead(prey);
+                events.killed(species, store.getSpecies(prey));
+                store.setFoodLevel(handle, store.getFoodLevel(handle) + store.getFoodValue(prey));
+                if(store.getSpecies(prey).isAnimal()) {
+                    store.setInfected(handle, store.isInfected(handle) || store.isInfected(prey));
+                    predators.learn(store.getSpecies(prey), species);
+                }
+                if(found == ActorStore.EMPTY) {
+                    found = adjacent[i];
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Dodos attack their known predators. Every known predator adjacent
+     * to the dodo may be killed.
+     *
+     * @param handle The acting dodo.
+     * @param species The species of the dodo.
+     * @return The cell of the first predator killed, or EMPTY if none was.
+     */
+    private int chargePredator(int handle, Species species)
+    {
+        int count = store.adjacentCells(store.getCell(handle), rand, adjacent);
+        int found = ActorStore.EMPTY;
+        for(int i = 0; i < count; i++) {
+            int predator = store.getHandleAt(adjacent[i]);
+            if(predator != ActorStore.EMPTY && predators.isKnownPredator(species, store.getSpecies(predator))
+            && rand.nextDouble() <= Dodo.ATTACK_CHANCE && store.isAlive(predator)) {
+                store.setDead(predator);
+                events.killed(species, store.getSpecies(predator));
+                store.setFoodLevel(handle, store.getFoodLevel(handle) + store.getFoodValue(predator));
+                if(found == ActorStore.EMPTY) {
+                    found = adjacent[i];
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.Random;
+
+/**
+ * A random generator made of counter-based streams, one per thread.
+ *
+ * A stream is started from a key made of the seed of a run, the step and the id
+ * of whatever is drawing numbers, usually an actor. Each number is a mix of the key
+ * and a counter, so the numbers drawn only depend on the key and on how many
+ * numbers were drawn before from the same stream. Actors can then act on any thread,
+ * in any order, and still draw the same numbers for the same seed.
+ *
+ * The generator keeps no shared state, so threads never contend on it.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class StreamRandom extends Random
+{
+    // The version of the serialized form inherited from Random.
+    private static final long serialVersionUID = 1L;
+    // The odd constant added to the counter for each number, as in SplittableRandom.
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // The position in the current stream of each thread.
+    private final ThreadLocal<long[]> state = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * Start a new stream on the current thread.
+     *
+     * @param seed The seed of the run.
+     * @param step The current step of the run.
+     * @param id The id of whatever draws from the stream.
+     */
+    public void beginStream(long seed, long step, long id)
+    {
+        state.get()[0] = mix(mix(mix(seed) + step) + id);
+    }
+
+    /**
+     * Start a new stream on the current thread for one of the purposes an actor
+     * draws numbers for other than acting, apart from the stream it acts with.
+     *
+     * @param seed The seed of the run.
+     * @param step The current step of the run.
+     * @param stream The id of the purpose, one of the stream ids of Randomizer.
+     * @param id The id of the actor drawing from the stream.
+     */
+    public void beginStream(long seed, long step, long stream, long id)
+    {
+        state.get()[0] = mix(mix(mix(mix(seed) + step) + stream) + id);
+    }
+
+    /**
+     * Start a new stream keyed only by the given seed, as Random.setSeed would.
+     *
+     * @param seed The key of the new stream.
+     */
+    @Override
+    public void setSeed(long seed)
+    {
+        // Random calls setSeed from its constructor, before the state exists.
+        if(state != null) {
+            beginStream(seed, 0, 0);
+        }
+    }
+
+    /**
+     * Generates the next number of the current stream of this thread.
+     *
+     * @param bits The number of random bits wanted.
+     * @return The next number, holding the given number of random bits.
+     */
+    @Override
+    protected int next(int bits)
+    {
+        long[] position = state.get();
+        position[0] += GOLDEN_GAMMA;
+        return (int) (mix(position[0]) >>> (64 - bits));
+    }
+
+    /**
+     * Scrambles the bits of a value, using the finaliser of SplittableRandom.
+     *
+     * @param value The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(long value)
+    {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
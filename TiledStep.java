@@ -0,0 +1,253 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Steps actor objects in parallel by splitting the field into square tiles.
+ *
+ * On a day step an actor runs its day actions and then its night actions, so it
+ * may move to a cell next to its own and then act on the cells around that one:
+ * a Human moves and then gives birth around its new cell, and a Dodo moves and
+ * then spreads the virus and charges from its new cell. An actor therefore reads
+ * and changes cells up to REACH cells from where it started the step, and two
+ * actors more than twice that apart can act at the same time.
+ * Tiles are given one of four colours in a repeating 2x2 pattern, which keeps
+ * tiles of the same colour a whole tile apart in every direction, diagonals included,
+ * so tiles at least MIN_TILE_SIZE wide keep the cells reached from them apart.
+ * Each step runs four fork/join phases, one per colour, and all tiles of the
+ * colour of a phase are stepped concurrently.
+ *
+ * Actors are assigned to the tile holding their location at the start of the step,
+ * and act in the order they appear in the actor list within their tile.
+ * Tiles with no actors are skipped, so empty regions of a large field cost nothing.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class TiledStep
+{
+    // The furthest an actor reads or changes a cell from its cell at the start of a step.
+    public static final int REACH = 2;
+    // The smallest tile that keeps the cells reached from same-coloured tiles apart.
+    public static final int MIN_TILE_SIZE = 2 * REACH;
+    // The number of tile colours, one per phase.
+    private static final int COLOURS = 4;
+
+    // The field the actors are on.
+    private final Field field;
+    // The width and depth of a tile in cells.
+    private final int tileSize;
+    // The number of rows and columns of tiles.
+    private final int tileRows, tileCols;
+    // The actors to act in each tile this step.
+    private final List<List<Actor>> tiles;
+    // The actors born in each tile this step.
+    private final List<List<Actor>> births;
+    // The tiles of each colour.
+    private final int[][] colourTiles;
+    // The tiles of the colour being stepped that hold actors.
+    private final int[] activeTiles;
+    // The pool running the tiles of a phase.
+    private final ForkJoinPool pool;
+    // The seed used to key the random stream of each actor.
+    private final long seed;
+
+    // The current step.
+    private int step;
+    // The weather of the current step.
+    private Weather weather;
+
+    /**
+     * Create a tiled stepper for the given field.
+     *
+     * @param field The field the actors are on.
+     * @param tileSize The width and depth of a tile in cells, at least MIN_TILE_SIZE.
+     * @param threads The number of threads used to step tiles.
+     * @param seed The seed used to key the random stream of each actor.
+     */
+    public TiledStep(Field field, int tileSize, int threads, long seed)
+    {
+        if(tileSize < MIN_TILE_SIZE) {
+            throw new IllegalArgumentException("Tiles must be at least " + MIN_TILE_SIZE + " cells wide");
+        }
+        this.field = field;
+        this.tileSize = tileSize;
+        tileRows = (field.getDepth() + tileSize - 1) / tileSize;
+        tileCols = (field.getWidth() + tileSize - 1) / tileSize;
+
+        int tileCount = tileRows * tileCols;
+        tiles = new ArrayList<>(tileCount);
+        births = new ArrayList<>(tileCount);
+        for(int tile = 0; tile < tileCount; tile++) {
+            tiles.add(new ArrayList<>());
+            births.add(new ArrayList<>());
+        }
+
+        // Group the tiles by colour.
+        int[] colourCounts = new int[COLOURS];
+        for(int tile = 0; tile < tileCount; tile++) {
+            colourCounts[colourOf(tile)]++;
+        }
+        colourTiles = new int[COLOURS][];
+        for(int colour = 0; colour < COLOURS; colour++) {
+            colourTiles[colour] = new int[colourCounts[colour]];
+            colourCounts[colour] = 0;
+        }
+        for(int tile = 0; tile < tileCount; tile++) {
+            int colour = colourOf(tile);
+            colourTiles[colour][colourCounts[colour]++] = tile;
+        }
+        activeTiles = new int[colourTiles[0].length];
+
+        pool = new ForkJoinPool(threads);
+        this.seed = seed;
+    }
+
+    /**
+     * Let every actor act once, tile by tile.
+     * The actor list is rebuilt with the surviving actors, tile by tile,
+     * followed by the actors born this step.
+     * Predators seen during the step only become known once every tile is done,
+     * so the result does not depend on the order tiles are run in.
+     *
+     * @param actors The actors in the simulation.
+     * @param step The current step, which also decides day or night.
+     * @param weather The weather for this step.
+     */
+    public void step(List<Actor> actors, int step, Weather weather)
+    {
+        this.step = step;
+        this.weather = weather;
+
+        for(Actor actor : actors) {
+            int cell = actor.getCell();
+            // Dead actors have no cell, but still act once more before they are removed.
+            int tile = cell == Field.NO_CELL ? 0 : tileOf(cell);
+            tiles.get(tile).add(actor);
+        }
+
+        for(int colour = 0; colour < COLOURS; colour++) {
+            int active = 0;
+            for(int tile : colourTiles[colour]) {
+                if(!tiles.get(tile).isEmpty()) {
+                    activeTiles[active++] = tile;
+                }
+            }
+            if(active > 0) {
+                pool.invoke(new TileTask(activeTiles, 0, active));
+            }
+        }
+        field.getPredators().publish();
+
+        // Rebuild the actor list in tile order, with the newborns at the end.
+        actors.clear();
+        for(int tile = 0; tile < tiles.size(); tile++) {
+            actors.addAll(tiles.get(tile));
+            tiles.get(tile).clear();
+        }
+        for(List<Actor> born : births) {
+            actors.addAll(born);
+            born.clear();
+        }
+    }
+
+    /**
+     * Let the actors of one tile act.
+     * Actors that are dead after acting are dropped from the tile.
+     *
+     * @param tile The tile to step.
+     */
+    private void stepTile(int tile)
+    {
+        List<Actor> tileActors = tiles.get(tile);
+        List<Actor> born = births.get(tile);
+        int live = 0;
+        for(int i = 0; i < tileActors.size(); i++) {
+            Actor actor = tileActors.get(i);
+            Randomizer.beginStream(seed, step, actor.getId());
+            actor.act(born, step % 2, weather);
+            if(actor.isAlive()) {
+                tileActors.set(live++, actor);
+            }
+        }
+        tileActors.subList(live, tileActors.size()).clear();
+    }
+
+    /**
+     * Shut down the threads used to step tiles.
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Returns the tile holding the given cell.
+     *
+     * @param cell A cell in the field.
+     * @return The index of the tile holding the cell.
+     */
+    private int tileOf(int cell)
+    {
+        int width = field.getWidth();
+        return (cell / width / tileSize) * tileCols + (cell % width) / tileSize;
+    }
+
+    /**
+     * Returns the colour of a tile, from its position in the 2x2 pattern.
+     *
+     * @param tile The index of a tile.
+     * @return The colour of the tile.
+     */
+    private int colourOf(int tile)
+    {
+        int tileRow = tile / tileCols;
+        int tileCol = tile % tileCols;
+        return (tileRow % 2) * 2 + tileCol % 2;
+    }
+
+    /**
+     * Steps a range of the tiles of one colour, splitting the range
+     * between threads until each task holds a single tile.
+     */
+    private class TileTask extends RecursiveAction
+    {
+        // RecursiveAction is serializable, but tasks are never written out.
+        private static final long serialVersionUID = 1L;
+
+        // The tiles of the colour being stepped.
+        private final int[] phase;
+        // The range of tiles this task steps.
+        private final int from, to;
+
+        /**
+         * Create a task stepping a range of tiles.
+         *
+         * @param phase The tiles of the colour being stepped.
+         * @param from The first tile in the range.
+         * @param to One past the last tile in the range.
+         */
+        TileTask(int[] phase, int from, int to)
+        {
+            this.phase = phase;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Step the range of tiles, or split it in two.
+         */
+        @Override
+        protected void compute()
+        {
+            if(to - from == 1) {
+                stepTile(phase[from]);
+            }
+            else if(to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(phase, from, middle), new TileTask(phase, middle, to));
+            }
+        }
+    }
+}
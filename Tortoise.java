@@ -1,5 +1,4 @@
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * A simple model of a tortoise.
@@ -13,24 +12,18 @@ public class Tortoise extends Animal
     // Characteristics shared by all tortoises (class variables).
 
     // The age at which a tortoise can start to breed.
-    private static final int BREEDING_AGE = 10;
+    static final int BREEDING_AGE = 10;
     // The age to which a tortoise can live.
-    private static final int MAX_AGE = 90;
+    static final int MAX_AGE = 90;
     // The likelihood of a tortoise breeding.
-    private static final double BREEDING_PROBABILITY = 0.2;
+    static final double BREEDING_PROBABILITY = 0.2;
     // The maximum number of births.
-    private static final int MAX_LITTER_SIZE = 5;
+    static final int MAX_LITTER_SIZE = 5;
     // The base rate which is used to give
     // the number of steps a predator gains when it eats a tortoise
-    private static final int BASIC_FOOD_LEVEL = 20;
+    static final int BASIC_FOOD_LEVEL = 20;
     // Probability that a tortoise dies from disease.
-    private static final double TORTOISE_DEATH_FROM_DISEASE_PROBABILITY = 0.015;
-    // List of all tortoise prey.
-    private final ArrayList<Class> LIST_OF_PREY = new ArrayList<>() {
-            {
-                add(Plant.class);
-            }
-        };
+    static final double TORTOISE_DEATH_FROM_DISEASE_PROBABILITY = 0.015;
 
     /**
      * Create a tortoise. A tortoise can be created as a new born (age zero
@@ -38,13 +31,13 @@ public class Tortoise extends Animal
      * 
      * @param randomAge If true, the tortoise will have random age and hunger level.
      * @param field     The field currently occupied.
-     * @param location  The location within the field.
+     * @param cell      The cell within the field.
      * @param overlap   Whether or not an actor is allowed to overlap with other actors
      * @param infected  Boolean value determining if the animal is infected or not
      */
-    protected Tortoise(boolean randomAge, Field field, Location location, boolean infected)
+    protected Tortoise(boolean randomAge, Field field, int cell, boolean infected)
     {
-        super(field, location, infected);
+        super(field, cell, infected);
 
         // Sets values in animal class
         setOverlap(false);
@@ -83,18 +76,18 @@ public class Tortoise extends Animal
             spreadVirus();      
 
             // Move towards a source of food if found.
-            Location newLocation = super.findFood(LIST_OF_PREY);
-            if(newLocation == null) { 
-                // No food found - try to move to a free location.
-                newLocation = getField().freeAdjacentLocation(getLocation());
+            int newCell = super.findFood();
+            if(newCell == Field.NO_CELL) { 
+                // No food found - try to move to a free cell.
+                newCell = getField().freeAdjacentCell(getCell());
             }
             // See if it was possible to move.
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell != Field.NO_CELL) {
+                setCell(newCell);
             }
             else {
                 // Overcrowding.
-                setDead();
+                setDead(DeathCause.OVERCROWDING);
             }
         }
     }
@@ -112,4 +105,12 @@ public class Tortoise extends Animal
             spreadVirus();
         } 
     }
+
+    /**
+     * @return The species of the tortoise.
+     */
+    public Species getSpecies()
+    {
+        return Species.TORTOISE;
+    }
 }
@@ -35,6 +35,11 @@ public class WeatherAction
             }
         };
 
+    // The modifiers on plants for each weather, indexed by weather then effect type ordinal.
+    private static final double[][] PLANT_EFFECTS = table(plantBreedEffect, null);
+    // The modifiers on animals for each weather, indexed by weather then effect type ordinal.
+    private static final double[][] ANIMAL_EFFECTS = table(animalBreedEffect, animalHuntEffect);
+
     /**
      * No weather objects are constructed
      * All values are statically used
@@ -44,51 +49,60 @@ public class WeatherAction
     }
 
     /**
-     * Returns a Map of modifiers for plants based on the actions they take.
-     * If weather condition has no modifier, it is set to 1.
+     * Returns the modifiers for plants under a weather, indexed by effect type ordinal.
+     * The array is shared by every caller and must not be changed.
      * 
      * @param weather The current weather.
-     * @return The Map of actions and their current modifiers.
+     * @return The modifiers of each effect type, 1 where the weather has no effect.
      */
-    public static EnumMap<WeatherEffectTypes, Double> weatherOnPlants(Weather weather)
+    public static double[] plantEffects(Weather weather)
     {
-        EnumMap<WeatherEffectTypes, Double> weatherEffect = new EnumMap<>(WeatherEffectTypes.class);
-
-        if (plantBreedEffect.get(weather) != null) {
-            weatherEffect.put(WeatherEffectTypes.BREED, plantBreedEffect.get(weather));
-        }
-        else {
-            weatherEffect.put(WeatherEffectTypes.BREED, 1.0);
-        }
-
-        return weatherEffect;
+        return PLANT_EFFECTS[weather.ordinal()];
     }
 
     /**
-     * Returns a Map of modifiers for animals based on the actions they take.
-     * If weather condition has no modifier, it is set to 1.
+     * Returns the modifiers for animals under a weather, indexed by effect type ordinal.
+     * The array is shared by every caller and must not be changed.
      * 
      * @param weather The current weather.
-     * @return The Map of actions and their current modifiers.
+     * @return The modifiers of each effect type, 1 where the weather has no effect.
      */
-    public static EnumMap<WeatherEffectTypes, Double> weatherOnAnimals(Weather weather)
+    public static double[] animalEffects(Weather weather)
     {
-        EnumMap<WeatherEffectTypes, Double> weatherEffect = new EnumMap<>(WeatherEffectTypes.class);
+        return ANIMAL_EFFECTS[weather.ordinal()];
+    }
 
-        if(animalBreedEffect.get(weather) != null){
-            weatherEffect.put(WeatherEffectTypes.BREED, animalBreedEffect.get(weather));
-        }
-        else{
-            weatherEffect.put(WeatherEffectTypes.BREED, 1.0);
+    /**
+     * Builds a table of modifiers for each weather from the maps of breeding and hunting modifiers.
+     * If weather condition has no modifier, it is set to 1.
+     * 
+     * @param breedEffect The breeding modifiers, or null if there are none.
+     * @param huntEffect The hunting modifiers, or null if there are none.
+     * @return The modifiers, indexed by weather then effect type ordinal.
+     */
+    private static double[][] table(EnumMap<Weather, Double> breedEffect, EnumMap<Weather, Double> huntEffect)
+    {
+        double[][] effects = new double[Weather.values().length][WeatherEffectTypes.values().length];
+        for (Weather weather : Weather.values()) {
+            double[] row = effects[weather.ordinal()];
+            row[WeatherEffectTypes.BREED.ordinal()] = modifier(breedEffect, weather);
+            row[WeatherEffectTypes.HUNT.ordinal()] = modifier(huntEffect, weather);
         }
+        return effects;
+    }
 
-        if (animalHuntEffect.get(weather) != null) {
-            weatherEffect.put(WeatherEffectTypes.HUNT, animalHuntEffect.get(weather));
-        } 
-        else {
-            weatherEffect.put(WeatherEffectTypes.HUNT, 1.0);
+    /**
+     * Returns the modifier of a weather in a map of modifiers.
+     * 
+     * @param effect The map of modifiers, or null if there are none.
+     * @param weather The weather.
+     * @return The modifier, 1 if the weather has none.
+     */
+    private static double modifier(EnumMap<Weather, Double> effect, Weather weather)
+    {
+        if (effect != null && effect.get(weather) != null) {
+            return effect.get(weather);
         }
-
-        return weatherEffect;
+        return 1.0;
     }
 }
@@ -0,0 +1,218 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Sets up the work measured by the benchmarks, with fixed seeds.
+ *
+ * The simulation classes are in the default package, which classes in a named
+ * package cannot import, so the benchmarks reach this class by reflection.
+ * Each method builds its state once and returns the operation to measure,
+ * which returns a value so that the work is not optimised away.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class SimulationFixture
+{
+    // The scale each cell is drawn at on the offscreen image.
+    private static final int CELL_SCALE = 6;
+
+    /**
+     * Create a populated simulation without a view.
+     *
+     * @param seed The seed of the simulation.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param density The factor the animal creation probabilities are scaled by.
+     * @return The populated simulation.
+     */
+    private static Simulator simulator(long seed, int depth, int width, double density)
+    {
+        // Seeded before any actor exists so every run of a benchmark sees the same field.
+        Randomizer.setSeed(seed);
+        SimulationConfig config = new SimulationConfig();
+        for(String name : SimulationConfig.PARAMETERS) {
+            if(!name.equals("PLANT_CREATION_PROBABILITY") && !name.equals("DISEASE_CREATION_PROBABILITY")) {
+                config.set(name, config.get(name) * density);
+            }
+        }
+        return new Simulator(depth, width, 1, false, seed, config);
+    }
+
+    /**
+     * Measures Field.adjacentLocations, visiting each location of the field in turn.
+     *
+     * @param seed The seed of the simulation.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @return The operation, returning the number of adjacent locations.
+     */
+    public static IntSupplier adjacentLocations(long seed, int depth, int width)
+    {
+        Field field = simulator(seed, depth, width, 1).getField();
+        Location[] locations = locations(field);
+        int[] next = {0};
+        return () -> field.adjacentLocations(locations[next[0]++ % locations.length]).size();
+    }
+
+    /**
+     * Measures Field.getFreeAdjacentLocations, visiting each location of the field in turn.
+     *
+     * @param seed The seed of the simulation.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @return The operation, returning the number of free adjacent locations.
+     */
+    public static IntSupplier freeAdjacentLocations(long seed, int depth, int width)
+    {
+        Field field = simulator(seed, depth, width, 1).getField();
+        Location[] locations = locations(field);
+        int[] next = {0};
+        return () -> field.getFreeAdjacentLocations(locations[next[0]++ % locations.length]).size();
+    }
+
+    /**
+     * Measures Animal.findFood, visiting each animal of a populated field in turn.
+     * Any prey eaten is put back afterwards, so the field stays the same.
+     *
+     * @param seed The seed of the simulation.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @return The operation, returning the cell food was found at.
+     */
+    public static IntSupplier findFood(long seed, int depth, int width)
+    {
+        Field field = simulator(seed, depth, width, 1).getField();
+        List<Animal> animals = new ArrayList<>();
+        for(int cell = 0; cell < field.getDepth() * field.getWidth(); cell++) {
+            Object actor = field.getObjectAt(cell);
+            if(actor instanceof Animal) {
+                Animal animal = (Animal) actor;
+                animal.weather = Weather.SUNNY;
+                animal.setWeatherEffects();
+                animals.add(animal);
+            }
+        }
+        Actor[] neighbours = new Actor[Neighbourhood.DIRECTIONS];
+        int[] cells = new int[Neighbourhood.DIRECTIONS];
+        int[] next = {0};
+        return () -> {
+            Animal animal = animals.get(next[0]++ % animals.size());
+            int cell = animal.getCell();
+            for(int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+                cells[k] = field.adjacentCell(cell, 0, k);
+                neighbours[k] = cells[k] == Field.NO_CELL ? null : (Actor) field.getObjectAt(cells[k]);
+            }
+            int found = animal.findFood();
+            for(int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+                if(neighbours[k] != null && !neighbours[k].isAlive()) {
+                    revive(neighbours[k], field, cells[k]);
+                }
+            }
+            return found;
+        };
+    }
+
+    /**
+     * Measures Simulator.populate, through a reset of the simulation.
+     *
+     * @param seed The seed of the simulation.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param density The factor the animal creation probabilities are scaled by.
+     * @return The operation, returning the number of dodos created.
+     */
+    public static IntSupplier populate(long seed, int depth, int width, double density)
+    {
+        Simulator simulator = simulator(seed, depth, width, density);
+        return () -> {
+            simulator.reset();
+            return simulator.getPopulation(Species.DODO);
+        };
+    }
+
+    /**
+     * Measures one full step of the simulation. The simulation is reset
+     * once it is no longer viable, which is rare over a measurement.
+     *
+     * @param seed The seed of the simulation.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param density The factor the animal creation probabilities are scaled by.
+     * @return The operation, returning the current step.
+     */
+    public static IntSupplier step(long seed, int depth, int width, double density)
+    {
+        Simulator simulator = simulator(seed, depth, width, density);
+        return () -> {
+            if(simulator.simulateHeadless(1) == 0) {
+                simulator.reset();
+            }
+            return simulator.getStep();
+        };
+    }
+
+    /**
+     * Measures drawing the field the way the view does: a snapshot is taken and drawn
+     * in full onto the raster, which is then scaled onto an offscreen image.
+     *
+     * @param seed The seed of the simulation.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @return The operation, returning the colour of the top left pixel.
+     */
+    public static IntSupplier render(long seed, int depth, int width)
+    {
+        Field field = simulator(seed, depth, width, 1).getField();
+        FieldRaster raster = new FieldRaster(depth, width);
+        BufferedImage screen = new BufferedImage(width * CELL_SCALE, depth * CELL_SCALE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        int[] palette = new int[Species.count()];
+        for(int id = 0; id < palette.length; id++) {
+            palette[id] = Color.getHSBColor((float) id / palette.length, 1, 1).getRGB();
+        }
+        int emptyRgb = Color.white.getRGB();
+        return () -> {
+            FieldSnapshot frame = FieldSnapshot.take(field, null, 0, 0, Weather.SUNNY, 0);
+            raster.draw(frame, null, palette, emptyRgb);
+            g.drawImage(raster.getImage(), 0, 0, screen.getWidth(), screen.getHeight(), null);
+            return screen.getRGB(0, 0);
+        };
+    }
+
+    /**
+     * Returns the location of every cell of a field.
+     *
+     * @param field The field.
+     * @return The locations, indexed by cell.
+     */
+    private static Location[] locations(Field field)
+    {
+        Location[] locations = new Location[field.getDepth() * field.getWidth()];
+        for(int cell = 0; cell < locations.length; cell++) {
+            locations[cell] = field.getLocation(cell);
+        }
+        return locations;
+    }
+
+    /**
+     * Put an eaten actor back where it was.
+     *
+     * @param actor The eaten actor.
+     * @param field The field it was eaten in.
+     * @param cell The cell it was at.
+     */
+    private static void revive(Actor actor, Field field, int cell)
+    {
+        actor.alive = true;
+        actor.field = field;
+        actor.cell = cell;
+        field.place(actor, cell);
+    }
+}
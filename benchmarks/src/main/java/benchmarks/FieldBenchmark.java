@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-actor searches of the neighbourhood of a cell
+ * on the default sized field.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldBenchmark
+{
+    // The seed the field is populated with.
+    @Param({"1111"})
+    public long seed;
+
+    // The operations measured.
+    private IntSupplier adjacent, free, food;
+
+    @Setup
+    public void setUp()
+    {
+        adjacent = Fixture.operation("adjacentLocations", seed, 100, 150);
+        free = Fixture.operation("freeAdjacentLocations", seed, 100, 150);
+        food = Fixture.operation("findFood", seed, 100, 150);
+    }
+
+    @Benchmark
+    public int adjacentLocations()
+    {
+        return adjacent.getAsInt();
+    }
+
+    @Benchmark
+    public int getFreeAdjacentLocations()
+    {
+        return free.getAsInt();
+    }
+
+    @Benchmark
+    public int findFood()
+    {
+        return food.getAsInt();
+    }
+}
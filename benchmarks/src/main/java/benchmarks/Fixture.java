@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.IntSupplier;
+
+/**
+ * Reaches the operations set up by SimulationFixture, which is in the default
+ * package along with the simulation and so cannot be imported from here.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+final class Fixture
+{
+    // The name of the class setting up the operations.
+    private static final String FIXTURE_CLASS = "SimulationFixture";
+
+    private Fixture()
+    {
+    }
+
+    /**
+     * Set up an operation to measure.
+     *
+     * @param name The name of the SimulationFixture method setting it up.
+     * @param args The arguments of the method.
+     * @return The operation.
+     */
+    static IntSupplier operation(String name, Object... args)
+    {
+        try {
+            for(Method method : Class.forName(FIXTURE_CLASS).getMethods()) {
+                if(method.getName().equals(name)) {
+                    return (IntSupplier) method.invoke(null, args);
+                }
+            }
+            throw new IllegalArgumentException("No fixture called " + name);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not set up " + name, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not set up " + name, e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures drawing a whole field as the view's updatePanel and paintComponent do,
+ * onto an offscreen image so no display is needed.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark
+{
+    // The seed the field is populated with.
+    @Param({"1111"})
+    public long seed;
+
+    // The depth and width of the field.
+    @Param({"100x150", "200x300"})
+    public String size;
+
+    // The operation measured.
+    private IntSupplier render;
+
+    @Setup
+    public void setUp()
+    {
+        String[] dimensions = size.split("x");
+        render = Fixture.operation("render", seed, Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+    }
+
+    @Benchmark
+    public int updatePanel()
+    {
+        return render.getAsInt();
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures populating the field and making a full step of the simulation
+ * at several grid sizes and animal densities. A density of 1 is the default
+ * mix of creation probabilities; the others scale every animal's probability.
+ *
+ * The simulation is set up again before every iteration, so each iteration
+ * measures the same run of steps from the same starting field.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StepBenchmark
+{
+    // The seed the field is populated with.
+    @Param({"1111"})
+    public long seed;
+
+    // The depth and width of the field.
+    @Param({"100x150", "200x300", "400x600"})
+    public String size;
+
+    // The factor the animal creation probabilities are scaled by.
+    @Param({"0.5", "1.0", "1.5"})
+    public double density;
+
+    // The operations measured.
+    private IntSupplier populate, step;
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        String[] dimensions = size.split("x");
+        int depth = Integer.parseInt(dimensions[0]);
+        int width = Integer.parseInt(dimensions[1]);
+        populate = Fixture.operation("populate", seed, depth, width, density);
+        step = Fixture.operation("step", seed, depth, width, density);
+    }
+
+    @Benchmark
+    public int populate()
+    {
+        return populate.getAsInt();
+    }
+
+    @Benchmark
+    public int simulateOneStep()
+    {
+        return step.getAsInt();
+    }
+}
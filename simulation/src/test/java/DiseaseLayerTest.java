@@ -0,0 +1,80 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the disease layer steps every animal in the field, newborns included.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class DiseaseLayerTest
+{
+    /**
+     * Collect the animals shown in a field.
+     *
+     * @param field The field holding the animals.
+     * @return The animals shown, compared by identity.
+     */
+    private static Set<Animal> shownAnimals(Field field)
+    {
+        Set<Animal> animals = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(int cell = 0; cell < field.getDepth() * field.getWidth(); cell++) {
+            Object actor = field.getObjectAt(cell);
+            if(actor instanceof Animal) {
+                animals.add((Animal) actor);
+            }
+        }
+        return animals;
+    }
+
+    /**
+     * Run the first step with every animal infected, and count the animals born
+     * during it that caught the virus from the infected animals around them.
+     *
+     * @param mode The step mode to run in.
+     * @return The number of infected newborns.
+     */
+    private static int infectedNewborns(StepMode mode)
+    {
+        SimulationConfig config = new SimulationConfig();
+        config.set("DISEASE_CREATION_PROBABILITY", 1);
+        try (Simulator simulator = new Simulator(60, 60, 1, false, 5, config)) {
+            simulator.setDiseaseLayer(true);
+            simulator.setStepMode(mode);
+            Set<Animal> before = shownAnimals(simulator.getField());
+            simulator.simulateHeadless(1);
+            int infected = 0;
+            for(Animal animal : shownAnimals(simulator.getField())) {
+                if(!before.contains(animal) && animal.getInfected()) {
+                    infected++;
+                }
+            }
+            return infected;
+        }
+    }
+
+    /**
+     * Animals born next to infected animals can catch the virus in the step they are born,
+     * when stepping actor objects one by one.
+     */
+    @Test
+    public void objectNewbornsCatchVirus()
+    {
+        assertTrue(infectedNewborns(StepMode.OBJECT) > 0);
+    }
+
+    /**
+     * Animals born next to infected animals can catch the virus in the step they are born,
+     * when stepping actor objects tile by tile.
+     */
+    @Test
+    public void tiledNewbornsCatchVirus()
+    {
+        assertTrue(infectedNewborns(StepMode.TILED) > 0);
+    }
+}
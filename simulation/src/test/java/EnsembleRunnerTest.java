@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that an ensemble releases the simulators of its runs.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class EnsembleRunnerTest
+{
+    /**
+     * @return The number of step driver threads still alive.
+     */
+    private static long driverThreads()
+    {
+        return Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread.isAlive() && thread.getName().equals("simulation-driver"))
+            .count();
+    }
+
+    /**
+     * No step driver thread is left behind once every run of an ensemble is over.
+     */
+    @Test
+    public void runLeavesNoDriverThreads(@TempDir Path directory) throws Exception
+    {
+        long before = driverThreads();
+        EnsembleRunner ensemble = new EnsembleRunner();
+        ensemble.set("steps", "5");
+        ensemble.set("width", "30");
+        ensemble.set("depth", "30");
+        ensemble.set("replicates", "10");
+
+        Path results = directory.resolve("results.csv");
+        assertEquals(10, ensemble.run(results, 4));
+        assertEquals(11, Files.readAllLines(results).size());
+        assertEquals(before, driverThreads());
+    }
+}
@@ -0,0 +1,84 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that the infected count of a step is that of the infected animals shown in the field.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class InfectedCountTest
+{
+    /**
+     * Count the live infected animals shown in a field.
+     *
+     * @param field The field holding the animals.
+     * @return The number of infected animals shown.
+     */
+    private static int recount(Field field)
+    {
+        int infected = 0;
+        for(int cell = 0; cell < field.getDepth() * field.getWidth(); cell++) {
+            Object actor = field.getObjectAt(cell);
+            if(actor instanceof Animal && ((Animal) actor).isAlive() && ((Animal) actor).getInfected()) {
+                infected++;
+            }
+        }
+        return infected;
+    }
+
+    /**
+     * Run a simulation, checking the infected count it exports after every step
+     * against a recount of the field.
+     *
+     * @param mode The step mode to run in.
+     * @param directory A directory for the metrics file.
+     */
+    private static void countsShownAnimals(StepMode mode, Path directory) throws Exception
+    {
+        Path file = directory.resolve(mode + ".csv");
+        List<Integer> expected = new ArrayList<>();
+        try (Simulator simulator = new Simulator(80, 80, 2, false, 5, new SimulationConfig());
+             MetricsSink metrics = new MetricsSink(file, MetricsFormat.CSV, OverflowPolicy.DROP)) {
+            simulator.setStepMode(mode);
+            simulator.setMetricsSink(metrics);
+            for(int step = 0; step < 30; step++) {
+                simulator.simulateHeadless(1);
+                expected.add(recount(simulator.getField()));
+            }
+            simulator.setMetricsSink(null);
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(expected.size() + 1, lines.size());
+        for(int row = 0; row < expected.size(); row++) {
+            String[] columns = lines.get(row + 1).split(",");
+            assertEquals((int) expected.get(row), Integer.parseInt(columns[columns.length - 2]), mode + " step " + (row + 1));
+        }
+    }
+
+    /**
+     * Stepping actor objects one by one exports the infected animals shown.
+     */
+    @Test
+    public void objectCountsShownAnimals(@TempDir Path directory) throws Exception
+    {
+        countsShownAnimals(StepMode.OBJECT, directory);
+    }
+
+    /**
+     * Stepping actor objects tile by tile exports the infected animals shown.
+     */
+    @Test
+    public void tiledCountsShownAnimals(@TempDir Path directory) throws Exception
+    {
+        countsShownAnimals(StepMode.TILED, directory);
+    }
+}
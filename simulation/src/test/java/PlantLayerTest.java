@@ -0,0 +1,66 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the count of plants kept in a plant layer matches the layer.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class PlantLayerTest
+{
+    /**
+     * Count the plants of the layer that are shown, those with no actor on top of them.
+     *
+     * @param field The field holding the plant layer.
+     * @return The number of plants shown.
+     */
+    private static int recount(Field field)
+    {
+        PlantLayer plants = field.getPlants();
+        int shown = 0;
+        for(int cell = 0; cell < field.getDepth() * field.getWidth(); cell++) {
+            if(plants.hasPlant(cell) && field.getObjectAt(cell) == null) {
+                shown++;
+            }
+        }
+        return shown;
+    }
+
+    /**
+     * Run a simulation with a plant layer, checking the count of plants after every step.
+     *
+     * @param mode The step mode to run in.
+     */
+    private static void countsMatchLayer(StepMode mode)
+    {
+        try (Simulator simulator = new Simulator(100, 150, 2, false, 5, new SimulationConfig())) {
+            simulator.setPlantLayer(true);
+            simulator.setStepMode(mode);
+            for(int step = 1; step <= 20; step++) {
+                simulator.simulateHeadless(1);
+                assertEquals(recount(simulator.getField()), simulator.getPopulation(Species.PLANT),
+                    mode + " step " + step);
+            }
+        }
+    }
+
+    /**
+     * Stepping actor objects one by one counts the plants of the layer.
+     */
+    @Test
+    public void objectCountsMatchLayer()
+    {
+        countsMatchLayer(StepMode.OBJECT);
+    }
+
+    /**
+     * Stepping actor objects tile by tile counts the plants of the layer.
+     */
+    @Test
+    public void tiledCountsMatchLayer()
+    {
+        countsMatchLayer(StepMode.TILED);
+    }
+}
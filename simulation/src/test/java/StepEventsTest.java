@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the events of a step are counted in every step mode.
+ *
+ * @author Bhavik Gilbert(K21004990) and Heman Seegolam(K21003628)
+ * @version (28/02/2022)
+ */
+public class StepEventsTest
+{
+    // The kinds of event counted during a step.
+    private enum Kind { BIRTH, KILL, INFECTION, CURE, DEATH }
+
+    /**
+     * Run a simulation and collect the kinds of event counted during its steps.
+     *
+     * @param mode The step mode to run in.
+     * @return The kinds of event counted at least once.
+     */
+    private static Set<Kind> countedKinds(StepMode mode)
+    {
+        Set<Kind> kinds = EnumSet.noneOf(Kind.class);
+        try (Simulator simulator = new Simulator(80, 80, 1, false, 7, new SimulationConfig())) {
+            simulator.setStepMode(mode);
+            for(int step = 0; step < 40; step++) {
+                simulator.simulateHeadless(1);
+                StepEvents events = simulator.getStepEvents();
+                for(Species species : Species.values()) {
+                    if(events.getBirths(species) > 0) {
+                        kinds.add(Kind.BIRTH);
+                    }
+                    if(events.getInfections(species) > 0) {
+                        kinds.add(Kind.INFECTION);
+                    }
+                    if(events.getCures(species) > 0) {
+                        kinds.add(Kind.CURE);
+                    }
+                    for(Species killed : Species.values()) {
+                        if(events.getKills(species, killed) > 0) {
+                            kinds.add(Kind.KILL);
+                        }
+                    }
+                    for(DeathCause cause : DeathCause.values()) {
+                        if(events.getDeaths(species, cause) > 0) {
+                            kinds.add(Kind.DEATH);
+                        }
+                    }
+                }
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * The buffered step mode counts the same kinds of event as stepping actor objects.
+     */
+    @Test
+    public void bufferedCountsEventsLikeObjects()
+    {
+        Set<Kind> object = countedKinds(StepMode.OBJECT);
+        assertEquals(EnumSet.allOf(Kind.class), object);
+        assertEquals(object, countedKinds(StepMode.BUFFERED));
+    }
+}